@@ -6,7 +6,7 @@ import { useRouter } from "next/navigation";
 import { api } from "@/lib/api";
 import { useAuth } from "@/context/AuthContext";
 import { Button, Card, CardContent } from "@/components/ui";
-import type { Course, Batch } from "@/types";
+import type { Course, BatchAvailability } from "@/types";
 import styles from "../courses.module.css";
 
 interface CourseDetailPageProps {
@@ -18,7 +18,7 @@ export default function CourseDetailPage({ params }: CourseDetailPageProps) {
   const router = useRouter();
   const { isAuthenticated, user } = useAuth();
   const [course, setCourse] = useState<Course | null>(null);
-  const [batches, setBatches] = useState<Batch[]>([]);
+  const [batches, setBatches] = useState<BatchAvailability[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState("");
   const [enrollingBatchId, setEnrollingBatchId] = useState<string | null>(null);
@@ -27,17 +27,9 @@ export default function CourseDetailPage({ params }: CourseDetailPageProps) {
     const fetchCourseAndBatches = async () => {
       setIsLoading(true);
       try {
-        const [coursesData, batchesData] = await Promise.all([
-          api.getAllCourses(),
-          api.getBatchesByCourse(id),
-        ]);
-        const foundCourse = coursesData.find((c) => c.id === id);
-        if (!foundCourse) {
-          setError("Course not found");
-        } else {
-          setCourse(foundCourse);
-          setBatches(batchesData);
-        }
+        const overview = await api.getCourseOverview(id);
+        setCourse(overview.course);
+        setBatches(overview.batches ?? []);
       } catch (err) {
         setError(err instanceof Error ? err.message : "Failed to load course");
       } finally {
@@ -116,7 +108,15 @@ export default function CourseDetailPage({ params }: CourseDetailPageProps) {
 
       <div className={styles.courseDetail}>
         <div className={styles.detailImage}>
-          <span className={styles.courseEmoji}>📖</span>
+          {course.thumbnailUrl ? (
+            <img
+              src={api.getCourseThumbnailUrl(course.id, 960)}
+              alt={course.title}
+              className={styles.thumbnail}
+            />
+          ) : (
+            <span className={styles.courseEmoji}>📖</span>
+          )}
         </div>
 
         <div className={styles.detailContent}>
@@ -154,26 +154,32 @@ export default function CourseDetailPage({ params }: CourseDetailPageProps) {
               </div>
             ) : (
               <div className={styles.batchesList}>
-                {batches.map((batch) => (
+                {batches.map(({ batch, seatsAvailable }) => (
                   <Card key={batch.id} className={styles.batchCard}>
                     <div className={styles.batchInfo}>
                       <span className={styles.batchName}>{batch.batchName}</span>
                       <span className={styles.batchMeta}>
-                        Max Students: {batch.maxStudents} • Starts:{" "}
-                        {formatDate(batch.startDate)}
+                        Max Students: {batch.maxStudents}
+                        {seatsAvailable !== null && ` • Seats Left: ${seatsAvailable}`}
+                        {" "}• Starts: {formatDate(batch.startDate)}
                       </span>
                     </div>
                     <Button
                       size="sm"
                       onClick={() => handleEnroll(batch.id)}
                       isLoading={enrollingBatchId === batch.id}
-                      disabled={user?.role !== "STUDENT" && isAuthenticated}
+                      disabled={
+                        (user?.role !== "STUDENT" && isAuthenticated) ||
+                        seatsAvailable === 0
+                      }
                     >
                       {!isAuthenticated
                         ? "Login to Enroll"
                         : user?.role !== "STUDENT"
                           ? "Students Only"
-                          : "Enroll Now"}
+                          : seatsAvailable === 0
+                            ? "Batch Full"
+                            : "Enroll Now"}
                     </Button>
                   </Card>
                 ))}
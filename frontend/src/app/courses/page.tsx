@@ -100,7 +100,16 @@ export default function CoursesPage() {
             >
               <Card hoverable className={styles.courseCard}>
                 <div className={styles.courseImage}>
-                  <span className={styles.courseEmoji}>📖</span>
+                  {course.thumbnailUrl ? (
+                    <img
+                      src={api.getCourseThumbnailUrl(course.id, 400)}
+                      alt={course.title}
+                      className={styles.thumbnail}
+                      loading="lazy"
+                    />
+                  ) : (
+                    <span className={styles.courseEmoji}>📖</span>
+                  )}
                 </div>
                 <CardContent>
                   <h3 className={styles.courseTitle}>{course.title}</h3>
@@ -12,13 +12,14 @@ import {
   Textarea,
 } from "@/components/ui";
 import { InstructorLiveLectures } from "./InstructorLiveLectures";
-import type { Course, Batch } from "@/types";
+import type { Course, Batch, InstructorStats } from "@/types";
 import styles from "./dashboard.module.css";
 
 export function InstructorDashboard() {
   const { user } = useAuth();
   const [activeTab, setActiveTab] = useState<"courses" | "lectures">("courses");
   const [courses, setCourses] = useState<Course[]>([]);
+  const [stats, setStats] = useState<InstructorStats | null>(null);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState("");
 
@@ -68,8 +69,18 @@ export function InstructorDashboard() {
     }
   };
 
+  // Totals come from the server-side counters, not from the lists above
+  const fetchStats = async () => {
+    try {
+      setStats(await api.getInstructorStats());
+    } catch {
+      setStats(null);
+    }
+  };
+
   useEffect(() => {
     fetchCourses();
+    fetchStats();
   }, [user?.email]);
 
   const handleCreateCourse = async (e: FormEvent) => {
@@ -84,6 +95,7 @@ export function InstructorDashboard() {
       setCourseForm({ title: "", description: "", price: "" });
       setShowCourseForm(false);
       fetchCourses();
+      fetchStats();
     } catch (err) {
       alert(err instanceof Error ? err.message : "Failed to create course");
     } finally {
@@ -104,6 +116,7 @@ export function InstructorDashboard() {
       setBatchForm({ batchName: "", maxStudents: "", startDate: "" });
       setShowBatchForm(null);
       fetchCourses();
+      fetchStats();
     } catch (err) {
       alert(err instanceof Error ? err.message : "Failed to create batch");
     } finally {
@@ -168,7 +181,9 @@ export function InstructorDashboard() {
         <Card className={styles.statCard}>
           <CardContent>
             <span className={styles.statIcon}>📚</span>
-            <span className={styles.statValue}>{courses.length}</span>
+            <span className={styles.statValue}>
+              {stats?.courses ?? courses.length}
+            </span>
             <span className={styles.statLabel}>Total Courses</span>
           </CardContent>
         </Card>
@@ -176,11 +191,41 @@ export function InstructorDashboard() {
           <CardContent>
             <span className={styles.statIcon}>👥</span>
             <span className={styles.statValue}>
-              {Object.values(batchesByCourse).flat().length}
+              {stats?.batches ?? Object.values(batchesByCourse).flat().length}
             </span>
             <span className={styles.statLabel}>Total Batches</span>
           </CardContent>
         </Card>
+        <Card className={styles.statCard}>
+          <CardContent>
+            <span className={styles.statIcon}>🎥</span>
+            <span className={styles.statValue}>
+              {stats?.lecturesByStatus.COMPLETED ?? 0} /{" "}
+              {stats?.lecturesByStatus.SCHEDULED ?? 0}
+            </span>
+            <span className={styles.statLabel}>Lectures Done / Upcoming</span>
+          </CardContent>
+        </Card>
+        <Card className={styles.statCard}>
+          <CardContent>
+            <span className={styles.statIcon}>🙋</span>
+            <span className={styles.statValue}>
+              {stats?.uniqueAttendees ?? 0} ({stats?.totalAttendees ?? 0})
+            </span>
+            <span className={styles.statLabel}>Students (Attendances)</span>
+          </CardContent>
+        </Card>
+        <Card className={styles.statCard}>
+          <CardContent>
+            <span className={styles.statIcon}>🪑</span>
+            <span className={styles.statValue}>
+              {stats?.seatFillRate != null
+                ? `${Math.round(stats.seatFillRate * 100)}%`
+                : "—"}
+            </span>
+            <span className={styles.statLabel}>Seats Filled</span>
+          </CardContent>
+        </Card>
         <Card className={styles.statCard}>
           <CardContent>
             <span className={styles.statIcon}>👨‍🏫</span>
@@ -4,7 +4,7 @@ import { useState, useEffect } from "react";
 import { useRouter } from "next/navigation";
 import { api } from "@/lib/api";
 import { Card, CardContent, Button } from "@/components/ui";
-import type { LiveLecture } from "@/types";
+import type { LectureStatusChange, LiveLecture } from "@/types";
 import styles from "./live-lectures.module.css";
 
 export function StudentLiveLectures() {
@@ -35,6 +35,27 @@ export function StudentLiveLectures() {
     fetchLectures();
   }, []);
 
+  // Apply status changes pushed by the server instead of polling
+  useEffect(() => {
+    const applyChange = (change: LectureStatusChange) => (lectures: LiveLecture[]) =>
+      change.lecture
+        ? lectures.map((l) => (l.id === change.lectureId ? change.lecture! : l))
+        : lectures.filter((l) => l.id !== change.lectureId);
+
+    const source = api.streamLectureStatus(
+      () => {},
+      (change) => {
+        if (change.previousStatus === null && change.lecture) {
+          fetchLectures(); // New lecture: reload so it lands in the right place
+          return;
+        }
+        setUpcomingLectures(applyChange(change));
+        setAllLectures(applyChange(change));
+      }
+    );
+    return () => source.close();
+  }, []);
+
   const formatDateTime = (dateString: string) => {
     return new Date(dateString).toLocaleString("en-US", {
       dateStyle: "medium",
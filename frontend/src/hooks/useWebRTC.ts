@@ -2,6 +2,7 @@
 
 import { useCallback, useEffect, useRef, useState } from "react";
 import type { Participant, ChatMessage } from "@/types";
+import { api } from "@/lib/api";
 
 interface UseWebRTCOptions {
   lectureId: string;
@@ -304,9 +305,23 @@ export function useWebRTC({
         break;
       }
 
+      case "chat-history": {
+        // Recent messages sent when joining a room that already has chat
+        setChatMessages(data.messages.map((m: Omit<ChatMessage, "fromSessionId">) => ({ ...m, fromSessionId: "" })));
+        break;
+      }
+
+      case "rate-limited":
+        // The server dropped one of our messages for being sent too fast
+        console.warn(`Message of type ${data.messageType} was rate limited`);
+        break;
+
       case "screen-share-started":
       case "screen-share-stopped":
-        // Handle UI updates for screen sharing state
+      case "recording-started":
+      case "recording-stopped":
+      case "room-state":
+        // Handle UI updates for screen sharing / recording state
         break;
     }
   }, [createPeerConnection]);
@@ -326,8 +341,8 @@ export function useWebRTC({
       console.warn("Media initialization failed, continuing without media:", err);
     }
 
-    const wsUrl = `ws://localhost:8080/ws/lecture/${lectureId}`;
-    console.log("Connecting to WebSocket:", wsUrl);
+    const wsUrl = api.lectureSocketUrl(lectureId);
+    console.log("Connecting to WebSocket for lecture:", lectureId);
     
     try {
       const ws = new WebSocket(wsUrl);
@@ -5,13 +5,24 @@ import type {
   RegisterResponse,
   Course,
   CourseCreateRequest,
+  CourseOverview,
   PaginatedResponse,
   Batch,
   BatchCreateRequest,
   Enrollment,
   LiveLecture,
   LiveLectureCreateRequest,
+  LectureSeriesRequest,
+  LectureSeriesResult,
+  LectureJoinResponse,
+  LectureStatusChange,
+  AttendanceReport,
+  ChatMessage,
   RoomInfo,
+  InstructorStats,
+  TrendingCourse,
+  ExportType,
+  ExportJob,
 } from "@/types";
 
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080/api";
@@ -85,6 +96,16 @@ class ApiClient {
     return this.request<Course[]>(`/courses/search?title=${encodeURIComponent(title)}`);
   }
 
+  // Course, batches with seat availability and upcoming lectures in one request
+  async getCourseOverview(courseId: string): Promise<CourseOverview> {
+    return this.request<CourseOverview>(`/courses/${courseId}/overview`);
+  }
+
+  // Smallest stored thumbnail variant that covers the given display width
+  getCourseThumbnailUrl(courseId: string, width: number): string {
+    return `${API_BASE_URL}/courses/${courseId}/thumbnail?width=${width}`;
+  }
+
   async createCourse(data: CourseCreateRequest): Promise<Course> {
     return this.request<Course>("/courses", {
       method: "POST",
@@ -93,6 +114,42 @@ class ApiClient {
   }
 
   // Batch endpoints
+  async getTrendingCourses(limit = 10, hours = 24): Promise<TrendingCourse[]> {
+    return this.request<TrendingCourse[]>(
+      `/courses/trending?limit=${limit}&hours=${hours}`
+    );
+  }
+
+  // CSV exports come back as files; the browser un-gzips the response transparently
+  private async download(endpoint: string): Promise<Blob> {
+    const response = await fetch(`${API_BASE_URL}${endpoint}`, {
+      headers: this.token ? { Authorization: `Bearer ${this.token}` } : {},
+    });
+    if (!response.ok) {
+      const errorData = await response.json().catch(() => ({}));
+      throw new Error(errorData.message || `Download failed with status ${response.status}`);
+    }
+    return response.blob();
+  }
+
+  async exportBatch(batchId: string, type: ExportType): Promise<Blob> {
+    return this.download(`/exports/batches/${batchId}/${type}`);
+  }
+
+  async startBatchExportJob(batchId: string, type: ExportType): Promise<ExportJob> {
+    return this.request<ExportJob>(`/exports/batches/${batchId}/${type}`, {
+      method: "POST",
+    });
+  }
+
+  async getExportJob(jobId: string): Promise<ExportJob> {
+    return this.request<ExportJob>(`/exports/jobs/${jobId}`);
+  }
+
+  async downloadExportJob(jobId: string): Promise<Blob> {
+    return this.download(`/exports/jobs/${jobId}/download`);
+  }
+
   async getBatchesByCourse(courseId: string): Promise<Batch[]> {
     return this.request<Batch[]>(`/batches/course/${courseId}`);
   }
@@ -123,6 +180,13 @@ class ApiClient {
     });
   }
 
+  async createLectureSeries(data: LectureSeriesRequest): Promise<LectureSeriesResult> {
+    return this.request<LectureSeriesResult>("/live-lectures/series", {
+      method: "POST",
+      body: JSON.stringify(data),
+    });
+  }
+
   async getLecturesByBatch(batchId: string): Promise<LiveLecture[]> {
     return this.request<LiveLecture[]>(`/live-lectures/batch/${batchId}`);
   }
@@ -186,18 +250,54 @@ class ApiClient {
     return this.request<LiveLecture[]>("/live-lectures/live-now");
   }
 
-  async joinLecture(id: string): Promise<LiveLecture> {
-    return this.request<LiveLecture>(`/live-lectures/${id}/join`, {
+  async joinLecture(id: string): Promise<LectureJoinResponse> {
+    return this.request<LectureJoinResponse>(`/live-lectures/${id}/join`, {
       method: "POST",
     });
   }
 
+  // Server-sent lecture status changes; the caller closes the returned EventSource
+  streamLectureStatus(
+    onSnapshot: (live: LiveLecture[]) => void,
+    onChange: (change: LectureStatusChange) => void
+  ): EventSource {
+    const query = this.token ? `?access_token=${encodeURIComponent(this.token)}` : "";
+    const source = new EventSource(`${API_BASE_URL}/live-lectures/stream${query}`);
+    source.addEventListener("snapshot", (e) => onSnapshot(JSON.parse((e as MessageEvent).data)));
+    source.addEventListener("lecture", (e) => onChange(JSON.parse((e as MessageEvent).data)));
+    return source;
+  }
+
+  // Signaling socket URL; the server authenticates the handshake with the token
+  lectureSocketUrl(lectureId: string): string {
+    const base = API_BASE_URL.replace(/^http/, "ws").replace(/\/api$/, "");
+    const query = this.token ? `?access_token=${encodeURIComponent(this.token)}` : "";
+    return `${base}/ws/lecture/${lectureId}${query}`;
+  }
+
   async getRoomInfo(id: string): Promise<RoomInfo> {
     return this.request<RoomInfo>(`/live-lectures/${id}/room-info`);
   }
 
-  async updateScreenShare(id: string, isScreenSharing: boolean): Promise<LiveLecture> {
-    return this.request<LiveLecture>(`/live-lectures/${id}/screen-share`, {
+  async getLectureAttendance(id: string): Promise<AttendanceReport> {
+    return this.request<AttendanceReport>(`/live-lectures/${id}/attendance`);
+  }
+
+  async getInstructorStats(): Promise<InstructorStats> {
+    return this.request<InstructorStats>("/instructor/stats");
+  }
+
+  async getRoomInfos(ids: string[]): Promise<RoomInfo[]> {
+    if (ids.length === 0) return [];
+    return this.request<RoomInfo[]>(`/live-lectures/room-info?ids=${ids.map(encodeURIComponent).join(",")}`);
+  }
+
+  async getLectureChat(id: string, page = 0, size = 50): Promise<PaginatedResponse<ChatMessage>> {
+    return this.request<PaginatedResponse<ChatMessage>>(`/live-lectures/${id}/chat?page=${page}&size=${size}`);
+  }
+
+  async updateScreenShare(id: string, isScreenSharing: boolean): Promise<RoomInfo> {
+    return this.request<RoomInfo>(`/live-lectures/${id}/screen-share`, {
       method: "PUT",
       body: JSON.stringify({ isScreenSharing }),
     });
@@ -44,9 +44,19 @@ export interface Course {
   description: string;
   price: number;
   instructorEmail: string;
+  thumbnailUrl?: string;
+  thumbnailVariants?: ImageVariant[];
   createdAt: string;
 }
 
+export interface ImageVariant {
+  name: "card" | "detail" | "retina";
+  width: number;
+  height: number;
+  format: string;
+  url: string;
+}
+
 export interface CourseCreateRequest {
   title: string;
   description: string;
@@ -73,6 +83,20 @@ export interface Batch {
   instructorEmail: string;
 }
 
+export interface BatchAvailability {
+  batch: Batch;
+  enrolled: number | null;
+  seatsAvailable: number | null;
+}
+
+export interface CourseOverview {
+  course: Course;
+  batches: BatchAvailability[] | null;
+  upcomingLectures: LiveLecture[] | null;
+  partial: boolean;
+  missing: string[];
+}
+
 export interface BatchCreateRequest {
   courseId: string;
   batchName: string;
@@ -123,6 +147,114 @@ export interface LiveLectureCreateRequest {
   maxParticipants?: number;
 }
 
+export type DayOfWeek = "MONDAY" | "TUESDAY" | "WEDNESDAY" | "THURSDAY" | "FRIDAY" | "SATURDAY" | "SUNDAY";
+
+export interface LectureSeriesRequest {
+  batchId: string;
+  courseId: string;
+  title: string;
+  description?: string;
+  durationMinutes: number;
+  maxParticipants?: number;
+  frequency: "DAILY" | "WEEKLY";
+  interval?: number;
+  daysOfWeek?: DayOfWeek[];
+  startDate: string; // yyyy-MM-dd
+  startTime: string; // HH:mm
+  until?: string;
+  count?: number;
+  exceptions?: string[];
+  onConflict?: "FAIL" | "SKIP";
+}
+
+export interface LectureSeriesConflict {
+  scheduledAt: string;
+  lectureId: string | null;
+  lectureTitle: string;
+  lectureScheduledAt: string;
+}
+
+export interface LectureSeriesResult {
+  seriesId: string | null;
+  created: LiveLecture[];
+  conflicts: LectureSeriesConflict[];
+}
+
+export interface LectureJoinResponse {
+  lectureId: string;
+  roomId: string;
+  participantCount: number;
+}
+
+export interface AttendanceTimelinePoint {
+  start: string;
+  peak: number;
+  average: number;
+}
+
+export interface StudentAttendance {
+  studentEmail: string;
+  minutesAttended: number;
+}
+
+export interface AttendanceReport {
+  lectureId: string;
+  peak: number;
+  average: number;
+  timeline: AttendanceTimelinePoint[];
+  students: StudentAttendance[];
+}
+
+export type ExportType = "roster" | "attendance";
+
+export interface ExportJob {
+  id: string;
+  batchId: string;
+  type: "ROSTER" | "ATTENDANCE";
+  status: "QUEUED" | "RUNNING" | "DONE" | "FAILED";
+  rows: number | null;
+  bytes: number | null;
+  error: string | null;
+  createdAt: string;
+  finishedAt: string | null;
+}
+
+export interface TrendingCourse {
+  courseId: string;
+  title: string | null;
+  views: number;
+  uniqueViewers: number;
+  enrollments: number;
+  score: number;
+}
+
+export interface BatchSeats {
+  batchName: string;
+  courseId: string;
+  enrolled: number;
+  maxStudents: number | null;
+}
+
+export interface InstructorStats {
+  id: string;
+  courses: number;
+  batches: number;
+  lecturesByStatus: Partial<Record<LectureStatus, number>>;
+  totalAttendees: number;
+  uniqueAttendees: number;
+  batchSeats: Record<string, BatchSeats>;
+  seatFillRate: number | null;
+  reconciledAt: string;
+}
+
+export interface LectureStatusChange {
+  lectureId: string;
+  batchId: string;
+  status: LectureStatus | null;
+  previousStatus: LectureStatus | null;
+  lecture: LiveLecture | null;
+}
+
 export interface RoomInfo {
   lectureId: string;
   roomId: string;
@@ -130,6 +262,8 @@ export interface RoomInfo {
   participantCount: number;
   maxParticipants: number;
   isScreenSharing: boolean;
+  isRecording: boolean;
+  instructorPresent: boolean;
   instructorEmail: string;
 }
 
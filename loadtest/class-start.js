@@ -0,0 +1,61 @@
+// Class-start spike for comparing threading modes (see compare-threading.sh).
+// Students poll their timeline, open the course page, join the lecture and connect to the
+// signaling socket at once. Needs a seeded student, course and LIVE lecture:
+//   k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=... -e PASSWORD=... \
+//          -e COURSE_ID=... -e LECTURE_ID=... class-start.js
+import http from "k6/http";
+import ws from "k6/ws";
+import { check, sleep } from "k6";
+import { Counter } from "k6/metrics";
+
+const BASE_URL = __ENV.BASE_URL || "http://localhost:8080";
+const WS_URL = BASE_URL.replace(/^http/, "ws");
+const shed = new Counter("shed_503");
+
+export const options = {
+  scenarios: {
+    spike: {
+      executor: "ramping-vus",
+      startVUs: 0,
+      stages: [
+        { duration: "30s", target: Number(__ENV.PEAK_VUS || 1000) },
+        { duration: "2m", target: Number(__ENV.PEAK_VUS || 1000) },
+        { duration: "30s", target: 0 },
+      ],
+    },
+  },
+  summaryTrendStats: ["avg", "p(50)", "p(95)", "p(99)", "max"],
+};
+
+// One login for the whole run: login is rate limited per account
+export function setup() {
+  const res = http.post(`${BASE_URL}/api/auth/login`,
+    JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+    { headers: { "Content-Type": "application/json" } });
+  check(res, { "logged in": (r) => r.status === 200 });
+  return { token: res.json("token") };
+}
+
+function count(res) {
+  if (res.status === 503) shed.add(1);
+  return res;
+}
+
+export default function (data) {
+  const params = { headers: { Authorization: `Bearer ${data.token}` } };
+
+  check(count(http.get(`${BASE_URL}/api/live-lectures/my-upcoming`, params)), { "timeline 200": (r) => r.status === 200 });
+  check(count(http.get(`${BASE_URL}/api/courses/${__ENV.COURSE_ID}/overview`, params)), { "overview 200": (r) => r.status === 200 });
+  check(count(http.post(`${BASE_URL}/api/live-lectures/${__ENV.LECTURE_ID}/join`, null, params)), { "join 200": (r) => r.status === 200 });
+
+  // Browsers can't set headers on a WebSocket, so the token goes in the query; the lecture,
+  // email and role of the participant come from the handshake, not from the join message
+  ws.connect(`${WS_URL}/ws/lecture/${__ENV.LECTURE_ID}?access_token=${encodeURIComponent(data.token)}`, {}, (socket) => {
+    socket.on("open", () => {
+      socket.send(JSON.stringify({ type: "join" }));
+      socket.setTimeout(() => socket.close(), 5000);
+    });
+  });
+
+  sleep(1);
+}
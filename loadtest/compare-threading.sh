@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Runs the class-start spike against the backend on platform threads, then on virtual
+# threads, and prints latency, throughput and shed requests side by side.
+# Needs k6, a JDK 21 and the seeded data described in class-start.js:
+#   EMAIL=... PASSWORD=... COURSE_ID=... LECTURE_ID=... ./loadtest/compare-threading.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RESULTS=loadtest/results
+PORT=${PORT:-8080}
+mkdir -p "$RESULTS"
+
+./mvnw -q -Pjava21 clean package -DskipTests
+JAR=$(ls target/backend-*.jar | head -n 1)
+
+run_mode() {
+  local mode=$1 profiles=$2
+  echo "== $mode threads"
+  java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" > "$RESULTS/$mode.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+  k6 run --quiet -e BASE_URL="http://localhost:$PORT" \
+    -e EMAIL="$EMAIL" -e PASSWORD="$PASSWORD" -e COURSE_ID="$COURSE_ID" -e LECTURE_ID="$LECTURE_ID" \
+    --summary-export "$RESULTS/$mode.json" loadtest/class-start.js
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform default
+run_mode virtual virtual
+
+python3 - "$RESULTS" <<'PY'
+import json, sys
+rows = [("requests/s", "http_reqs", "rate"), ("p50 ms", "http_req_duration", "p(50)"),
+        ("p95 ms", "http_req_duration", "p(95)"), ("p99 ms", "http_req_duration", "p(99)"),
+        ("failed %", "http_req_failed", "value"), ("shed 503", "shed_503", "count")]
+results = {m: json.load(open(f"{sys.argv[1]}/{m}.json"))["metrics"] for m in ("platform", "virtual")}
+print(f"{'':12}{'platform':>12}{'virtual':>12}")
+for label, metric, stat in rows:
+    vals = [results[m].get(metric, {}).get(stat, 0) for m in ("platform", "virtual")]
+    if stat == "value":
+        vals = [v * 100 for v in vals]
+    print(f"{label:12}" + "".join(f"{v:12.1f}" for v in vals))
+PY
@@ -0,0 +1,150 @@
+package com.learnado.backend.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnado.backend.dto.ErrorResponse;
+import com.learnado.backend.util.GradientLimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds load before it reaches the controllers. Requests in flight are capped by a
+ * {@link GradientLimit} that shrinks when latency rises (threads waiting on Mongo) and grows
+ * back when it falls. Each request is classed by path. CRITICAL requests (signaling
+ * handshakes, joining and running a lecture) may use the whole limit. NORMAL and LOW (GET
+ * catalog browsing) requests only get a share of it, so under a spike they are refused
+ * first. A refused request gets 503 with Retry-After straight away instead of queueing for a
+ * thread. Runs ahead of {@link JwtAuthFilter}, so shed requests never cost a user lookup.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    enum Priority { CRITICAL, NORMAL, LOW }
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final GradientLimit limit;
+    private final List<String> criticalPaths;
+    private final List<String> lowPaths;
+    private final List<String> exemptPaths;
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.concurrency.enabled:true}") boolean enabled,
+            @Value("${learnado.concurrency.initial-limit:50}") int initialLimit,
+            @Value("${learnado.concurrency.min-limit:10}") int minLimit,
+            @Value("${learnado.concurrency.max-limit:180}") int maxLimit,
+            @Value("${learnado.concurrency.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${learnado.concurrency.window-ms:1000}") long windowMillis,
+            @Value("${learnado.concurrency.normal-share:0.85}") double normalShare,
+            @Value("${learnado.concurrency.low-share:0.6}") double lowShare,
+            @Value("${learnado.concurrency.critical-paths:/ws/**,/api/live-lectures/*/join,/api/live-lectures/*/start,/api/live-lectures/*/end}") List<String> criticalPaths,
+            @Value("${learnado.concurrency.low-paths:/api/courses/**,/api/batches/**,/api/stream/courses/**,/api/stream/batches/**}") List<String> lowPaths,
+            @Value("${learnado.concurrency.exempt-paths:/actuator/health}") List<String> exemptPaths,
+            @Value("${learnado.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.limit = new GradientLimit(initialLimit, minLimit, maxLimit, rttTolerance,
+                Duration.ofMillis(windowMillis).toNanos(), 10);
+        this.criticalPaths = criticalPaths;
+        this.lowPaths = lowPaths;
+        this.exemptPaths = exemptPaths;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        shares.put(Priority.CRITICAL, 1.0);
+        shares.put(Priority.NORMAL, normalShare);
+        shares.put(Priority.LOW, lowShare);
+
+        Gauge.builder("http.concurrency.limit", limit, GradientLimit::getLimit)
+                .description("Current adaptive limit on requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.in_flight", limit, GradientLimit::getInFlight)
+                .description("Requests currently holding a permit")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder("http.concurrency.shed")
+                    .description("Requests refused with 503 by the concurrency limit")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || matches(exemptPaths, request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = classify(request);
+        if (!limit.tryAcquire(shares.get(priority))) {
+            shed.get(priority).increment();
+            reject(response);
+            return;
+        }
+        // Measured until the servlet thread is handed back; streamed and SSE responses
+        // finish on other threads and don't hold a permit
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    Priority classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (matches(criticalPaths, path)) {
+            return Priority.CRITICAL;
+        }
+        if (("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) && matches(lowPaths, path)) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                "Server is busy, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE.value(), LocalDateTime.now()));
+    }
+
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATHS.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
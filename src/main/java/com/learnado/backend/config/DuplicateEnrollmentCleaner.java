@@ -0,0 +1,70 @@
+package com.learnado.backend.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Enrollment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Removes duplicate (studentEmail, batchId) enrollments left by the old enroll path, which
+ * could enroll a student twice, so the unique enrollment index can be built. The earliest
+ * enrollment of each pair is kept. The batches involved lose their enrolledCount, so the
+ * seat check recounts them from the remaining enrollments. Does nothing once the unique
+ * index exists.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DuplicateEnrollmentCleaner {
+
+    static final String UNIQUE_INDEX = "student_batch_unique";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Returns how many enrollments were removed
+    public int removeDuplicates() {
+        boolean indexed = mongoTemplate.indexOps(Enrollment.class).getIndexInfo().stream()
+                .anyMatch(index -> UNIQUE_INDEX.equals(index.getName()) && index.isUnique());
+        if (indexed) {
+            return 0;
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by("enrolledAt", "_id")),
+                Aggregation.group("studentEmail", "batchId").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        List<Object> extra = new ArrayList<>();
+        Set<String> batchIds = new LinkedHashSet<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Enrollment.class, Document.class)) {
+            List<Object> ids = row.getList("ids", Object.class);
+            extra.addAll(ids.subList(1, ids.size()));
+            batchIds.add(row.get("_id", Document.class).getString("batchId"));
+        }
+        if (extra.isEmpty()) {
+            return 0;
+        }
+
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(extra)), Enrollment.class);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(batchIds)), new Update().unset("enrolledCount"), Batch.class);
+        log.warn("Removed {} duplicate enrollments in {} batches", extra.size(), batchIds.size());
+        return extra.size();
+    }
+}
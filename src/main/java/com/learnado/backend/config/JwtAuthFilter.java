@@ -19,6 +19,8 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/live-lectures/stream";
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
 
@@ -35,6 +37,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7);
             username = jwtUtil.extractUsername(token);
+        } else if (STREAM_PATH.equals(request.getRequestURI()) && request.getParameter("access_token") != null) {
+            // EventSource can't send headers, so the lecture stream takes the token as a parameter
+            token = request.getParameter("access_token");
+            username = jwtUtil.extractUsername(token);
         }
 
         // 3. If we have a username and the user is not logged in yet
@@ -0,0 +1,150 @@
+package com.learnado.backend.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes declared on our @Document classes (@Indexed, @CompoundIndex).
+ * Spring's auto-index-creation is off by default. Unique indexes (e.g. the unique
+ * enrollment index) are needed for correctness, so they are created before the web server
+ * starts, and startup fails if one can't be created. Duplicate enrollments from before the
+ * unique index are removed first (see DuplicateEnrollmentCleaner). The rest are created in the
+ * background once the app is up. Afterwards the repository query shapes are checked
+ * against the indexes (see QueryPlanVerifier). When that check must pass (index-check=fail)
+ * the rest of the indexes and the check run synchronously before the app reports ready, and
+ * a failure aborts startup.
+ */
+@Slf4j
+@Component
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final QueryPlanVerifier queryPlanVerifier;
+    private final DuplicateEnrollmentCleaner duplicateEnrollmentCleaner;
+    private final boolean requireUniqueIndexes;
+
+    public MongoIndexConfig(
+            MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext,
+            QueryPlanVerifier queryPlanVerifier,
+            DuplicateEnrollmentCleaner duplicateEnrollmentCleaner,
+            @Value("${learnado.mongo.require-unique-indexes:true}") boolean requireUniqueIndexes) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.queryPlanVerifier = queryPlanVerifier;
+        this.duplicateEnrollmentCleaner = duplicateEnrollmentCleaner;
+        this.requireUniqueIndexes = requireUniqueIndexes;
+    }
+
+    // Runs while the context starts, before the web server takes requests
+    @PostConstruct
+    public void createUniqueIndexes() {
+        if (!requireUniqueIndexes) {
+            return;
+        }
+        try {
+            duplicateEnrollmentCleaner.removeDuplicates();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not remove duplicate enrollments: " + e.getMessage(), e);
+        }
+        List<String> failures = createIndexes(MongoIndexConfig::isUnique);
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Could not create unique indexes: " + String.join("; ", failures));
+        }
+        log.info("Unique indexes are in place");
+    }
+
+    // Runs after the context is refreshed but before ApplicationReadyEvent; throwing here fails startup
+    @EventListener(ApplicationStartedEvent.class)
+    public void verifyBeforeReady() {
+        if (!queryPlanVerifier.isBlocking()) {
+            return;
+        }
+        if (!requireUniqueIndexes) {
+            duplicateEnrollmentCleaner.removeDuplicates();
+        }
+        List<String> failures = createIndexes(remaining());
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Could not create indexes: " + String.join("; ", failures));
+        }
+        queryPlanVerifier.verify();
+    }
+
+    // Runs in the background so a slow or unreachable cluster doesn't hold up startup
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        if (queryPlanVerifier.isBlocking()) {
+            return; // Done in verifyBeforeReady
+        }
+        if (!requireUniqueIndexes) {
+            try {
+                duplicateEnrollmentCleaner.removeDuplicates();
+            } catch (RuntimeException e) {
+                log.error("Could not remove duplicate enrollments: {}", e.getMessage());
+            }
+        }
+        List<String> failures = createIndexes(remaining());
+        failures.forEach(failure -> log.error("Could not create index: {}", failure));
+        if (failures.isEmpty()) {
+            // Only meaningful once the declared indexes exist
+            queryPlanVerifier.verify();
+        }
+    }
+
+    // Creates the declared indexes that match; returns what failed (everything after the first connection failure)
+    private List<String> createIndexes(Predicate<IndexDefinition> filter) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<String> failures = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                if (!filter.test(index)) {
+                    continue;
+                }
+                try {
+                    indexOps.createIndex(index);
+                } catch (DataAccessResourceFailureException e) {
+                    failures.add("MongoDB unreachable: " + e.getMessage());
+                    return failures;
+                } catch (RuntimeException e) {
+                    failures.add(entity.getCollection() + " " + index.getIndexKeys().toJson() + ": " + e.getMessage());
+                }
+            }
+        }
+        return failures;
+    }
+
+    // Everything not already created before startup
+    private Predicate<IndexDefinition> remaining() {
+        return requireUniqueIndexes ? index -> !isUnique(index) : index -> true;
+    }
+
+    private static boolean isUnique(IndexDefinition index) {
+        return Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+    }
+}
@@ -0,0 +1,221 @@
+package com.learnado.backend.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Times every query-like Mongo command per query shape (command, collection, and the
+ * filter/sort with values replaced by "?") into the mongo.query histogram, and logs the
+ * shape of commands slower than learnado.mongo.slow-query-ms. Values are never logged,
+ * so emails and ids stay out of the logs.
+ */
+@Slf4j
+@Component
+public class MongoQueryProfiler implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Set<String> PROFILED = Set.of(
+            "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete", "insert");
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long slowNanos;
+    private final int maxShapes;
+
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final AtomicInteger shapes = new AtomicInteger(); // Timers with a real shape tag
+
+    private record InFlight(String command, String collection, String shape) {}
+
+    public MongoQueryProfiler(
+            MeterRegistry meterRegistry,
+            @Value("${learnado.mongo.profiling.enabled:true}") boolean enabled,
+            @Value("${learnado.mongo.slow-query-ms:100}") long slowQueryMillis,
+            @Value("${learnado.mongo.profiling.max-shapes:500}") int maxShapes) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.slowNanos = Duration.ofMillis(slowQueryMillis).toNanos();
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        if (enabled) {
+            builder.addCommandListener(this);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String command = event.getCommandName();
+        if (!PROFILED.contains(command)) {
+            return;
+        }
+        BsonDocument body = event.getCommand();
+        BsonValue target = body.get(command);
+        String collection = target != null && target.isString() ? target.asString().getValue() : "-";
+        inFlight.put(event.getRequestId(), new InFlight(command, collection, shapeOf(command, body)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finish(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finish(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), "failed");
+    }
+
+    private void finish(int requestId, long nanos, String status) {
+        InFlight query = inFlight.remove(requestId);
+        if (query == null) {
+            return;
+        }
+        timerFor(query, status).record(Duration.ofNanos(nanos));
+        if (nanos >= slowNanos) {
+            log.warn("Slow mongo {} on {} took {} ms ({}): {}", query.command(), query.collection(),
+                    nanos / 1_000_000, status, query.shape());
+        }
+    }
+
+    private Timer timerFor(InFlight query, String status) {
+        Timer timer = timers.get(keyOf(query, query.shape(), status));
+        if (timer != null) {
+            return timer;
+        }
+        // Shapes come from our own code, but cap them so a dynamic query can't blow up the tag space.
+        // computeIfAbsent runs once per key, so each new shape takes exactly one slot
+        timer = timers.computeIfAbsent(keyOf(query, query.shape(), status),
+                key -> takeShapeSlot() ? register(query, query.shape(), status) : null);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(keyOf(query, "other", status), key -> register(query, "other", status));
+    }
+
+    private boolean takeShapeSlot() {
+        int taken;
+        do {
+            taken = shapes.get();
+            if (taken >= maxShapes) {
+                return false;
+            }
+        } while (!shapes.compareAndSet(taken, taken + 1));
+        return true;
+    }
+
+    private Timer register(InFlight query, String shape, String status) {
+        return Timer.builder("mongo.query")
+                .description("Mongo command latency per query shape")
+                .tag("command", query.command())
+                .tag("collection", query.collection())
+                .tag("shape", shape)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String keyOf(InFlight query, String shape, String status) {
+        return query.command() + '|' + query.collection() + '|' + shape + '|' + status;
+    }
+
+    // The part of the command that decides which index is used; bulk writes report their first statement
+    private String shapeOf(String command, BsonDocument body) {
+        BsonValue filter = switch (command) {
+            case "find" -> body.get("filter");
+            case "count", "distinct", "findAndModify" -> body.get("query");
+            case "update" -> firstStatement(body, "updates");
+            case "delete" -> firstStatement(body, "deletes");
+            case "aggregate" -> firstMatch(body);
+            default -> null;
+        };
+        StringBuilder shape = new StringBuilder();
+        shape(filter, shape);
+        BsonValue sort = body.get("sort");
+        if (sort != null && sort.isDocument() && !sort.asDocument().isEmpty()) {
+            shape.append(" sort ").append(sort.asDocument().toJson());
+        }
+        return shape.toString();
+    }
+
+    private BsonValue firstStatement(BsonDocument body, String field) {
+        BsonValue statements = body.get(field);
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+            return null;
+        }
+        return statements.asArray().get(0).asDocument().get("q");
+    }
+
+    private BsonValue firstMatch(BsonDocument body) {
+        BsonValue pipeline = body.get("pipeline");
+        if (pipeline == null || !pipeline.isArray() || pipeline.asArray().isEmpty()) {
+            return null;
+        }
+        BsonValue first = pipeline.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get("$match") : null;
+    }
+
+    // Keeps field names and operators, replaces every value (including $in lists) with "?"
+    private void shape(BsonValue value, StringBuilder out) {
+        if (value == null || !value.isDocument()) {
+            out.append(value == null ? "{}" : "?");
+            return;
+        }
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+            if (!first) {
+                out.append(", ");
+            }
+            first = false;
+            out.append(entry.getKey()).append(": ");
+            BsonValue child = entry.getValue();
+            if (child.isArray() && isLogical(entry.getKey())) {
+                BsonArray branches = child.asArray();
+                out.append('[');
+                for (int i = 0; i < branches.size(); i++) {
+                    if (i > 0) {
+                        out.append(", ");
+                    }
+                    shape(branches.get(i), out);
+                }
+                out.append(']');
+            } else if (child.isDocument() && isOperatorDocument(child.asDocument())) {
+                shape(child, out);
+            } else {
+                out.append('?');
+            }
+        }
+        out.append('}');
+    }
+
+    private boolean isLogical(String key) {
+        return key.equals("$and") || key.equals("$or") || key.equals("$nor");
+    }
+
+    private boolean isOperatorDocument(BsonDocument document) {
+        return !document.isEmpty() && document.getFirstKey().startsWith("$");
+    }
+}
@@ -0,0 +1,218 @@
+package com.learnado.backend.config;
+
+import java.lang.reflect.Method;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import com.learnado.backend.repository.CollectionScanExpected;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Explains every derived query in our repositories against the live database and reports
+ * shapes whose winning plan is a collection scan or an in-memory sort. Runs after the
+ * indexes are ensured; mode "warn" logs, "off" skips the check and "fail" throws, which
+ * MongoIndexConfig runs during startup (before the app reports ready) so startup aborts.
+ */
+@Slf4j
+@Component
+public class QueryPlanVerifier {
+
+    enum Mode { OFF, WARN, FAIL }
+
+    private final ApplicationContext applicationContext;
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final Mode mode;
+    private final Date sampleDate = new Date(); // One value so identical shapes compare equal
+
+    public QueryPlanVerifier(
+            ApplicationContext applicationContext,
+            MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext,
+            @Value("${learnado.mongo.index-check:warn}") String mode) {
+        this.applicationContext = applicationContext;
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    // In fail mode the check has to pass before the app may serve
+    public boolean isBlocking() {
+        return mode == Mode.FAIL;
+    }
+
+    // Throws IllegalStateException in fail mode when a shape is unindexed or can't be checked
+    public void verify() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        Repositories repositories = new Repositories(applicationContext);
+        Set<String> explained = new HashSet<>();
+        List<String> problems = new ArrayList<>();
+        try {
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation info = repositories.getRequiredRepositoryInformation(domainType);
+                MongoPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(domainType);
+                for (Method method : info.getQueryMethods()) {
+                    if (method.isAnnotationPresent(CollectionScanExpected.class)) {
+                        continue;
+                    }
+                    PartTree tree = new PartTree(method.getName(), domainType);
+                    if (!tree.getParts().iterator().hasNext()) {
+                        continue; // No criteria: reads the whole collection on purpose
+                    }
+                    Document find = toFind(entity, tree);
+                    // Summary projections share their shape with the full-document finder
+                    if (!explained.add(find.toJson())) {
+                        continue;
+                    }
+                    List<String> stages = new ArrayList<>();
+                    collectStages(explain(find), stages);
+                    String where = info.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                    if (stages.contains("COLLSCAN")) {
+                        problems.add(where + ": collection scan for " + find.toJson());
+                    } else if (stages.contains("SORT")) {
+                        problems.add(where + ": in-memory sort for " + find.toJson());
+                    }
+                }
+            }
+        } catch (DataAccessResourceFailureException e) {
+            if (mode == Mode.FAIL) {
+                throw new IllegalStateException("MongoDB unreachable, could not check query plans", e);
+            }
+            log.error("MongoDB unreachable, skipping query plan check: {}", e.getMessage());
+            return;
+        }
+
+        if (problems.isEmpty()) {
+            log.info("Query plan check: {} query shapes use an index", explained.size());
+            return;
+        }
+        problems.forEach(problem -> log.warn("Unindexed query {}", problem));
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException("Query plan check failed for " + problems.size() + " query shapes");
+        }
+    }
+
+    // The find command the derived query would send, with placeholder values of the right type
+    private Document toFind(MongoPersistentEntity<?> entity, PartTree tree) {
+        List<Document> branches = new ArrayList<>();
+        for (PartTree.OrPart orPart : tree) {
+            Document and = new Document();
+            for (Part part : orPart) {
+                and.put(fieldName(entity, part.getProperty()), condition(part));
+            }
+            branches.add(and);
+        }
+        Document filter = branches.size() == 1 ? branches.get(0) : new Document("$or", branches);
+
+        Document find = new Document("find", entity.getCollection()).append("filter", filter);
+        Sort sort = tree.getSort();
+        if (sort.isSorted()) {
+            Document sortDoc = new Document();
+            for (Sort.Order order : sort) {
+                PropertyPath path = PropertyPath.from(order.getProperty(), entity.getType());
+                sortDoc.put(fieldName(entity, path), order.isAscending() ? 1 : -1);
+            }
+            find.append("sort", sortDoc);
+        }
+        if (tree.isLimiting()) {
+            find.append("limit", tree.getMaxResults());
+        }
+        return find;
+    }
+
+    private Object condition(Part part) {
+        Object sample = sample(part.getProperty().getLeafType());
+        int flags = part.shouldIgnoreCase() == Part.IgnoreCaseType.NEVER ? 0 : Pattern.CASE_INSENSITIVE;
+        return switch (part.getType()) {
+            case IN -> new Document("$in", List.of(sample));
+            case NOT_IN -> new Document("$nin", List.of(sample));
+            case AFTER, GREATER_THAN -> new Document("$gt", sample);
+            case GREATER_THAN_EQUAL -> new Document("$gte", sample);
+            case BEFORE, LESS_THAN -> new Document("$lt", sample);
+            case LESS_THAN_EQUAL -> new Document("$lte", sample);
+            case BETWEEN -> new Document("$gt", sample).append("$lt", sample);
+            case NEGATING_SIMPLE_PROPERTY -> new Document("$ne", sample);
+            case IS_NULL -> null;
+            case IS_NOT_NULL -> new Document("$ne", null);
+            case EXISTS -> new Document("$exists", true);
+            case TRUE -> true;
+            case FALSE -> false;
+            case CONTAINING, LIKE, STARTING_WITH, ENDING_WITH, REGEX -> Pattern.compile("x", flags);
+            default -> flags == 0 ? sample : Pattern.compile("^x$", flags);
+        };
+    }
+
+    private Object sample(Class<?> type) {
+        if (type.isEnum()) {
+            return ((Enum<?>) type.getEnumConstants()[0]).name();
+        }
+        if (Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+            return sampleDate;
+        }
+        if (Number.class.isAssignableFrom(type) || type.isPrimitive() && type != boolean.class) {
+            return 0;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        return "";
+    }
+
+    private String fieldName(MongoPersistentEntity<?> entity, PropertyPath path) {
+        StringBuilder field = new StringBuilder();
+        MongoPersistentEntity<?> current = entity;
+        for (PropertyPath segment = path; segment != null; segment = segment.next()) {
+            var property = current.getRequiredPersistentProperty(segment.getSegment());
+            if (!field.isEmpty()) {
+                field.append('.');
+            }
+            field.append(property.getFieldName());
+            current = segment.hasNext() ? mappingContext.getRequiredPersistentEntity(property) : current;
+        }
+        return field.toString();
+    }
+
+    private Document explain(Document find) {
+        Document result = mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+        Document planner = result.get("queryPlanner", Document.class);
+        return planner == null ? new Document() : planner.get("winningPlan", Document.class);
+    }
+
+    // Plans nest stages under inputStage(s), and newer servers wrap them in queryPlan
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            Object stage = map.get("stage");
+            if (stage instanceof String name) {
+                stages.add(name);
+            }
+            map.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
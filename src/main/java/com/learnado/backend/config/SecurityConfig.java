@@ -23,6 +23,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.learnado.backend.service.CustomUserDetailsService;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -32,6 +33,7 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
     private final CustomUserDetailsService userDetailsService;
 
     @Bean
@@ -40,18 +42,25 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable()) // Turn off CSRF because we use Tokens
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // SSE completions, already authorized on the way in
                         .requestMatchers("/api/auth/**").permitAll() // Let people Register/Login
                         .requestMatchers("/api/courses/**").permitAll() // Allow viewing courses
                         .requestMatchers("/api/batches/**").permitAll() // Allow viewing batches
                         .requestMatchers("/api/live-lectures/live-now").permitAll() // Allow viewing live lectures
+                        .requestMatchers("/api/media/thumbnails/**").permitAll() // Course thumbnails; other media needs a Token
+                        .requestMatchers("/api/stream/courses/**", "/api/stream/batches/**",
+                                "/api/stream/live-lectures/live-now").permitAll() // Streamed versions of the public reads above
                         .requestMatchers("/ws/**").permitAll() // Allow WebSocket connections
+                        .requestMatchers("/actuator/health").permitAll() // Load balancer health checks
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // Metrics are for admins only
                         .anyRequest().authenticated() // Everything else needs a Token
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Don't save sessions
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(concurrencyLimitFilter, JwtAuthFilter.class); // Shed load before any user lookup
 
         return http.build();
     }
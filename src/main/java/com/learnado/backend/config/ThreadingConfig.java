@@ -0,0 +1,34 @@
+package com.learnado.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Executors that depend on the threading mode. With spring.threads.virtual.enabled on a
+ * Java 21 runtime (the "virtual" profile), Spring Boot already runs Tomcat requests,
+ * WebSocket frames, @Async and @Scheduled on virtual threads. What's left is the signaling
+ * send path, which gets a virtual thread per session drain. On platform threads, frames are
+ * written by the thread that queued them, as before.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor signalingSendExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-send-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @Bean(name = "signalingSendExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor platformSignalingSendExecutor() {
+        return new SyncTaskExecutor();
+    }
+}
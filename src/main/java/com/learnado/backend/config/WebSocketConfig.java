@@ -1,52 +1,28 @@
 package com.learnado.backend.config;
 
-import java.util.Map;
-
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.server.ServerHttpRequest;
-import org.springframework.http.server.ServerHttpResponse;
-import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
-import org.springframework.web.socket.server.HandshakeInterceptor;
 
+import com.learnado.backend.websocket.LectureHandshakeInterceptor;
 import com.learnado.backend.websocket.SignalingHandler;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 @Configuration
 @EnableWebSocket
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final SignalingHandler signalingHandler;
+    private final LectureHandshakeInterceptor lectureHandshakeInterceptor;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // The handshake itself is authenticated (JWT, live lecture, enrolled or hosting)
         registry.addHandler(signalingHandler, "/ws/lecture/*")
-                .addInterceptors(new HandshakeInterceptor() {
-                    @Override
-                    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
-                            WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
-                        // Extract lecture ID from the path
-                        String path = request.getURI().getPath();
-                        String lectureId = path.substring(path.lastIndexOf('/') + 1);
-                        attributes.put("lectureId", lectureId);
-                        log.info("WebSocket handshake for lecture: {}", lectureId);
-                        return true;
-                    }
-
-                    @Override
-                    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
-                            WebSocketHandler wsHandler, Exception exception) {
-                        if (exception != null) {
-                            log.error("WebSocket handshake failed", exception);
-                        }
-                    }
-                })
+                .addInterceptors(lectureHandshakeInterceptor)
                 .setAllowedOrigins("http://localhost:3000", "http://127.0.0.1:3000", "*");
     }
 }
@@ -2,6 +2,9 @@ package com.learnado.backend.controller;
 
 import com.learnado.backend.dto.*;
 import com.learnado.backend.service.AuthService;
+import com.learnado.backend.service.ratelimit.ClientAddress;
+import com.learnado.backend.service.ratelimit.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final RateLimiter rateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<RegisterResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -20,7 +24,15 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Each attempt costs a BCrypt check, so limit per client and per account from that client
+        // before trying. The per-account limit on its own is much looser: it only stops guessing
+        // spread over many addresses, and is slow enough that it rarely locks the owner out
+        String client = ClientAddress.of(httpRequest);
+        String account = request.getEmail().toLowerCase();
+        rateLimiter.acquire(RateLimiter.LOGIN_IP, client);
+        rateLimiter.acquire(RateLimiter.LOGIN_USER, account + "|" + client);
+        rateLimiter.acquire(RateLimiter.LOGIN_ACCOUNT, account);
         return ResponseEntity.ok(authService.login(request));
     }
 }
@@ -2,6 +2,7 @@ package com.learnado.backend.controller;
 
 import com.learnado.backend.model.Batch;
 import com.learnado.backend.repository.BatchRepository;
+import com.learnado.backend.service.InstructorStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,6 +17,7 @@ import java.util.List;
 public class BatchController {
 
     private final BatchRepository batchRepository;
+    private final InstructorStatsService instructorStatsService;
 
     // 1. Create a Batch (Only for Instructors)
     @PostMapping
@@ -23,7 +25,10 @@ public class BatchController {
     public Batch createBatch(@RequestBody Batch batch, Authentication auth) {
         batch.setInstructorEmail(auth.getName()); // Automatically set teacher email
         batch.setCreatedAt(LocalDateTime.now());
-        return batchRepository.save(batch);
+        batch.setEnrolledCount(0);
+        Batch saved = batchRepository.save(batch);
+        instructorStatsService.batchCreated(saved);
+        return saved;
     }
 
     // 2. Get all batches for a specific course
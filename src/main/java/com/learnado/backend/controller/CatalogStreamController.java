@@ -0,0 +1,70 @@
+package com.learnado.backend.controller;
+
+import java.time.LocalDateTime;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.learnado.backend.dto.CourseSummary;
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.repository.reactive.ReactiveBatchRepository;
+import com.learnado.backend.repository.reactive.ReactiveCourseRepository;
+import com.learnado.backend.repository.reactive.ReactiveLiveLectureRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streaming versions of the read-heavy catalog endpoints, backed by the reactive Mongo
+ * driver ("reactive" profile only). Results go out as NDJSON, or as SSE with
+ * Accept: text/event-stream, one document at a time as the cursor yields them. The servlet
+ * thread is released as soon as the Flux is returned, and the client's pace drives
+ * how fast the cursor is read.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping(path = "/api/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+@RequiredArgsConstructor
+public class CatalogStreamController {
+
+    private final ReactiveCourseRepository courseRepository;
+    private final ReactiveBatchRepository batchRepository;
+    private final ReactiveLiveLectureRepository liveLectureRepository;
+
+    // All courses (same as GET /api/courses)
+    @GetMapping("/courses")
+    public Flux<CourseSummary> streamCourses() {
+        return courseRepository.findSummariesBy();
+    }
+
+    // Batches of a course (same as GET /api/batches/course/{courseId})
+    @GetMapping("/batches/course/{courseId}")
+    public Flux<Batch> streamBatchesByCourse(@PathVariable String courseId) {
+        return batchRepository.findByCourseId(courseId);
+    }
+
+    // Lectures live right now (same as GET /api/live-lectures/live-now)
+    @GetMapping("/live-lectures/live-now")
+    public Flux<LiveLectureSummary> streamLiveLectures() {
+        return liveLectureRepository.findSummariesByStatus(LectureStatus.LIVE);
+    }
+
+    // All lectures of a batch (same as GET /api/live-lectures/batch/{batchId})
+    @GetMapping("/live-lectures/batch/{batchId}")
+    public Flux<LiveLectureSummary> streamLecturesByBatch(@PathVariable String batchId) {
+        return liveLectureRepository.findSummariesByBatchIdOrderByScheduledAtDesc(batchId);
+    }
+
+    // Upcoming lectures of a batch (same as GET /api/live-lectures/batch/{batchId}/upcoming)
+    @GetMapping("/live-lectures/batch/{batchId}/upcoming")
+    public Flux<LiveLectureSummary> streamUpcomingLectures(@PathVariable String batchId) {
+        return liveLectureRepository.findSummariesByBatchIdAndScheduledAtAfterOrderByScheduledAtAsc(
+            batchId, LocalDateTime.now());
+    }
+}
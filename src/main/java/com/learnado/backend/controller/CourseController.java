@@ -1,13 +1,27 @@
 package com.learnado.backend.controller;
 
+import com.learnado.backend.dto.CourseOverview;
+import com.learnado.backend.dto.CourseSummary;
+import com.learnado.backend.dto.TrendingCourse;
 import com.learnado.backend.model.Course;
+import com.learnado.backend.model.ImageVariant;
 import com.learnado.backend.repository.CourseRepository;
+import com.learnado.backend.service.CourseOverviewService;
+import com.learnado.backend.service.CourseTrendingService;
 import com.learnado.backend.service.FileService; // For your file upload requirement
+import com.learnado.backend.service.InstructorStatsService;
+import com.learnado.backend.service.ThumbnailDerivativeService;
+import com.learnado.backend.service.ratelimit.ClientAddress;
+import com.learnado.backend.service.ratelimit.RateLimiter;
+import com.learnado.backend.service.storage.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,8 +29,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -25,28 +42,57 @@ public class CourseController {
 
     private final CourseRepository courseRepository;
     private final FileService fileService; // Added for Requirement 6.3
+    private final ThumbnailDerivativeService thumbnailDerivativeService;
+    private final CourseOverviewService courseOverviewService;
+    private final InstructorStatsService instructorStatsService;
+    private final CourseTrendingService courseTrendingService;
+    private final RateLimiter rateLimiter;
 
     // 1. Basic List (Return all)
     @GetMapping
-    public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+    public List<CourseSummary> getAllCourses() {
+        return courseRepository.findSummariesBy();
     }
 
     // 2. Advanced: Pagination & Sorting (Requirement 6.3)
     @GetMapping("/all")
-    public Page<Course> getCoursesWithPagination(
+    public Page<CourseSummary> getCoursesWithPagination(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "title") String sortBy
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-        return courseRepository.findAll(pageable);
+        return courseRepository.findSummariesBy(pageable);
     }
 
     // 3. Search by Title (Requirement 6.3)
     @GetMapping("/search")
-    public List<Course> searchCourses(@RequestParam String title) {
-        return courseRepository.findByTitleContainingIgnoreCase(title);
+    public List<CourseSummary> searchCourses(@RequestParam String title, Authentication auth, HttpServletRequest request) {
+        // The title search scans the collection, so it is rate limited per user (or IP when anonymous)
+        rateLimiter.acquire(RateLimiter.SEARCH, auth != null ? auth.getName() : "ip:" + ClientAddress.of(request));
+        return courseRepository.findSummariesByTitleContainingIgnoreCase(title);
+    }
+
+    // 3b. Everything the course detail page needs in one round-trip (counts as a course view)
+    @GetMapping("/{courseId}/overview")
+    public ResponseEntity<CourseOverview> getCourseOverview(
+            @PathVariable String courseId,
+            Authentication auth,
+            HttpServletRequest request) {
+        Optional<CourseOverview> overview = courseOverviewService.getOverview(courseId);
+        overview.ifPresent(found -> courseTrendingService.recordView(courseId, found.getCourse().getTitle(),
+                auth != null ? auth.getName() : "ip:" + ClientAddress.of(request)));
+        return overview
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // 3c. Most viewed/enrolled courses recently (approximate, served from memory)
+    @GetMapping("/trending")
+    public List<TrendingCourse> getTrendingCourses(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "24") int hours) {
+        return courseTrendingService.getTrending(Math.min(Math.max(limit, 1), 50), Math.max(hours, 1));
     }
 
     // 4. Create Course (Instructor Only - Requirement 6.1/6.2)
@@ -55,25 +101,64 @@ public class CourseController {
     public Course createCourse(@RequestBody Course course, Authentication auth) {
         course.setInstructorEmail(auth.getName());
         course.setCreatedAt(LocalDateTime.now());
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        instructorStatsService.courseCreated(saved);
+        return saved;
     }
 
     // 5. File Upload (Requirement 6.3 & 6.4)
     @PostMapping("/{courseId}/upload-thumbnail")
     @PreAuthorize("hasRole('INSTRUCTOR')")
-    public ResponseEntity<String> uploadThumbnail(
+    public Course uploadThumbnail(
             @PathVariable String courseId,
-            @RequestParam("file") MultipartFile file) throws IOException {
-
-        String fileUrl = fileService.uploadFile(file);
+            @RequestParam("file") MultipartFile file,
+            Authentication auth) throws IOException {
 
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
+        if (!auth.getName().equals(course.getInstructorEmail())) {
+            throw new RuntimeException("You can only update your own courses");
+        }
+
+        StoredFile stored = fileService.uploadFile(file, "thumbnails/" + courseId);
+        String previousKey = course.getThumbnailKey();
+        List<ImageVariant> previousVariants = course.getThumbnailVariants();
 
-        // Make sure you have added this field to your Course model first!
-        // course.setThumbnailUrl(fileUrl);
-        // courseRepository.save(course);
+        course.setThumbnailUrl(stored.getUrl());
+        course.setThumbnailKey(stored.getKey());
+        course.setThumbnailVariants(null);
+        course.setThumbnailRetryAt(null);
+        course.setThumbnailAttempts(null);
+        Course saved = courseRepository.save(course);
+
+        // Resized copies are produced in the background and attached to the course when ready
+        thumbnailDerivativeService.enqueue(courseId, stored.getKey());
+
+        if (previousKey != null) {
+            fileService.deleteQuietly(previousKey);
+        }
+        if (previousVariants != null) {
+            previousVariants.forEach(variant -> fileService.deleteQuietly(variant.getKey()));
+        }
+        return saved;
+    }
+
+    // 6. Thumbnail for a given display width (redirects to the smallest variant that fits)
+    @GetMapping("/{courseId}/thumbnail")
+    public ResponseEntity<Void> getThumbnail(
+            @PathVariable String courseId,
+            @RequestParam(defaultValue = "400") int width) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
 
-        return ResponseEntity.ok("File uploaded successfully: " + fileUrl);
+        ImageVariant variant = ThumbnailDerivativeService.smallestFitting(course.getThumbnailVariants(), width);
+        String url = variant != null ? variant.getUrl() : course.getThumbnailUrl();
+        if (url == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(url))
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)))
+                .build();
     }
 }
\ No newline at end of file
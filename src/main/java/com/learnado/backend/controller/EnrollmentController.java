@@ -2,12 +2,12 @@ package com.learnado.backend.controller;
 
 import com.learnado.backend.model.Enrollment;
 import com.learnado.backend.repository.EnrollmentRepository;
+import com.learnado.backend.service.SeatReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,25 +16,13 @@ import java.util.List;
 public class EnrollmentController {
 
     private final EnrollmentRepository enrollmentRepository;
+    private final SeatReservationService seatReservationService;
 
     @PostMapping("/join/{batchId}")
     @PreAuthorize("hasRole('STUDENT')") // ONLY Students can enroll
     public Enrollment enrollInBatch(@PathVariable String batchId, Authentication auth) {
-        String email = auth.getName();
-
-        // Check if already enrolled
-        if (enrollmentRepository.existsByStudentEmailAndBatchId(email, batchId)) {
-            throw new RuntimeException("You are already in this batch!");
-        }
-
-        Enrollment enrollment = Enrollment.builder()
-                .studentEmail(email)
-                .batchId(batchId)
-                .enrolledAt(LocalDateTime.now())
-                .status("PAID")
-                .build();
-
-        return enrollmentRepository.save(enrollment);
+        // Claims a seat atomically; fails if the batch is full or the student is already in it
+        return seatReservationService.enroll(batchId, auth.getName());
     }
 
     @GetMapping("/my-courses")
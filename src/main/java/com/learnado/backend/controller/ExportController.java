@@ -0,0 +1,176 @@
+package com.learnado.backend.controller;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.ExportJob;
+import com.learnado.backend.model.ExportStatus;
+import com.learnado.backend.model.ExportType;
+import com.learnado.backend.repository.BatchRepository;
+import com.learnado.backend.repository.ExportJobRepository;
+import com.learnado.backend.service.export.BatchCsvExporter;
+import com.learnado.backend.service.export.ExportJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv; charset=UTF-8");
+
+    private final BatchRepository batchRepository;
+    private final ExportJobRepository exportJobRepository;
+    private final BatchCsvExporter batchCsvExporter;
+    private final ExportJobService exportJobService;
+
+    // 1. Stream a batch's roster or attendance as CSV (gzip when the client accepts it)
+    @GetMapping("/batches/{batchId}/{type}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportBatch(
+            @PathVariable String batchId,
+            @PathVariable String type,
+            Authentication auth,
+            HttpServletRequest request) {
+        ExportType exportType = ExportType.fromPath(type);
+        Batch batch = requireOwnBatch(batchId, auth);
+        if (exportJobService.needsJob(batch)) {
+            throw new RuntimeException("Batch is too large to export directly, start an export job instead");
+        }
+
+        boolean gzip = acceptsGzip(request);
+        extendTimeout(request);
+        return csvResponse(exportType, batchId, gzip).body(out -> {
+            if (!gzip) {
+                batchCsvExporter.write(exportType, batchId, out);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+            batchCsvExporter.write(exportType, batchId, compressed);
+            compressed.finish();
+        });
+    }
+
+    // 2. Start a background export (for very large batches); poll the job for its status
+    @PostMapping("/batches/{batchId}/{type}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ExportJob startExportJob(@PathVariable String batchId, @PathVariable String type, Authentication auth) {
+        ExportType exportType = ExportType.fromPath(type);
+        requireOwnBatch(batchId, auth);
+        return exportJobService.start(exportType, batchId, auth.getName());
+    }
+
+    // 3. Job status (download once status is DONE)
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ExportJob getExportJob(@PathVariable String jobId, Authentication auth) {
+        return requireOwnJob(jobId, auth);
+    }
+
+    // 4. Download the finished file; stored gzipped and sent as-is to clients that accept gzip
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> downloadExport(
+            @PathVariable String jobId,
+            Authentication auth,
+            HttpServletRequest request) {
+        ExportJob job = requireOwnJob(jobId, auth);
+        if (job.getStatus() != ExportStatus.DONE) {
+            throw new RuntimeException("Export is not ready yet");
+        }
+        boolean gzip = acceptsGzip(request);
+        extendTimeout(request);
+        return csvResponse(job.getType(), job.getBatchId(), gzip).body(out -> {
+            try (InputStream stored = exportJobService.openDownload(job);
+                 InputStream in = gzip ? stored : new GZIPInputStream(stored, 64 * 1024)) {
+                in.transferTo(out);
+            }
+        });
+    }
+
+    private ResponseEntity.BodyBuilder csvResponse(ExportType type, String batchId, boolean gzip) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(CSV)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("batch-" + batchId + "-" + type.name().toLowerCase() + ".csv")
+                        .build().toString());
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder;
+    }
+
+    // Accept-Encoding with q-values: "gzip;q=0" refuses gzip, "*" covers it unless gzip is listed
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accepted == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String part : accepted.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = q;
+            } else if (coding.equals("*")) {
+                anyQ = q;
+            }
+        }
+        if (gzipQ != null) {
+            return gzipQ > 0;
+        }
+        return anyQ != null && anyQ > 0;
+    }
+
+    // Exports may stream for minutes; only these responses get the longer async timeout
+    private void extendTimeout(HttpServletRequest request) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(exportJobService.streamTimeoutMillis());
+        }
+    }
+
+    private Batch requireOwnBatch(String batchId, Authentication auth) {
+        Batch batch = batchRepository.findById(batchId)
+                .orElseThrow(() -> new RuntimeException("Batch not found"));
+        if (!auth.getName().equals(batch.getInstructorEmail())) {
+            throw new RuntimeException("You can only export your own batches");
+        }
+        return batch;
+    }
+
+    private ExportJob requireOwnJob(String jobId, Authentication auth) {
+        ExportJob job = exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Export not found"));
+        if (!auth.getName().equals(job.getOwnerEmail())) {
+            throw new RuntimeException("Export not found");
+        }
+        return job;
+    }
+}
@@ -0,0 +1,23 @@
+package com.learnado.backend.controller;
+
+import com.learnado.backend.model.InstructorStats;
+import com.learnado.backend.service.InstructorStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/instructor")
+@RequiredArgsConstructor
+public class InstructorController {
+
+    private final InstructorStatsService instructorStatsService;
+
+    // 1. Dashboard totals for the logged-in instructor (one small document)
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public InstructorStats getStats(Authentication auth) {
+        return instructorStatsService.getStats(auth.getName());
+    }
+}
@@ -1,10 +1,19 @@
 package com.learnado.backend.controller;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,15 +24,36 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.dto.AttendanceReport;
+import com.learnado.backend.dto.LectureJoinResponse;
+import com.learnado.backend.dto.LectureSeriesRequest;
+import com.learnado.backend.dto.LectureSeriesResult;
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.dto.RoomInfo;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.ChatMessage;
 import com.learnado.backend.model.LectureStatus;
 import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.model.Role;
 import com.learnado.backend.repository.EnrollmentRepository;
 import com.learnado.backend.repository.LiveLectureRepository;
+import com.learnado.backend.service.AttendanceAnalyticsService;
+import com.learnado.backend.service.AttendanceBuffer;
+import com.learnado.backend.service.ChatHistoryService;
+import com.learnado.backend.service.LectureSeriesService;
+import com.learnado.backend.service.LectureStatusStream;
+import com.learnado.backend.service.LiveLectureRegistry;
+import com.learnado.backend.service.RoomInfoService;
+import com.learnado.backend.service.StudentTimelineService;
+import com.learnado.backend.service.journal.LectureJournal;
 import com.learnado.backend.websocket.SignalingHandler;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -31,9 +61,22 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class LiveLectureController {
 
+    private static final int MAX_ROOM_INFO_IDS = 200;
+
     private final LiveLectureRepository liveLectureRepository;
-    private final EnrollmentRepository enrollmentRepository;
+    private final MongoTemplate mongoTemplate;
     private final SignalingHandler signalingHandler;
+    private final StudentTimelineService studentTimelineService;
+    private final AttendanceBuffer attendanceBuffer;
+    private final AttendanceAnalyticsService attendanceAnalyticsService;
+    private final LiveLectureRegistry liveLectureRegistry;
+    private final LectureStatusStream lectureStatusStream;
+    private final RoomInfoService roomInfoService;
+    private final LectureJournal lectureJournal;
+    private final ChatHistoryService chatHistoryService;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LectureSeriesService lectureSeriesService;
 
     // Create a new live lecture (Instructor only)
     @PostMapping
@@ -49,27 +92,38 @@ public class LiveLectureController {
         if (lecture.getMaxParticipants() == null) {
             lecture.setMaxParticipants(100); // Default max participants
         }
-        LiveLecture saved = liveLectureRepository.save(lecture);
-        saved.setRoomId(saved.getId()); // Room ID is same as lecture ID
-        return liveLectureRepository.save(saved);
+        // Assign the id up front so the room id goes in with the single insert
+        lecture.setId(new ObjectId().toHexString());
+        lecture.setRoomId(lecture.getId()); // Room ID is same as lecture ID
+        LiveLecture saved = mongoTemplate.insert(lecture);
+        eventPublisher.publishEvent(LectureChangedEvent.created(saved));
+        return saved;
+    }
+
+    // Create a recurring series of lectures in one insert; conflicts with the instructor's
+    // schedule either fail the whole series or are skipped, per the request
+    @PostMapping("/series")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public LectureSeriesResult createLectureSeries(@Valid @RequestBody LectureSeriesRequest request, Authentication auth) {
+        return lectureSeriesService.create(request, auth.getName());
     }
 
     // Get all lectures for a batch
     @GetMapping("/batch/{batchId}")
-    public List<LiveLecture> getLecturesByBatch(@PathVariable String batchId) {
-        return liveLectureRepository.findByBatchIdOrderByScheduledAtDesc(batchId);
+    public List<LiveLectureSummary> getLecturesByBatch(@PathVariable String batchId) {
+        return liveLectureRepository.findSummariesByBatchIdOrderByScheduledAtDesc(batchId);
     }
 
     // Get all lectures for a course
     @GetMapping("/course/{courseId}")
-    public List<LiveLecture> getLecturesByCourse(@PathVariable String courseId) {
-        return liveLectureRepository.findByCourseIdOrderByScheduledAtDesc(courseId);
+    public List<LiveLectureSummary> getLecturesByCourse(@PathVariable String courseId) {
+        return liveLectureRepository.findSummariesByCourseIdOrderByScheduledAtDesc(courseId);
     }
 
     // Get upcoming lectures for a batch
     @GetMapping("/batch/{batchId}/upcoming")
-    public List<LiveLecture> getUpcomingLectures(@PathVariable String batchId) {
-        return liveLectureRepository.findByBatchIdAndScheduledAtAfterOrderByScheduledAtAsc(
+    public List<LiveLectureSummary> getUpcomingLectures(@PathVariable String batchId) {
+        return liveLectureRepository.findSummariesByBatchIdAndScheduledAtAfterOrderByScheduledAtAsc(
             batchId, LocalDateTime.now()
         );
     }
@@ -77,43 +131,22 @@ public class LiveLectureController {
     // Get instructor's lectures
     @GetMapping("/my-lectures")
     @PreAuthorize("hasRole('INSTRUCTOR')")
-    public List<LiveLecture> getMyLectures(Authentication auth) {
-        return liveLectureRepository.findByInstructorEmailOrderByScheduledAtDesc(auth.getName());
+    public List<LiveLectureSummary> getMyLectures(Authentication auth) {
+        return liveLectureRepository.findSummariesByInstructorEmailOrderByScheduledAtDesc(auth.getName());
     }
 
     // Get student's upcoming lectures (from all enrolled batches)
     @GetMapping("/my-upcoming")
     @PreAuthorize("hasRole('STUDENT')")
-    public List<LiveLecture> getStudentUpcomingLectures(Authentication auth) {
-        // Get all batch IDs student is enrolled in
-        List<String> batchIds = enrollmentRepository.findByStudentEmail(auth.getName())
-            .stream()
-            .map(Enrollment::getBatchId)
-            .collect(Collectors.toList());
-        
-        if (batchIds.isEmpty()) {
-            return List.of();
-        }
-        
-        return liveLectureRepository.findByBatchIdInAndScheduledAtAfterOrderByScheduledAtAsc(
-            batchIds, LocalDateTime.now()
-        );
+    public List<LiveLectureSummary> getStudentUpcomingLectures(Authentication auth) {
+        return studentTimelineService.getUpcoming(auth.getName());
     }
 
     // Get all lectures for student's enrolled batches
     @GetMapping("/my-all")
     @PreAuthorize("hasRole('STUDENT')")
-    public List<LiveLecture> getStudentAllLectures(Authentication auth) {
-        List<String> batchIds = enrollmentRepository.findByStudentEmail(auth.getName())
-            .stream()
-            .map(Enrollment::getBatchId)
-            .collect(Collectors.toList());
-        
-        if (batchIds.isEmpty()) {
-            return List.of();
-        }
-        
-        return liveLectureRepository.findByBatchIdInOrderByScheduledAtDesc(batchIds);
+    public List<LiveLectureSummary> getStudentAllLectures(Authentication auth) {
+        return studentTimelineService.getAll(auth.getName());
     }
 
     // Start a lecture (change status to LIVE)
@@ -123,9 +156,9 @@ public class LiveLectureController {
         return liveLectureRepository.findById(id)
             .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
             .map(lecture -> {
-                lecture.setStatus(LectureStatus.LIVE);
-                lecture.setStartedAt(LocalDateTime.now());
-                return ResponseEntity.ok(liveLectureRepository.save(lecture));
+                return ResponseEntity.ok(updateAndPublish(lecture, new Update()
+                    .set("status", LectureStatus.LIVE)
+                    .set("startedAt", LocalDateTime.now())));
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -137,9 +170,9 @@ public class LiveLectureController {
         return liveLectureRepository.findById(id)
             .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
             .map(lecture -> {
-                lecture.setStatus(LectureStatus.COMPLETED);
-                lecture.setEndedAt(LocalDateTime.now());
-                return ResponseEntity.ok(liveLectureRepository.save(lecture));
+                return ResponseEntity.ok(updateAndPublish(lecture, new Update()
+                    .set("status", LectureStatus.COMPLETED)
+                    .set("endedAt", LocalDateTime.now())));
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -151,8 +184,8 @@ public class LiveLectureController {
         return liveLectureRepository.findById(id)
             .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
             .map(lecture -> {
-                lecture.setStatus(LectureStatus.CANCELLED);
-                return ResponseEntity.ok(liveLectureRepository.save(lecture));
+                return ResponseEntity.ok(updateAndPublish(lecture, new Update()
+                    .set("status", LectureStatus.CANCELLED)));
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -167,12 +200,12 @@ public class LiveLectureController {
         return liveLectureRepository.findById(id)
             .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
             .map(lecture -> {
-                lecture.setTitle(updatedLecture.getTitle());
-                lecture.setDescription(updatedLecture.getDescription());
-                lecture.setScheduledAt(updatedLecture.getScheduledAt());
-                lecture.setDurationMinutes(updatedLecture.getDurationMinutes());
-                lecture.setMaxParticipants(updatedLecture.getMaxParticipants());
-                return ResponseEntity.ok(liveLectureRepository.save(lecture));
+                return ResponseEntity.ok(updateAndPublish(lecture, new Update()
+                    .set("title", updatedLecture.getTitle())
+                    .set("description", updatedLecture.getDescription())
+                    .set("scheduledAt", updatedLecture.getScheduledAt())
+                    .set("durationMinutes", updatedLecture.getDurationMinutes())
+                    .set("maxParticipants", updatedLecture.getMaxParticipants())));
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -193,77 +226,136 @@ public class LiveLectureController {
             .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
             .map(lecture -> {
                 liveLectureRepository.delete(lecture);
+                eventPublisher.publishEvent(LectureChangedEvent.deleted(lecture));
                 return ResponseEntity.ok().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
     }
 
-    // Get all currently live lectures
+    // Get all currently live lectures (served from memory)
     @GetMapping("/live-now")
-    public List<LiveLecture> getLiveLectures() {
-        return liveLectureRepository.findByStatus(LectureStatus.LIVE);
+    public List<LiveLectureSummary> getLiveLectures() {
+        return liveLectureRegistry.getLive();
+    }
+
+    // Push lecture status changes for the caller's batches instead of polling
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLectureStatus(Authentication auth) {
+        Role role = auth.getAuthorities().stream()
+            .map(authority -> authority.getAuthority().replace("ROLE_", ""))
+            .map(Role::valueOf)
+            .findFirst()
+            .orElse(Role.STUDENT);
+        return lectureStatusStream.subscribe(auth.getName(), role);
     }
 
     // Join a lecture room (for students)
     @PostMapping("/{id}/join")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<LiveLecture> joinLecture(@PathVariable String id, Authentication auth) {
-        String studentEmail = auth.getName();
-        
+    public ResponseEntity<LectureJoinResponse> joinLecture(@PathVariable String id, Authentication auth) {
+        if (!liveLectureRegistry.isLive(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Attendance is buffered and written as $addToSet/$max, never by re-saving the lecture
+        int currentCount = signalingHandler.getParticipantCount(id);
+        attendanceBuffer.recordJoin(id, auth.getName(), currentCount);
+
+        return ResponseEntity.ok(new LectureJoinResponse(id, id, currentCount));
+    }
+
+    // Attendance timeline and per-student time for a lecture (owning instructor only)
+    @GetMapping("/{id}/attendance")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<AttendanceReport> getAttendance(@PathVariable String id, Authentication auth) {
         return liveLectureRepository.findById(id)
-            .filter(lecture -> lecture.getStatus() == LectureStatus.LIVE)
-            .map(lecture -> {
-                // Add student to joined list if not already there
-                if (lecture.getJoinedStudents() == null) {
-                    lecture.setJoinedStudents(new ArrayList<>());
-                }
-                if (!lecture.getJoinedStudents().contains(studentEmail)) {
-                    lecture.getJoinedStudents().add(studentEmail);
-                }
-                
-                // Update peak attendance
-                int currentCount = signalingHandler.getParticipantCount(id);
-                if (lecture.getPeakAttendance() == null || currentCount > lecture.getPeakAttendance()) {
-                    lecture.setPeakAttendance(currentCount);
-                }
-                
-                return ResponseEntity.ok(liveLectureRepository.save(lecture));
-            })
+            .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
+            .map(lecture -> ResponseEntity.ok(attendanceAnalyticsService.getReport(id)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Replay the lecture's room events as NDJSON, optionally from/to epoch millis (owning instructor only)
+    @GetMapping(path = "/{id}/journal", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> replayJournal(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            Authentication auth) {
+        return liveLectureRepository.findById(id)
+            .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
+            .filter(lecture -> lectureJournal.exists(id))
+            .map(lecture -> ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .<StreamingResponseBody>body(out -> lectureJournal.replay(id, from, to, out)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Paged chat history of a lecture, oldest first (instructor or enrolled students)
+    @GetMapping("/{id}/chat")
+    public ResponseEntity<Page<ChatMessage>> getChatHistory(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication auth) {
+        return liveLectureRepository.findById(id)
+            .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName())
+                || enrollmentRepository.existsByStudentEmailAndBatchId(auth.getName(), lecture.getBatchId()))
+            .map(lecture -> ResponseEntity.ok(chatHistoryService.getHistory(id, page, Math.min(size, 200))))
             .orElse(ResponseEntity.notFound().build());
     }
 
     // Get room info including participant count
     @GetMapping("/{id}/room-info")
-    public ResponseEntity<?> getRoomInfo(@PathVariable String id) {
-        return liveLectureRepository.findById(id)
-            .map(lecture -> {
-                int participantCount = signalingHandler.getParticipantCount(id);
-                return ResponseEntity.ok(java.util.Map.of(
-                    "lectureId", lecture.getId(),
-                    "roomId", lecture.getRoomId() != null ? lecture.getRoomId() : lecture.getId(),
-                    "status", lecture.getStatus(),
-                    "participantCount", participantCount,
-                    "maxParticipants", lecture.getMaxParticipants() != null ? lecture.getMaxParticipants() : 100,
-                    "isScreenSharing", lecture.getIsScreenSharing() != null && lecture.getIsScreenSharing(),
-                    "instructorEmail", lecture.getInstructorEmail()
-                ));
-            })
+    public ResponseEntity<RoomInfo> getRoomInfo(@PathVariable String id) {
+        return roomInfoService.getRoomInfos(List.of(id)).stream()
+            .findFirst()
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
-    // Update screen sharing status
+    // Room info for many lectures in one call (?ids=a,b,c), e.g. for a dashboard of cards
+    @GetMapping("/room-info")
+    public List<RoomInfo> getRoomInfos(@RequestParam List<String> ids) {
+        if (ids.size() > MAX_ROOM_INFO_IDS) {
+            throw new RuntimeException("At most " + MAX_ROOM_INFO_IDS + " lecture ids per request");
+        }
+        return roomInfoService.getRoomInfos(ids);
+    }
+
+    // Update screen sharing status (room state lives in the signaling layer and is persisted lazily)
     @PutMapping("/{id}/screen-share")
     @PreAuthorize("hasRole('INSTRUCTOR')")
-    public ResponseEntity<LiveLecture> updateScreenShare(
+    public ResponseEntity<RoomInfo> updateScreenShare(
             @PathVariable String id,
             @RequestBody java.util.Map<String, Boolean> body,
-            Authentication auth) {
-        return liveLectureRepository.findById(id)
-            .filter(lecture -> lecture.getInstructorEmail().equals(auth.getName()))
-            .map(lecture -> {
-                lecture.setIsScreenSharing(body.getOrDefault("isScreenSharing", false));
-                return ResponseEntity.ok(liveLectureRepository.save(lecture));
-            })
-            .orElse(ResponseEntity.notFound().build());
+            Authentication auth) throws IOException {
+        // 1. Ownership comes from the cached room metadata, not a lecture read
+        RoomInfo room = roomInfoService.getRoomInfos(List.of(id)).stream().findFirst().orElse(null);
+        if (room == null || !auth.getName().equals(room.getInstructorEmail())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // 2. Change the in-memory state and tell the room
+        boolean screenSharing = body.getOrDefault("isScreenSharing", false);
+        signalingHandler.setScreenSharing(id, screenSharing, auth.getName());
+
+        room.setIsScreenSharing(screenSharing);
+        return ResponseEntity.ok(room);
+    }
+
+    // Update only the given fields (so buffered attendance writes are never overwritten by a
+    // stale copy of the document) and let in-memory views know about the change
+    private LiveLecture updateAndPublish(LiveLecture lecture, Update update) {
+        LiveLecture updated = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("_id").is(lecture.getId())),
+            update,
+            FindAndModifyOptions.options().returnNew(true),
+            LiveLecture.class);
+        if (updated == null) {
+            throw new RuntimeException("Lecture not found");
+        }
+        eventPublisher.publishEvent(LectureChangedEvent.updated(updated, lecture.getStatus()));
+        return updated;
     }
 }
@@ -0,0 +1,289 @@
+package com.learnado.backend.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.repository.BatchRepository;
+import com.learnado.backend.repository.CourseRepository;
+import com.learnado.backend.repository.EnrollmentRepository;
+import com.learnado.backend.service.storage.LocalStorageService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serves media stored by {@link LocalStorageService}. Bodies are handed to Tomcat's
+ * sendfile support when the connector offers it, otherwise streamed with
+ * FileChannel.transferTo, so file bytes are never buffered in full on the heap.
+ * Supports Range/If-Range (including multi-range) and conditional GETs with strong ETags:
+ * the SHA-256 that LocalStorageService computed while storing the file, so serving a file
+ * never means reading all of it. Files stored before hashes were kept get no ETag and are
+ * validated by Last-Modified only.
+ *
+ * Course thumbnails are public. Other course media (courses/{courseId}/...) is only served
+ * to the course's instructor, students enrolled in one of its batches and admins.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "learnado.storage.type", havingValue = "local", matchIfMissing = true)
+public class MediaController {
+
+    private static final String PREFIX = "/api/media/";
+    private static final int MAX_RANGES = 16;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String PUBLIC_PREFIX = "thumbnails/";
+    private static final String COURSE_PREFIX = "courses/";
+
+    private final LocalStorageService localStorageService;
+    private final CourseRepository courseRepository;
+    private final BatchRepository batchRepository;
+    private final EnrollmentRepository enrollmentRepository;
+
+    @RequestMapping(value = "/api/media/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response, Authentication auth) throws IOException {
+        String key = request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length());
+        boolean isPublic = key.startsWith(PUBLIC_PREFIX);
+        if (LocalStorageService.isHidden(key) || (!isPublic && !canRead(key, auth))) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND); // Same as missing, so keys can't be probed
+            return;
+        }
+        Path file;
+        try {
+            file = localStorageService.resolve(key);
+        } catch (RuntimeException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!Files.isRegularFile(file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000; // HTTP dates have second precision
+        String hash = localStorageService.contentHash(file);
+        String etag = hash == null ? null : "\"" + hash + "\"";
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Keys are unique per upload, so a stored file never changes underneath its URL;
+        // only public files may sit in shared caches
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (isPublic ? "public" : "private") + ", max-age=31536000, immutable");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<HttpRange> ranges = requestedRanges(request, etag, lastModified);
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(length);
+            if (!head) {
+                sendRegion(request, response, file, 0, length);
+            }
+            return;
+        }
+
+        // Drop ranges that start past the end; if nothing is left the request can't be satisfied
+        List<HttpRange> satisfiable = ranges.stream()
+                .filter(range -> length > 0 && range.getRangeStart(length) < length)
+                .toList();
+        if (satisfiable.isEmpty()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (satisfiable.size() == 1) {
+            long start = satisfiable.get(0).getRangeStart(length);
+            long end = satisfiable.get(0).getRangeEnd(length);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                sendRegion(request, response, file, start, end + 1);
+            }
+            return;
+        }
+
+        sendMultipart(response, file, contentType, satisfiable, length, head);
+    }
+
+    // Course media: the course's instructor, students enrolled in one of its batches, admins
+    private boolean canRead(String key, Authentication auth) {
+        if (auth == null) {
+            return false;
+        }
+        boolean admin = auth.getAuthorities().stream().anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (admin) {
+            return true;
+        }
+        if (!key.startsWith(COURSE_PREFIX) || key.indexOf('/', COURSE_PREFIX.length()) < 0) {
+            return false;
+        }
+        String courseId = key.substring(COURSE_PREFIX.length(), key.indexOf('/', COURSE_PREFIX.length()));
+        boolean instructor = courseRepository.findById(courseId)
+                .map(course -> auth.getName().equals(course.getInstructorEmail()))
+                .orElse(false);
+        if (instructor) {
+            return true;
+        }
+        List<String> batchIds = batchRepository.findByCourseId(courseId).stream().map(Batch::getId).toList();
+        return !batchIds.isEmpty() && enrollmentRepository.existsByStudentEmailAndBatchIdIn(auth.getName(), batchIds);
+    }
+
+    // If-None-Match uses weak comparison, so a client's W/ prefix is ignored
+    private boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = parseDate(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    // Ranges to serve, or an empty list when the whole file should be sent
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return List.of();
+        }
+
+        // If-Range: only honour the range when the client's copy is still current. ETags are
+        // compared strongly, so a weak one never matches
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"")) {
+                if (!ifRange.equals(etag)) {
+                    return List.of();
+                }
+            } else if (ifRange.startsWith("W/") || parseDate(request, HttpHeaders.IF_RANGE) != lastModified) {
+                return List.of();
+            }
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() > MAX_RANGES ? List.of() : ranges;
+        } catch (IllegalArgumentException e) {
+            return List.of(); // Malformed Range headers are ignored
+        }
+    }
+
+    private long parseDate(HttpServletRequest request, String header) {
+        try {
+            return request.getDateHeader(header);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    // Send [start, end) of the file, preferring Tomcat's zero-copy sendfile
+    private void sendRegion(HttpServletRequest request, HttpServletResponse response, Path file, long start, long end) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, end, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void sendMultipart(HttpServletResponse response, Path file, MediaType contentType,
+                               List<HttpRange> ranges, long length, boolean head) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+
+        // Work out the exact body size up front so the response isn't chunked
+        long contentLength = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            contentLength += partHeader(boundary, contentType, start, end, length).length + (end - start + 1);
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                out.write(partHeader(boundary, contentType, start, end, length));
+                transfer(channel, start, end + 1, target);
+            }
+        }
+        out.write(closing);
+    }
+
+    private byte[] partHeader(String boundary, MediaType contentType, long start, long end, long length) {
+        return ("\r\n--" + boundary + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Range: bytes " + start + "-" + end + "/" + length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void transfer(FileChannel channel, long start, long end, WritableByteChannel target) throws IOException {
+        long position = start;
+        while (position < end) {
+            long sent = channel.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                break;
+            }
+            position += sent;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.learnado.backend.controller;
+
+import com.learnado.backend.dto.UploadSessionRequest;
+import com.learnado.backend.model.UploadSession;
+import com.learnado.backend.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    // 1. Start a resumable upload for large course media
+    @PostMapping
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public UploadSession startUpload(@Valid @RequestBody UploadSessionRequest request, Authentication auth) throws IOException {
+        return uploadSessionService.start(request, auth.getName());
+    }
+
+    // 2. Check progress (use receivedBytes as the offset to resume from)
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public UploadSession getUpload(@PathVariable String id, Authentication auth) {
+        return uploadSessionService.getSession(id, auth.getName());
+    }
+
+    // 3. Send the next chunk as the raw request body
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public UploadSession uploadChunk(
+            @PathVariable String id,
+            @RequestParam long offset,
+            HttpServletRequest request,
+            Authentication auth) throws IOException {
+        return uploadSessionService.appendChunk(id, offset, request.getInputStream(), auth.getName());
+    }
+
+    // 4. Finish the upload and move it to storage
+    @PostMapping("/{id}/complete")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public UploadSession completeUpload(@PathVariable String id, Authentication auth) throws IOException {
+        return uploadSessionService.complete(id, auth.getName());
+    }
+}
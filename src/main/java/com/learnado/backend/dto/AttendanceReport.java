@@ -0,0 +1,34 @@
+package com.learnado.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class AttendanceReport {
+    private String lectureId;
+    private int peak;                       // Most people in the room at once
+    private double average;                 // Average people in the room while it was open
+    private List<TimelinePoint> timeline;   // One point per bucket
+    private List<StudentAttendance> students;
+
+    @Data
+    @AllArgsConstructor
+    public static class TimelinePoint {
+        private Instant start;
+        private int peak;
+        private double average;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class StudentAttendance {
+        private String studentEmail;
+        private double minutesAttended;
+    }
+}
@@ -0,0 +1,15 @@
+package com.learnado.backend.dto;
+
+import com.learnado.backend.model.Batch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BatchAvailability {
+    private Batch batch;
+    private Long enrolled;         // null for batches created before seat counters were backfilled
+    private Long seatsAvailable;   // null when unknown or the batch has no limit
+}
@@ -0,0 +1,20 @@
+package com.learnado.backend.dto;
+
+import com.learnado.backend.model.Course;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CourseOverview {
+    private Course course;
+    private List<BatchAvailability> batches;
+    private List<LiveLectureSummary> upcomingLectures;
+    private boolean partial;        // true if any section missed the deadline or failed
+    private List<String> missing;   // Sections left out: "batches", "upcomingLectures"
+}
@@ -0,0 +1,24 @@
+package com.learnado.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A course as catalog lists show it; leaves out the storage key and thumbnail variants,
+ * which only the detail page and thumbnail redirect need.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummary {
+    private String id;
+    private String title;
+    private String description;
+    private Double price;
+    private String instructorEmail;
+    private String thumbnailUrl;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.learnado.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LectureJoinResponse {
+    private String lectureId;
+    private String roomId;          // WebSocket room to connect to (same as the lecture id)
+    private int participantCount;   // People in the room when the student joined
+}
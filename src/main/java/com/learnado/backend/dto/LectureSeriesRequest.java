@@ -0,0 +1,59 @@
+package com.learnado.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Data
+public class LectureSeriesRequest {
+
+    public enum Frequency { DAILY, WEEKLY }
+
+    public enum ConflictPolicy {
+        FAIL, // Create nothing if any occurrence overlaps the instructor's schedule
+        SKIP  // Create only the occurrences that don't overlap
+    }
+
+    @NotBlank(message = "Batch id is required")
+    private String batchId;
+
+    @NotBlank(message = "Course id is required")
+    private String courseId;
+
+    @NotBlank(message = "Title is required")
+    private String title;
+
+    private String description;
+
+    @NotNull(message = "Duration is required")
+    @Positive(message = "Duration must be positive")
+    private Integer durationMinutes;
+
+    private Integer maxParticipants;
+
+    @NotNull(message = "Frequency is required")
+    private Frequency frequency;
+
+    private Integer interval = 1;        // Every n days / weeks
+    private Set<DayOfWeek> daysOfWeek;   // WEEKLY only; defaults to the start date's weekday
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+
+    private LocalDate until;             // Last possible date (inclusive); this or count is required
+    private Integer count;               // Occurrences to generate, exceptions included (as in iCalendar)
+    private List<LocalDate> exceptions = new ArrayList<>(); // Dates to skip
+
+    private ConflictPolicy onConflict = ConflictPolicy.FAIL;
+}
@@ -0,0 +1,29 @@
+package com.learnado.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LectureSeriesResult {
+    private String seriesId;                  // Null if nothing was created
+    private List<LiveLectureSummary> created;
+    private List<Conflict> conflicts;         // Occurrences that overlap the instructor's schedule
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Conflict {
+        private LocalDateTime scheduledAt;    // The occurrence that could not be created
+        private String lectureId;             // The existing lecture (or earlier occurrence) it overlaps
+        private String lectureTitle;
+        private LocalDateTime lectureScheduledAt;
+    }
+}
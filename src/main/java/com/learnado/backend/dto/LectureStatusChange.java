@@ -0,0 +1,17 @@
+package com.learnado.backend.dto;
+
+import com.learnado.backend.model.LectureStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Pushed on /api/live-lectures/stream when a lecture is created, changes status or is deleted
+@Data
+@AllArgsConstructor
+public class LectureStatusChange {
+    private String lectureId;
+    private String batchId;
+    private LectureStatus status;           // null if the lecture was deleted
+    private LectureStatus previousStatus;   // null for new lectures
+    private LiveLectureSummary lecture;     // Current state, null if deleted
+}
@@ -0,0 +1,62 @@
+package com.learnado.backend.dto;
+
+import java.time.LocalDateTime;
+
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A lecture as list endpoints show it: everything but the joinedStudents list. Repository
+ * methods returning this type only fetch these fields from Mongo; detail reads still return
+ * the full {@link LiveLecture}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveLectureSummary {
+    private String id;
+    private String batchId;
+    private String courseId;
+    private String title;
+    private String description;
+    private String instructorEmail;
+    private LocalDateTime scheduledAt;
+    private Integer durationMinutes;
+    private LectureStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+    private String roomId;
+    private Boolean isScreenSharing;
+    private Boolean isRecording;
+    private Integer maxParticipants;
+    private Integer peakAttendance;
+
+    public static LiveLectureSummary of(LiveLecture lecture) {
+        return LiveLectureSummary.builder()
+                .id(lecture.getId())
+                .batchId(lecture.getBatchId())
+                .courseId(lecture.getCourseId())
+                .title(lecture.getTitle())
+                .description(lecture.getDescription())
+                .instructorEmail(lecture.getInstructorEmail())
+                .scheduledAt(lecture.getScheduledAt())
+                .durationMinutes(lecture.getDurationMinutes())
+                .status(lecture.getStatus())
+                .createdAt(lecture.getCreatedAt())
+                .startedAt(lecture.getStartedAt())
+                .endedAt(lecture.getEndedAt())
+                .roomId(lecture.getRoomId())
+                .isScreenSharing(lecture.getIsScreenSharing())
+                .isRecording(lecture.getIsRecording())
+                .maxParticipants(lecture.getMaxParticipants())
+                .peakAttendance(lecture.getPeakAttendance())
+                .build();
+    }
+}
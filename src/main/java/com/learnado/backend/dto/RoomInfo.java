@@ -0,0 +1,22 @@
+package com.learnado.backend.dto;
+
+import com.learnado.backend.model.LectureStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class RoomInfo {
+    private String lectureId;
+    private String roomId;
+    private LectureStatus status;
+    private int participantCount;      // People connected to the room right now
+    private Integer maxParticipants;
+    private Boolean isScreenSharing;
+    private Boolean isRecording;
+    private Boolean instructorPresent;
+    private String instructorEmail;
+}
@@ -0,0 +1,20 @@
+package com.learnado.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One row of /api/courses/trending; counts are sketch estimates
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingCourse {
+    private String courseId;
+    private String title;
+    private long views;
+    private long uniqueViewers;
+    private long enrollments;
+    private long score;         // views + enroll-weight * enrollments
+}
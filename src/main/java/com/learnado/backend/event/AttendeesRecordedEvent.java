@@ -0,0 +1,14 @@
+package com.learnado.backend.event;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published after joins (the authenticated REST join) are written to the lectures'
+ * joinedStudents. A student may already have been in the list; listeners that count
+ * attendees must check for themselves.
+ *
+ * @param studentsByLecture lecture id -> emails of the students who joined
+ */
+public record AttendeesRecordedEvent(Map<String, List<String>> studentsByLecture) {
+}
@@ -0,0 +1,13 @@
+package com.learnado.backend.event;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Enrollment;
+
+/**
+ * Published after a student has been enrolled in a batch.
+ *
+ * @param enrollment the stored enrollment
+ * @param batch      the batch with its updated seat counter
+ */
+public record EnrollmentCreatedEvent(Enrollment enrollment, Batch batch) {
+}
@@ -0,0 +1,27 @@
+package com.learnado.backend.event;
+
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+
+/**
+ * Published after a lecture is created, updated, changes status or is deleted, so
+ * in-memory views (timelines, registries, caches) can update themselves.
+ *
+ * @param lecture        the lecture as it is now stored (the last stored state if deleted)
+ * @param previousStatus status before the change, null for new lectures
+ * @param deleted        true if the lecture was removed
+ */
+public record LectureChangedEvent(LiveLecture lecture, LectureStatus previousStatus, boolean deleted) {
+
+    public static LectureChangedEvent created(LiveLecture lecture) {
+        return new LectureChangedEvent(lecture, null, false);
+    }
+
+    public static LectureChangedEvent updated(LiveLecture lecture, LectureStatus previousStatus) {
+        return new LectureChangedEvent(lecture, previousStatus, false);
+    }
+
+    public static LectureChangedEvent deleted(LiveLecture lecture) {
+        return new LectureChangedEvent(lecture, lecture.getStatus(), true);
+    }
+}
@@ -0,0 +1,12 @@
+package com.learnado.backend.event;
+
+import com.learnado.backend.model.LiveLecture;
+
+/**
+ * Published once per lecture, shortly before it is scheduled to start.
+ *
+ * @param lecture       the lecture with its reminderSentAt set
+ * @param minutesBefore how long before scheduledAt the reminder was meant to go out
+ */
+public record LectureReminderEvent(LiveLecture lecture, long minutesBefore) {
+}
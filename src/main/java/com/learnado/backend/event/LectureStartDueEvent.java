@@ -0,0 +1,12 @@
+package com.learnado.backend.event;
+
+import com.learnado.backend.model.LiveLecture;
+
+/**
+ * Published when a lecture reaches its scheduled start but the instructor hasn't started it
+ * (only when auto-start is off; with auto-start the lecture just goes LIVE).
+ *
+ * @param lecture the lecture, still SCHEDULED
+ */
+public record LectureStartDueEvent(LiveLecture lecture) {
+}
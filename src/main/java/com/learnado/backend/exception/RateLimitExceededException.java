@@ -0,0 +1,17 @@
+package com.learnado.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is over its rate limit; answered with 429 and Retry-After.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("Too many requests, please slow down");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.learnado.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the server is too busy or too slow to answer right now; answered with 503 and
+ * Retry-After.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,25 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.List;
+
+// One bucket of per-second participant counts for a lecture room (bucket pattern time series)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_buckets")
+@CompoundIndex(name = "lecture_bucket", def = "{'lectureId': 1, 'bucketStart': 1}")
+public class AttendanceBucket {
+    @Id
+    private String id;
+    private String lectureId;
+    private Instant bucketStart;     // Time of the first sample
+    private List<Integer> samples;   // Participants in the room, one entry per second
+    private Integer peak;            // Max of samples
+    private Long sum;                // Sum of samples (for averages without unpacking)
+}
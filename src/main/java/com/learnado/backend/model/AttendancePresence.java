@@ -0,0 +1,24 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// Total time one student spent in a lecture room
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_presence")
+public class AttendancePresence {
+    @Id
+    private String id;              // "<lectureId>:<studentEmail>"
+    @Indexed
+    private String lectureId;
+    private String studentEmail;
+    private Long millisAttended;
+    private Instant firstJoinedAt;
+    private Instant lastSeenAt;
+}
@@ -2,6 +2,7 @@ package com.learnado.backend.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -13,10 +14,13 @@ import java.time.LocalDateTime;
 public class Batch {
     @Id
     private String id;
+    @Indexed
     private String courseId; // Links this batch to a course
     private String batchName; // Example: "Morning Batch"
     private Integer maxStudents;
+    private Integer enrolledCount; // Seats taken; only ever changed atomically by SeatReservationService
     private LocalDateTime startDate;
+    @Indexed
     private String instructorEmail; // Who is teaching this batch?
 
     public void setCreatedAt(LocalDateTime now) {
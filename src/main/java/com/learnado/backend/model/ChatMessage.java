@@ -0,0 +1,27 @@
+package com.learnado.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chat_messages")
+@CompoundIndex(name = "lecture_time", def = "{'lectureId': 1, 'timestamp': 1}")
+public class ChatMessage {
+    @Id
+    private String id;            // Assigned before insert so a retried batch can't duplicate it
+    private String lectureId;
+    private String fromEmail;
+    private String fromName;
+    private String fromRole;      // INSTRUCTOR or STUDENT
+    private String message;
+    private Long timestamp;       // Epoch millis, as sent to clients
+}
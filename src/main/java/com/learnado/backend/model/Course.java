@@ -2,8 +2,10 @@ package com.learnado.backend.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -16,6 +18,13 @@ public class Course {
     private String title;
     private String description;
     private Double price;
+    @Indexed
     private String instructorEmail; // Who created this course?
+    private String thumbnailUrl;    // Public URL of the uploaded thumbnail
+    private String thumbnailKey;    // Storage key of the thumbnail (used to replace/delete it)
+    private List<ImageVariant> thumbnailVariants; // Resized copies, smallest first (filled in by a background job)
+    @Indexed(sparse = true)
+    private LocalDateTime thumbnailRetryAt; // When to retry the derivatives after a failed or dropped job
+    private Integer thumbnailAttempts;      // Failed derivative jobs for the current thumbnail
     private LocalDateTime createdAt;
 }
\ No newline at end of file
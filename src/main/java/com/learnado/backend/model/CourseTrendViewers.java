@@ -0,0 +1,22 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// Distinct viewers of one course in one trending window (see CourseTrendingService)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "course_trend_viewers")
+public class CourseTrendViewers {
+    @Id
+    private String id;                  // windowStart as ISO-8601 + "/" + courseId
+    @Indexed(expireAfter = "7d")
+    private Instant windowStart;
+    private String courseId;
+    private byte[] registers;           // HyperLogLog registers
+}
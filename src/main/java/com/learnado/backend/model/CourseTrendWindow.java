@@ -0,0 +1,26 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.List;
+
+// Serialized sketches for one trending window (see CourseTrendingService). Distinct viewers
+// are kept per course in CourseTrendViewers, so this document stays a fixed size
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "course_trend_windows")
+public class CourseTrendWindow {
+    @Id
+    private String id;                  // windowStart as ISO-8601
+    @Indexed(expireAfter = "7d")
+    private Instant windowStart;
+    private byte[] views;               // CountMinSketch of course views
+    private byte[] enrollments;         // CountMinSketch of enrollments
+    private List<String> candidates;    // Top-K course ids of the window by score
+}
@@ -0,0 +1,8 @@
+package com.learnado.backend.model;
+
+public enum EmailStatus {
+    PENDING, // Waiting for its next attempt
+    SENDING, // Claimed by a dispatcher
+    SENT,    // Accepted by the SMTP server
+    FAILED   // Gave up after the maximum number of attempts
+}
@@ -2,6 +2,8 @@ package com.learnado.backend.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -10,10 +12,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "enrollments")
+@CompoundIndex(name = "student_batch_unique", def = "{'studentEmail': 1, 'batchId': 1}", unique = true)
 public class Enrollment {
     @Id
     private String id;
     private String studentEmail; // The student who enrolled
+    @Indexed
     private String batchId;      // The batch they joined
     private LocalDateTime enrolledAt;
     private String status;       // Example: "PAID" or "PENDING"
@@ -0,0 +1,29 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// A background CSV export; the gzipped file is kept in the export directory until the job expires
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "export_jobs")
+public class ExportJob {
+    @Id
+    private String id;
+    private String ownerEmail;    // Instructor who requested it (only they can download it)
+    private String batchId;
+    private ExportType type;
+    private ExportStatus status;
+    private String storageKey;    // File name under the export root, set once DONE
+    private Long rows;
+    private Long bytes;           // Compressed size
+    private String error;
+    @Indexed
+    private Instant createdAt;
+    private Instant finishedAt;
+}
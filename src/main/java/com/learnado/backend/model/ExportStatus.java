@@ -0,0 +1,8 @@
+package com.learnado.backend.model;
+
+public enum ExportStatus {
+    QUEUED,  // Waiting for an export worker
+    RUNNING, // Rows are being written
+    DONE,    // File stored, ready to download
+    FAILED   // See the job's error
+}
@@ -0,0 +1,17 @@
+package com.learnado.backend.model;
+
+import java.util.Locale;
+
+public enum ExportType {
+    ROSTER,     // One row per enrollment in the batch
+    ATTENDANCE; // One row per lecture and student who joined it
+
+    // Path segments are lower case ("roster", "attendance")
+    public static ExportType fromPath(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown export type: " + value);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+
+// A resized copy of an uploaded image, embedded in the owning document
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariant {
+    private String name;        // "card", "detail" or "retina"
+    private Integer width;
+    private Integer height;
+    private String format;      // Always "jpeg"
+    private String url;
+    private String key;         // Storage key
+}
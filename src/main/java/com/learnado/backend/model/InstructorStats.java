@@ -0,0 +1,52 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+// Dashboard counters for one instructor, kept up to date on writes and reconciled periodically
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "instructor_stats")
+public class InstructorStats {
+    @Id
+    private String id;                          // Instructor email
+    private Long courses;
+    private Long batches;
+    @Builder.Default
+    private Map<String, Long> lecturesByStatus = new HashMap<>();  // LectureStatus name -> count
+    private Long totalAttendees;                // Student/lecture pairs (a student counts once per lecture)
+    private Long uniqueAttendees;               // Distinct students across all lectures
+    @Builder.Default
+    private Map<String, BatchSeats> batchSeats = new HashMap<>();  // Batch id -> seats
+    private Instant reconciledAt;
+    private Long version;                       // Bumped by every write; reconcile only saves if unchanged
+
+    // Share of capped seats that are taken, null if no batch has a seat limit
+    public Double getSeatFillRate() {
+        long enrolled = 0;
+        long capacity = 0;
+        for (BatchSeats seats : batchSeats.values()) {
+            if (seats.getMaxStudents() != null && seats.getMaxStudents() > 0) {
+                enrolled += seats.getEnrolled() == null ? 0 : seats.getEnrolled();
+                capacity += seats.getMaxStudents();
+            }
+        }
+        return capacity == 0 ? null : (double) enrolled / capacity;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchSeats {
+        private String batchName;
+        private String courseId;
+        private Integer enrolled;
+        private Integer maxStudents;
+    }
+}
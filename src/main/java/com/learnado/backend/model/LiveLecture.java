@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -17,6 +18,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "live_lectures")
+@CompoundIndex(name = "status_scheduled", def = "{'status': 1, 'scheduledAt': 1}")
+@CompoundIndex(name = "batch_scheduled", def = "{'batchId': 1, 'scheduledAt': -1}")
+@CompoundIndex(name = "course_scheduled", def = "{'courseId': 1, 'scheduledAt': -1}")
+@CompoundIndex(name = "instructor_scheduled", def = "{'instructorEmail': 1, 'scheduledAt': -1}")
 public class LiveLecture {
     @Id
     private String id;
@@ -31,12 +36,15 @@ public class LiveLecture {
     private LocalDateTime createdAt;
     private LocalDateTime startedAt;  // When instructor actually started
     private LocalDateTime endedAt;    // When lecture actually ended
+    private LocalDateTime reminderSentAt; // When the pre-start reminder went out (claimed once)
+    private String seriesId;          // Shared by lectures created together as a recurring series
     
     // WebRTC room settings
     private String roomId;            // Unique room identifier (same as lecture id)
     private Boolean isScreenSharing;  // Is instructor currently screen sharing
     private Boolean isRecording;      // Is the lecture being recorded
     private Integer maxParticipants;  // Maximum allowed participants
+    private Boolean instructorPresent; // Is the instructor connected to the room
     
     // Participant tracking
     @Builder.Default
@@ -0,0 +1,30 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbound_emails")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboundEmail {
+    @Id
+    private String id;             // De-duplication key, e.g. "reminder:<lectureId>:<email>"
+    private String recipient;
+    private String domain;         // Recipient's mail domain, used for rate limiting
+    private String subject;
+    private String body;
+    private EmailStatus status;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String claimedBy;      // Dispatcher run that is sending it
+    private LocalDateTime claimedAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
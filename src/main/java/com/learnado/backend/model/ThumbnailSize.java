@@ -0,0 +1,30 @@
+package com.learnado.backend.model;
+
+// Fixed derivative sizes generated for every course thumbnail
+public enum ThumbnailSize {
+    CARD("card", 400, 225),       // Catalog cards
+    DETAIL("detail", 960, 540),   // Course detail header
+    RETINA("retina", 1920, 1080); // Detail header on 2x displays
+
+    private final String variantName;
+    private final int maxWidth;
+    private final int maxHeight;
+
+    ThumbnailSize(String variantName, int maxWidth, int maxHeight) {
+        this.variantName = variantName;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    public String getVariantName() {
+        return variantName;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+}
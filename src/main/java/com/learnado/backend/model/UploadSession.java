@@ -0,0 +1,29 @@
+package com.learnado.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "upload_sessions")
+@CompoundIndex(name = "status_updated", def = "{'status': 1, 'updatedAt': 1}")
+public class UploadSession {
+    @Id
+    private String id;
+    private String ownerEmail;     // Instructor who started the upload
+    private String courseId;       // Course the media belongs to
+    private String fileName;
+    private String contentType;
+    private Long totalBytes;       // Declared size of the whole file
+    private Long receivedBytes;    // Offset the next chunk must start at
+    private UploadStatus status;
+    private String storageKey;     // Set once completed
+    private String url;            // Set once completed
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
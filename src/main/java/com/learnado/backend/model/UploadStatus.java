@@ -0,0 +1,7 @@
+package com.learnado.backend.model;
+
+public enum UploadStatus {
+    IN_PROGRESS, // Chunks are still being received
+    COMPLETED,   // All bytes received and handed to storage
+    EXPIRED      // Abandoned session, spool file removed
+}
@@ -0,0 +1,9 @@
+package com.learnado.backend.repository;
+
+import com.learnado.backend.model.AttendanceBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+
+public interface AttendanceBucketRepository extends MongoRepository<AttendanceBucket, String> {
+    List<AttendanceBucket> findByLectureIdOrderByBucketStartAsc(String lectureId);
+}
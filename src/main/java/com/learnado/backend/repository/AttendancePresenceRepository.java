@@ -0,0 +1,9 @@
+package com.learnado.backend.repository;
+
+import com.learnado.backend.model.AttendancePresence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+
+public interface AttendancePresenceRepository extends MongoRepository<AttendancePresence, String> {
+    List<AttendancePresence> findByLectureId(String lectureId);
+}
@@ -0,0 +1,11 @@
+package com.learnado.backend.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.learnado.backend.model.ChatMessage;
+
+public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
+    Page<ChatMessage> findByLectureIdOrderByTimestampAsc(String lectureId, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.learnado.backend.repository;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository query that can't be served by an index (e.g. an unanchored,
+ * case-insensitive substring search) so the startup query plan check skips it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CollectionScanExpected {
+
+    // Why a scan is acceptable here
+    String value();
+}
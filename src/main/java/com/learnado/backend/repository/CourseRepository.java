@@ -1,7 +1,11 @@
 package com.learnado.backend.repository;
 
+import com.learnado.backend.dto.CourseSummary;
 import com.learnado.backend.model.Course;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface CourseRepository extends MongoRepository<Course, String> {
@@ -9,5 +13,15 @@ public interface CourseRepository extends MongoRepository<Course, String> {
     List<Course> findByInstructorEmail(String email);
 
     // NEW: Search for courses where the title contains a specific word (case-insensitive)
+    @CollectionScanExpected("substring search; the course catalog is small")
     List<Course> findByTitleContainingIgnoreCase(String title);
-}
\ No newline at end of file
+
+    // Summary projections for catalog lists (no thumbnail variants or storage key)
+    List<CourseSummary> findSummariesBy();
+    List<CourseSummary> findSummariesByIdIn(Collection<String> ids);
+
+    Page<CourseSummary> findSummariesBy(Pageable pageable);
+
+    @CollectionScanExpected("substring search; the course catalog is small")
+    List<CourseSummary> findSummariesByTitleContainingIgnoreCase(String title);
+}
@@ -2,9 +2,12 @@ package com.learnado.backend.repository;
 
 import com.learnado.backend.model.Enrollment;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface EnrollmentRepository extends MongoRepository<Enrollment, String> {
     List<Enrollment> findByStudentEmail(String email);
     boolean existsByStudentEmailAndBatchId(String email, String batchId);
+    boolean existsByStudentEmailAndBatchIdIn(String email, Collection<String> batchIds);
+    List<Enrollment> findByBatchId(String batchId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.learnado.backend.repository;
+
+import com.learnado.backend.model.ExportJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ExportJobRepository extends MongoRepository<ExportJob, String> {
+    // Jobs old enough to delete along with their files
+    List<ExportJob> findByCreatedAtBefore(Instant cutoff);
+}
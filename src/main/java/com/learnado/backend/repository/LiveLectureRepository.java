@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import com.learnado.backend.dto.LiveLectureSummary;
 import com.learnado.backend.model.LectureStatus;
 import com.learnado.backend.model.LiveLecture;
 
@@ -27,6 +28,9 @@ public interface LiveLectureRepository extends MongoRepository<LiveLecture, Stri
     // Find live lectures currently happening
     List<LiveLecture> findByStatus(LectureStatus status);
     
+    // Cheap status check that doesn't load the document
+    boolean existsByIdAndStatus(String id, LectureStatus status);
+    
     // Find lectures by batch and status
     List<LiveLecture> findByBatchIdAndStatus(String batchId, LectureStatus status);
     
@@ -35,4 +39,20 @@ public interface LiveLectureRepository extends MongoRepository<LiveLecture, Stri
     
     // Find all lectures for multiple batches
     List<LiveLecture> findByBatchIdInOrderByScheduledAtDesc(List<String> batchIds);
+
+    // Summary projections for list endpoints: same queries, without joinedStudents
+    List<LiveLectureSummary> findSummariesByBatchIdOrderByScheduledAtDesc(String batchId);
+
+    List<LiveLectureSummary> findSummariesByCourseIdOrderByScheduledAtDesc(String courseId);
+
+    List<LiveLectureSummary> findSummariesByInstructorEmailOrderByScheduledAtDesc(String instructorEmail);
+
+    List<LiveLectureSummary> findSummariesByBatchIdAndScheduledAtAfterOrderByScheduledAtAsc(String batchId, LocalDateTime now);
+
+    List<LiveLectureSummary> findSummariesByStatus(LectureStatus status);
+
+    List<LiveLectureSummary> findSummariesByBatchIdInAndScheduledAtAfterOrderByScheduledAtAsc(List<String> batchIds, LocalDateTime now);
+
+    List<LiveLectureSummary> findSummariesByBatchIdInOrderByScheduledAtDesc(List<String> batchIds);
+
 }
@@ -0,0 +1,9 @@
+package com.learnado.backend.repository;
+
+import com.learnado.backend.model.EmailStatus;
+import com.learnado.backend.model.OutboundEmail;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface OutboundEmailRepository extends MongoRepository<OutboundEmail, String> {
+    long countByStatus(EmailStatus status);
+}
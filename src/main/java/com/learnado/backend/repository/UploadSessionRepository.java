@@ -0,0 +1,12 @@
+package com.learnado.backend.repository;
+
+import com.learnado.backend.model.UploadSession;
+import com.learnado.backend.model.UploadStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+    // Sessions nobody has touched for a while (used for cleanup)
+    List<UploadSession> findByStatusAndUpdatedAtBefore(UploadStatus status, LocalDateTime cutoff);
+}
@@ -0,0 +1,13 @@
+package com.learnado.backend.repository.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.learnado.backend.model.Batch;
+
+import reactor.core.publisher.Flux;
+
+// Non-blocking mirror of BatchRepository's reads ("reactive" profile only)
+public interface ReactiveBatchRepository extends ReactiveMongoRepository<Batch, String> {
+
+    Flux<Batch> findByCourseId(String courseId);
+}
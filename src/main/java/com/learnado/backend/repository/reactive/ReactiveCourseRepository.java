@@ -0,0 +1,14 @@
+package com.learnado.backend.repository.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.learnado.backend.dto.CourseSummary;
+import com.learnado.backend.model.Course;
+
+import reactor.core.publisher.Flux;
+
+// Non-blocking mirror of CourseRepository's catalog reads ("reactive" profile only)
+public interface ReactiveCourseRepository extends ReactiveMongoRepository<Course, String> {
+
+    Flux<CourseSummary> findSummariesBy();
+}
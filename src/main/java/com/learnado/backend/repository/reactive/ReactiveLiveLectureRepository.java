@@ -0,0 +1,21 @@
+package com.learnado.backend.repository.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+
+import reactor.core.publisher.Flux;
+
+// Non-blocking mirror of LiveLectureRepository's summary reads ("reactive" profile only)
+public interface ReactiveLiveLectureRepository extends ReactiveMongoRepository<LiveLecture, String> {
+
+    Flux<LiveLectureSummary> findSummariesByStatus(LectureStatus status);
+
+    Flux<LiveLectureSummary> findSummariesByBatchIdOrderByScheduledAtDesc(String batchId);
+
+    Flux<LiveLectureSummary> findSummariesByBatchIdAndScheduledAtAfterOrderByScheduledAtAsc(String batchId, LocalDateTime now);
+}
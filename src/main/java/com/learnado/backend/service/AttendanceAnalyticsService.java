@@ -0,0 +1,405 @@
+package com.learnado.backend.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.bson.types.ObjectId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.AttendanceReport;
+import com.learnado.backend.model.AttendanceBucket;
+import com.learnado.backend.model.AttendancePresence;
+import com.learnado.backend.repository.AttendanceBucketRepository;
+import com.learnado.backend.repository.AttendancePresenceRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Samples how many people are in each lecture room once a second and how long each
+ * student stays. Samples go into a fixed-size buffer per room that is written out as one
+ * {@link AttendanceBucket} per {@code learnado.analytics.bucket-seconds}; presence is kept
+ * only for people currently in the room plus time not yet flushed, so memory per room is
+ * bounded by the bucket size and the number of concurrent participants. Rooms are only
+ * opened for lectures that are live, and participants are the authenticated emails the
+ * signaling handshake established. Presence that fails to flush is retried, up to
+ * {@code learnado.analytics.max-pending-presence} deltas; past that the oldest are dropped.
+ * Buckets get their id when they are queued, so a retried insert that already landed fails
+ * with a duplicate key and is ignored. At most {@code learnado.analytics.max-pending-buckets}
+ * wait; further ones are dropped. Both kinds of drop are counted.
+ */
+@Slf4j
+@Service
+public class AttendanceAnalyticsService {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MAX_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final AttendanceBucketRepository bucketRepository;
+    private final AttendancePresenceRepository presenceRepository;
+    private final AttendanceBuffer attendanceBuffer;
+    private final LiveLectureRegistry liveLectureRegistry;
+    private final int bucketSeconds;
+    private final int maxPendingPresence;
+    private final Counter droppedBuckets;
+    private final Counter droppedPresence;
+
+    private final Map<String, RoomAttendance> rooms = new ConcurrentHashMap<>();
+    // Written by the sampler, drained by the flusher
+    private final LinkedBlockingQueue<AttendanceBucket> pendingBuckets;
+    private final Queue<PresenceDelta> pendingPresence = new ConcurrentLinkedQueue<>();
+
+    public AttendanceAnalyticsService(
+            MongoTemplate mongoTemplate,
+            AttendanceBucketRepository bucketRepository,
+            AttendancePresenceRepository presenceRepository,
+            AttendanceBuffer attendanceBuffer,
+            LiveLectureRegistry liveLectureRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.analytics.bucket-seconds:60}") int bucketSeconds,
+            @Value("${learnado.analytics.max-pending-presence:50000}") int maxPendingPresence,
+            @Value("${learnado.analytics.max-pending-buckets:10000}") int maxPendingBuckets) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketRepository = bucketRepository;
+        this.presenceRepository = presenceRepository;
+        this.attendanceBuffer = attendanceBuffer;
+        this.liveLectureRegistry = liveLectureRegistry;
+        this.bucketSeconds = bucketSeconds;
+        this.maxPendingPresence = maxPendingPresence;
+        this.pendingBuckets = new LinkedBlockingQueue<>(maxPendingBuckets);
+        this.droppedBuckets = Counter.builder("attendance.buckets.dropped")
+                .description("Attendance buckets not stored because the queue was full")
+                .register(meterRegistry);
+        this.droppedPresence = Counter.builder("attendance.presence.dropped")
+                .description("Attendance presence deltas dropped after repeated flush failures")
+                .register(meterRegistry);
+    }
+
+    // email is the authenticated user; a lecture that isn't live never gets a room
+    public void onJoin(String lectureId, String email) {
+        if (!rooms.containsKey(lectureId) && !liveLectureRegistry.isLive(lectureId)) {
+            log.warn("Ignoring attendance for {} in unknown or ended lecture {}", email, lectureId);
+            return;
+        }
+        // A room the sampler just retired refuses the join, so retry against a fresh one
+        while (!rooms.computeIfAbsent(lectureId, RoomAttendance::new).join(email, System.currentTimeMillis())) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public void onLeave(String lectureId, String email) {
+        RoomAttendance room = rooms.get(lectureId);
+        if (room != null) {
+            room.leave(email, System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void sample() {
+        long nowMillis = System.currentTimeMillis();
+        long second = nowMillis / 1000;
+        Iterator<Map.Entry<String, RoomAttendance>> it = rooms.entrySet().iterator();
+        while (it.hasNext()) {
+            RoomAttendance room = it.next().getValue();
+            synchronized (room) {
+                AttendanceBucket full = room.sample(second);
+                if (full != null) {
+                    queue(full);
+                }
+                if (room.newPeak) {
+                    attendanceBuffer.recordPeak(room.lectureId, room.peak);
+                    room.newPeak = false;
+                }
+                // Everyone left: write out what we have and forget the room
+                if (room.current == 0) {
+                    AttendanceBucket partial = room.takeBucket();
+                    if (partial != null) {
+                        queue(partial);
+                    }
+                    pendingPresence.addAll(room.drainPresence(nowMillis));
+                    room.retired = true;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.analytics.flush-interval-ms:5000}")
+    public void flush() {
+        long nowMillis = System.currentTimeMillis();
+        rooms.values().forEach(room -> {
+            synchronized (room) {
+                pendingPresence.addAll(room.drainPresence(nowMillis));
+            }
+        });
+
+        List<AttendanceBucket> buckets = new ArrayList<>();
+        pendingBuckets.drainTo(buckets, MAX_BATCH);
+        List<PresenceDelta> presence = new ArrayList<>();
+        for (PresenceDelta delta; (delta = pendingPresence.peek()) != null && presence.size() < MAX_BATCH; pendingPresence.poll()) {
+            presence.add(delta);
+        }
+
+        if (!buckets.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceBucket.class)
+                        .insert(buckets)
+                        .execute();
+            } catch (BulkOperationException e) {
+                // Ids are fixed before insert, so a duplicate key means that bucket is already stored
+                List<AttendanceBucket> failed = e.getErrors().stream()
+                        .filter(error -> error.getCode() != DUPLICATE_KEY)
+                        .map(error -> buckets.get(error.getIndex()))
+                        .toList();
+                if (!failed.isEmpty()) {
+                    log.error("{} of {} attendance buckets could not be stored, will retry", failed.size(), buckets.size());
+                    failed.forEach(this::queue);
+                }
+            } catch (RuntimeException e) {
+                log.error("Attendance bucket flush failed: {}", e.getMessage());
+                buckets.forEach(this::queue);
+            }
+        }
+        if (!presence.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendancePresence.class);
+            for (PresenceDelta delta : presence) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(delta.lectureId + ":" + delta.email)), new Update()
+                        .setOnInsert("lectureId", delta.lectureId)
+                        .setOnInsert("studentEmail", delta.email)
+                        .inc("millisAttended", delta.millis)
+                        .min("firstJoinedAt", delta.firstJoinedAt)
+                        .max("lastSeenAt", delta.lastSeenAt));
+            }
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                // Unordered: everything but the failed upserts was applied, and increments
+                // aren't idempotent, so only the failed ones are retried
+                log.error("Attendance presence flush failed for {} of {} upserts", e.getErrors().size(), presence.size());
+                requeuePresence(e.getErrors().stream().map(error -> presence.get(error.getIndex())).toList());
+            } catch (RuntimeException e) {
+                log.error("Attendance presence flush failed: {}", e.getMessage());
+                requeuePresence(presence);
+            }
+        }
+    }
+
+    // Puts failed deltas back for the next flush, dropping the oldest past the cap
+    private void requeuePresence(List<PresenceDelta> failed) {
+        pendingPresence.addAll(failed);
+        int dropped = 0;
+        // size() walks the queue, so take it once
+        for (int excess = pendingPresence.size() - maxPendingPresence; dropped < excess && pendingPresence.poll() != null; ) {
+            dropped++;
+        }
+        if (dropped > 0) {
+            droppedPresence.increment(dropped);
+            log.warn("Dropped {} attendance presence deltas after repeated flush failures", dropped);
+        }
+    }
+
+    // Queues a bucket for the next flush, fixing its id first so a retried insert can't store it twice
+    private void queue(AttendanceBucket bucket) {
+        if (bucket.getId() == null) {
+            bucket.setId(new ObjectId().toHexString());
+        }
+        if (!pendingBuckets.offer(bucket)) {
+            droppedBuckets.increment();
+        }
+    }
+
+    public AttendanceReport getReport(String lectureId) {
+        List<AttendanceBucket> buckets = new ArrayList<>(bucketRepository.findByLectureIdOrderByBucketStartAsc(lectureId));
+        Map<String, Long> millisByStudent = new HashMap<>();
+        for (AttendancePresence presence : presenceRepository.findByLectureId(lectureId)) {
+            millisByStudent.merge(presence.getStudentEmail(), presence.getMillisAttended(), Long::sum);
+        }
+
+        // Add what hasn't reached Mongo yet
+        pendingBuckets.stream().filter(b -> b.getLectureId().equals(lectureId)).forEach(buckets::add);
+        pendingPresence.stream().filter(d -> d.lectureId.equals(lectureId))
+                .forEach(d -> millisByStudent.merge(d.email, d.millis, Long::sum));
+        RoomAttendance room = rooms.get(lectureId);
+        if (room != null) {
+            synchronized (room) {
+                AttendanceBucket current = room.peekBucket();
+                if (current != null) {
+                    buckets.add(current);
+                }
+                room.unflushedMillis(System.currentTimeMillis()).forEach((email, millis) -> millisByStudent.merge(email, millis, Long::sum));
+            }
+        }
+        buckets.sort((a, b) -> a.getBucketStart().compareTo(b.getBucketStart()));
+
+        int peak = 0;
+        long sum = 0;
+        long samples = 0;
+        List<AttendanceReport.TimelinePoint> timeline = new ArrayList<>(buckets.size());
+        for (AttendanceBucket bucket : buckets) {
+            int size = bucket.getSamples().size();
+            peak = Math.max(peak, bucket.getPeak());
+            sum += bucket.getSum();
+            samples += size;
+            timeline.add(new AttendanceReport.TimelinePoint(bucket.getBucketStart(), bucket.getPeak(),
+                    size == 0 ? 0 : (double) bucket.getSum() / size));
+        }
+
+        List<AttendanceReport.StudentAttendance> students = millisByStudent.entrySet().stream()
+                .map(e -> new AttendanceReport.StudentAttendance(e.getKey(), Math.round(e.getValue() / 6000.0) / 10.0))
+                .sorted((a, b) -> Double.compare(b.getMinutesAttended(), a.getMinutesAttended()))
+                .toList();
+
+        return AttendanceReport.builder()
+                .lectureId(lectureId)
+                .peak(peak)
+                .average(samples == 0 ? 0 : (double) sum / samples)
+                .timeline(timeline)
+                .students(students)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        long nowMillis = System.currentTimeMillis();
+        rooms.values().forEach(room -> {
+            synchronized (room) {
+                AttendanceBucket partial = room.takeBucket();
+                if (partial != null) {
+                    queue(partial);
+                }
+            }
+        });
+        rooms.clear();
+        flush();
+        log.debug("Attendance analytics flushed at {}", nowMillis);
+    }
+
+    private record PresenceDelta(String lectureId, String email, long millis, Instant firstJoinedAt, Instant lastSeenAt) {
+    }
+
+    // Per-room state; every method is called while holding the room's monitor
+    private class RoomAttendance {
+        final String lectureId;
+        final int[] samples = new int[bucketSeconds];
+        int filled;
+        long bucketStartSecond = -1;
+        int current;
+        int peak;
+        boolean newPeak;
+        boolean retired;
+
+        // People in the room now: email -> [open sessions, interval start millis, first join millis]
+        final Map<String, long[]> open = new HashMap<>();
+        // Time from finished intervals that hasn't been flushed yet
+        final Map<String, long[]> closed = new HashMap<>();
+
+        RoomAttendance(String lectureId) {
+            this.lectureId = lectureId;
+        }
+
+        synchronized boolean join(String email, long nowMillis) {
+            if (retired) return false;
+            current++;
+            long[] presence = open.computeIfAbsent(email, k -> new long[]{0, nowMillis, nowMillis});
+            presence[0]++;
+            return true;
+        }
+
+        synchronized void leave(String email, long nowMillis) {
+            current = Math.max(0, current - 1);
+            long[] presence = open.get(email);
+            if (presence == null) return;
+            if (--presence[0] <= 0) {
+                open.remove(email);
+                long[] total = closed.computeIfAbsent(email, k -> new long[]{0, presence[2], nowMillis});
+                total[0] += nowMillis - presence[1];
+                total[1] = Math.min(total[1], presence[2]);
+                total[2] = nowMillis;
+            }
+        }
+
+        // Record the current count for this second; returns a finished bucket when the buffer is full
+        AttendanceBucket sample(long second) {
+            AttendanceBucket finished = null;
+            if (bucketStartSecond >= 0 && second - bucketStartSecond >= bucketSeconds) {
+                finished = takeBucket();
+            }
+            if (bucketStartSecond < 0) {
+                bucketStartSecond = second;
+            }
+            int index = (int) (second - bucketStartSecond);
+            // Fill any seconds the scheduler skipped with the current count
+            while (filled <= index) {
+                samples[filled++] = current;
+            }
+            if (current > peak) {
+                peak = current;
+                newPeak = true;
+            }
+            return finished;
+        }
+
+        AttendanceBucket takeBucket() {
+            AttendanceBucket bucket = peekBucket();
+            filled = 0;
+            bucketStartSecond = -1;
+            return bucket;
+        }
+
+        AttendanceBucket peekBucket() {
+            if (filled == 0) {
+                return null;
+            }
+            int[] used = Arrays.copyOf(samples, filled);
+            return AttendanceBucket.builder()
+                    .lectureId(lectureId)
+                    .bucketStart(Instant.ofEpochSecond(bucketStartSecond))
+                    .samples(Arrays.stream(used).boxed().toList())
+                    .peak(Arrays.stream(used).max().orElse(0))
+                    .sum(Arrays.stream(used).asLongStream().sum())
+                    .build();
+        }
+
+        // Hand over finished time plus the time open intervals have accumulated so far
+        List<PresenceDelta> drainPresence(long nowMillis) {
+            List<PresenceDelta> deltas = new ArrayList<>(closed.size() + open.size());
+            closed.forEach((email, total) -> deltas.add(new PresenceDelta(lectureId, email, total[0],
+                    Instant.ofEpochMilli(total[1]), Instant.ofEpochMilli(total[2]))));
+            closed.clear();
+            open.forEach((email, presence) -> {
+                deltas.add(new PresenceDelta(lectureId, email, nowMillis - presence[1],
+                        Instant.ofEpochMilli(presence[2]), Instant.ofEpochMilli(nowMillis)));
+                presence[1] = nowMillis;
+            });
+            return deltas;
+        }
+
+        Map<String, Long> unflushedMillis(long nowMillis) {
+            Map<String, Long> millis = new HashMap<>();
+            closed.forEach((email, total) -> millis.merge(email, total[0], Long::sum));
+            open.forEach((email, presence) -> millis.merge(email, nowMillis - presence[1], Long::sum));
+            return millis;
+        }
+    }
+}
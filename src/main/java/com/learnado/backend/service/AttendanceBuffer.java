@@ -0,0 +1,213 @@
+package com.learnado.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.event.AttendeesRecordedEvent;
+import com.learnado.backend.model.LiveLecture;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer for lecture attendance. Joins are collected in memory and flushed
+ * every few hundred milliseconds as one unordered bulk write of {@code $addToSet} /
+ * {@code $max} updates, so a join never loads or rewrites the (possibly huge)
+ * joinedStudents array and concurrent joins can't overwrite each other.
+ *
+ * Durability is configurable: {@code learnado.attendance.write-concern} sets the write
+ * concern of the flushes and {@code learnado.attendance.write-through=true} skips the
+ * buffer and writes each join immediately. Written joins are published as an
+ * {@link AttendeesRecordedEvent}.
+ *
+ * A failed flush is put back for the next one, but only while fewer than
+ * {@code learnado.attendance.max-pending-joins} joins are waiting; while Mongo stays down
+ * the failed joins past that are dropped and counted in attendance.joins.dropped.
+ */
+@Slf4j
+@Service
+public class AttendanceBuffer {
+
+    private final MongoCollection<Document> collection;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean writeThrough;
+    private final int maxPendingJoins;
+    private final Counter droppedJoins;
+
+    // Readers (join requests) share the lock; the flusher takes it exclusively just to swap maps
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Map<String, PendingAttendance> pending = new ConcurrentHashMap<>();
+
+    public AttendanceBuffer(
+            MongoTemplate mongoTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.attendance.write-concern:W1}") String writeConcern,
+            @Value("${learnado.attendance.write-through:false}") boolean writeThrough,
+            @Value("${learnado.attendance.max-pending-joins:100000}") int maxPendingJoins) {
+        WriteConcern concern = WriteConcern.valueOf(writeConcern);
+        if (concern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + writeConcern);
+        }
+        this.collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(LiveLecture.class))
+                .withWriteConcern(concern);
+        this.eventPublisher = eventPublisher;
+        this.writeThrough = writeThrough;
+        this.maxPendingJoins = maxPendingJoins;
+        this.droppedJoins = Counter.builder("attendance.joins.dropped")
+                .description("Joins dropped after failed flushes because too many were waiting")
+                .register(meterRegistry);
+    }
+
+    // Record that a student joined and how many people were in the room at the time
+    public void recordJoin(String lectureId, String studentEmail, int concurrentCount) {
+        if (writeThrough) {
+            collection.updateOne(Filters.eq("_id", objectId(lectureId)), Updates.combine(
+                    Updates.addToSet("joinedStudents", studentEmail),
+                    Updates.max("peakAttendance", concurrentCount)));
+            eventPublisher.publishEvent(new AttendeesRecordedEvent(Map.of(lectureId, List.of(studentEmail))));
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            PendingAttendance attendance = pending.computeIfAbsent(lectureId, k -> new PendingAttendance());
+            attendance.students.add(studentEmail);
+            attendance.peak.accumulateAndGet(concurrentCount, Math::max);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Record a new concurrency peak without a join (from per-second room sampling)
+    public void recordPeak(String lectureId, int concurrentCount) {
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(lectureId, k -> new PendingAttendance())
+                    .peak.accumulateAndGet(concurrentCount, Math::max);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.attendance.flush-interval-ms:250}")
+    public void flush() {
+        Map<String, PendingAttendance> batch;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+        batch.forEach((lectureId, attendance) -> {
+            List<Bson> changes = new ArrayList<>(2);
+            if (!attendance.students.isEmpty()) {
+                changes.add(Updates.addEachToSet("joinedStudents", new ArrayList<>(attendance.students)));
+            }
+            if (attendance.peak.get() > 0) {
+                changes.add(Updates.max("peakAttendance", attendance.peak.get()));
+            }
+            if (!changes.isEmpty()) {
+                updates.add(new UpdateOneModel<>(Filters.eq("_id", objectId(lectureId)), Updates.combine(changes)));
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        try {
+            collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (RuntimeException e) {
+            // $addToSet and $max are idempotent, so putting the batch back and retrying is safe
+            log.error("Attendance flush of {} lectures failed, will retry: {}", updates.size(), e.getMessage());
+            requeue(batch);
+            return;
+        }
+
+        Map<String, List<String>> studentsByLecture = new HashMap<>();
+        batch.forEach((lectureId, attendance) -> {
+            if (!attendance.students.isEmpty()) {
+                studentsByLecture.put(lectureId, new ArrayList<>(attendance.students));
+            }
+        });
+        if (!studentsByLecture.isEmpty()) {
+            eventPublisher.publishEvent(new AttendeesRecordedEvent(studentsByLecture));
+        }
+    }
+
+    // Puts a failed batch back, up to the cap; peaks are a number per lecture and always kept
+    private void requeue(Map<String, PendingAttendance> batch) {
+        int dropped = 0;
+        swapLock.readLock().lock();
+        try {
+            int room = maxPendingJoins;
+            for (PendingAttendance attendance : pending.values()) {
+                room -= attendance.students.size();
+            }
+            for (Map.Entry<String, PendingAttendance> entry : batch.entrySet()) {
+                PendingAttendance attendance = entry.getValue();
+                PendingAttendance target = pending.computeIfAbsent(entry.getKey(), k -> new PendingAttendance());
+                for (String student : attendance.students) {
+                    if (room > 0) {
+                        target.students.add(student);
+                        room--;
+                    } else {
+                        dropped++;
+                    }
+                }
+                target.peak.accumulateAndGet(attendance.peak.get(), Math::max);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        if (dropped > 0) {
+            droppedJoins.increment(dropped);
+            log.error("Dropped {} attendance joins: {} are already waiting for MongoDB", dropped, maxPendingJoins);
+        }
+    }
+
+    // Lecture ids are ObjectIds in Mongo, but fall back to the raw string for anything else
+    private Object objectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static class PendingAttendance {
+        final Set<String> students = ConcurrentHashMap.newKeySet();
+        final AtomicInteger peak = new AtomicInteger();
+    }
+}
@@ -0,0 +1,257 @@
+package com.learnado.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.ChatMessage;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.repository.ChatMessageRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lecture chat: the last {@code learnado.chat.ring-size} messages of each live room are kept
+ * in a fixed-size ring and sent to people who join late as one "chat-history" frame. Every
+ * message is also queued and inserted into Mongo in batches by a background flush, so sending
+ * a chat message never waits on the database. Older and finished lectures read from Mongo.
+ * A ring nobody has written to or read for {@code learnado.chat.ring-idle-minutes} is dropped.
+ * Messages the bulk insert rejects (other than duplicates) are retried up to
+ * {@code learnado.chat.max-attempts} times before they are counted as dropped.
+ */
+@Slf4j
+@Service
+public class ChatHistoryService {
+
+    private static final int MAX_BATCH = 500;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int ringSize;
+    private final long ringIdleMillis;
+    private final int maxAttempts;
+
+    private final Map<String, ChatRing> rings = new ConcurrentHashMap<>();
+    private final BlockingQueue<ChatMessage> pending;
+    private final Counter droppedCounter;
+    // Failed insert attempts by message id, for messages that are being retried
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    // Keeps the scheduled flush and the shutdown flush apart. Not a monitor, so a virtual
+    // thread waiting on the bulk insert doesn't pin its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ChatHistoryService(
+            MongoTemplate mongoTemplate,
+            ChatMessageRepository chatMessageRepository,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.chat.ring-size:50}") int ringSize,
+            @Value("${learnado.chat.queue-capacity:20000}") int queueCapacity,
+            @Value("${learnado.chat.ring-idle-minutes:30}") long ringIdleMinutes,
+            @Value("${learnado.chat.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatMessageRepository = chatMessageRepository;
+        this.ringSize = ringSize;
+        this.ringIdleMillis = ringIdleMinutes * 60_000;
+        this.maxAttempts = maxAttempts;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("chat.persist.queue.depth", pending, BlockingQueue::size)
+                .description("Chat messages waiting to be inserted")
+                .register(meterRegistry);
+        Gauge.builder("chat.rings", rings, Map::size)
+                .description("Rooms with recent chat kept in memory")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("chat.persist.dropped")
+                .description("Chat messages not persisted because the queue was full or inserts kept failing")
+                .register(meterRegistry);
+    }
+
+    // Called on the signaling thread: ring update plus a non-blocking enqueue
+    public void append(ChatMessage message) {
+        message.setId(new ObjectId().toHexString());
+        // compute, so the idle sweep can't drop the ring between lookup and add
+        rings.compute(message.getLectureId(), (k, ring) -> {
+            ChatRing target = ring != null ? ring : new ChatRing(ringSize);
+            target.add(message);
+            return target;
+        });
+        if (!pending.offer(message)) {
+            droppedCounter.increment();
+        }
+    }
+
+    // The "chat-history" frame for a joiner, or null if the room has no recent chat
+    public String historyFrame(String lectureId) {
+        ChatRing ring = rings.get(lectureId);
+        return ring == null ? null : ring.frame();
+    }
+
+    public Page<ChatMessage> getHistory(String lectureId, int page, int size) {
+        return chatMessageRepository.findByLectureIdOrderByTimestampAsc(lectureId, PageRequest.of(page, size));
+    }
+
+    // Rings are only for live rooms; once a lecture is over its chat is read from Mongo
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        if (event.deleted() || event.lecture().getStatus() != LectureStatus.LIVE) {
+            rings.remove(event.lecture().getId());
+        }
+    }
+
+    // Rooms that went quiet (or whose end event was missed) don't keep their ring forever
+    @Scheduled(fixedDelayString = "${learnado.chat.ring-sweep-interval-ms:60000}")
+    public void evictIdleRings() {
+        long cutoff = System.currentTimeMillis() - ringIdleMillis;
+        for (String lectureId : rings.keySet()) {
+            rings.computeIfPresent(lectureId, (k, ring) -> ring.lastUsed() < cutoff ? null : ring);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.chat.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<ChatMessage> batch = new ArrayList<>(MAX_BATCH);
+            List<ChatMessage> retries = new ArrayList<>();
+            while (pending.drainTo(batch, MAX_BATCH) > 0) {
+                if (!insert(batch, retries)) {
+                    break; // Mongo is unhappy; the batch is back on the queue for the next run
+                }
+                batch.clear();
+            }
+            // Rejected messages wait for the next run rather than being retried straight away
+            retries.forEach(this::retry);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean insert(List<ChatMessage> batch, List<ChatMessage> retries) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessage.class)
+                    .insert(batch)
+                    .execute();
+            forgetAttempts(batch);
+            return true;
+        } catch (BulkOperationException e) {
+            // Ids are fixed before insert, so a duplicate key means that message is already stored
+            List<ChatMessage> failed = e.getErrors().stream()
+                    .filter(error -> error.getCode() != DUPLICATE_KEY)
+                    .map(error -> batch.get(error.getIndex()))
+                    .toList();
+            forgetAttempts(batch);
+            if (!failed.isEmpty()) {
+                log.error("{} of {} chat messages could not be stored, will retry", failed.size(), batch.size());
+                retries.addAll(failed);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Chat flush of {} messages failed, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach(message -> {
+                if (!pending.offer(message)) {
+                    droppedCounter.increment();
+                }
+            });
+            return false;
+        }
+    }
+
+    // Back on the queue unless the message has already failed maxAttempts times
+    private void retry(ChatMessage message) {
+        int attempt = attempts.merge(message.getId(), 1, Integer::sum);
+        if (attempt >= maxAttempts || !pending.offer(message)) {
+            attempts.remove(message.getId());
+            droppedCounter.increment();
+            log.warn("Dropping chat message {} for lecture {} after {} failed inserts",
+                    message.getId(), message.getLectureId(), attempt);
+        }
+    }
+
+    private void forgetAttempts(List<ChatMessage> batch) {
+        if (!attempts.isEmpty()) {
+            batch.forEach(message -> attempts.remove(message.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} chat messages were not stored at shutdown", pending.size());
+        }
+    }
+
+    // Fixed-size ring of the newest messages, with the serialized frame cached until the next add
+    private class ChatRing {
+        private final ChatMessage[] messages;
+        private int next;
+        private int count;
+        private String frame;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        ChatRing(int capacity) {
+            this.messages = new ChatMessage[capacity];
+        }
+
+        synchronized void add(ChatMessage message) {
+            messages[next] = message;
+            next = (next + 1) % messages.length;
+            count = Math.min(count + 1, messages.length);
+            frame = null;
+            lastUsed = System.currentTimeMillis();
+        }
+
+        long lastUsed() {
+            return lastUsed;
+        }
+
+        synchronized String frame() {
+            lastUsed = System.currentTimeMillis();
+            if (count == 0) {
+                return null;
+            }
+            if (frame == null) {
+                ObjectNode root = objectMapper.createObjectNode();
+                root.put("type", "chat-history");
+                ArrayNode array = root.putArray("messages");
+                int start = (next - count + messages.length) % messages.length;
+                for (int i = 0; i < count; i++) {
+                    ChatMessage message = messages[(start + i) % messages.length];
+                    array.addObject()
+                            .put("fromEmail", message.getFromEmail())
+                            .put("fromName", message.getFromName())
+                            .put("fromRole", message.getFromRole())
+                            .put("message", message.getMessage())
+                            .put("timestamp", message.getTimestamp());
+                }
+                frame = root.toString();
+            }
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.learnado.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.BatchAvailability;
+import com.learnado.backend.dto.CourseOverview;
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.exception.ServiceUnavailableException;
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Course;
+import com.learnado.backend.model.LiveLecture;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds everything the course detail page needs in one call. The course, its batches
+ * (which carry their seat counters) and its upcoming lectures are loaded in parallel,
+ * so the page costs roughly the slowest query instead of the sum of all of them.
+ * Sections that miss the deadline are left out and reported in {@code missing}. Each query
+ * carries the time left to the deadline as maxTimeMS, so Mongo stops work nobody will read.
+ * When the pool's queue is full, or the course itself misses the deadline, the request fails
+ * fast with 503 and Retry-After instead of piling more work onto a struggling database.
+ */
+@Slf4j
+@Service
+public class CourseOverviewService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    public CourseOverviewService(
+            MongoTemplate mongoTemplate,
+            @Value("${learnado.overview.threads:16}") int threads,
+            @Value("${learnado.overview.queue-capacity:500}") int queueCapacity,
+            @Value("${learnado.overview.timeout-ms:800}") long timeoutMillis,
+            @Value("${learnado.overview.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        // A full queue means the database is already behind; refuse rather than run on the request thread
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("course-overview-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Empty if the course doesn't exist
+    public Optional<CourseOverview> getOverview(String courseId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        CompletableFuture<Optional<Course>> courseFuture = null;
+        CompletableFuture<List<LiveLectureSummary>> lecturesFuture = null;
+        CompletableFuture<List<Batch>> batchesFuture;
+        try {
+            courseFuture = CompletableFuture.supplyAsync(() -> Optional.ofNullable(mongoTemplate.findOne(
+                    withDeadline(Query.query(Criteria.where("_id").is(courseId)), deadline), Course.class)), executor);
+            lecturesFuture = CompletableFuture.supplyAsync(() -> mongoTemplate.query(LiveLecture.class)
+                    .as(LiveLectureSummary.class)
+                    .matching(withDeadline(Query.query(Criteria.where("courseId").is(courseId)
+                                    .and("scheduledAt").gt(LocalDateTime.now()))
+                            .with(Sort.by("scheduledAt")).limit(20), deadline))
+                    .all(), executor);
+            batchesFuture = CompletableFuture.supplyAsync(() -> mongoTemplate.find(
+                    withDeadline(Query.query(Criteria.where("courseId").is(courseId)), deadline), Batch.class), executor);
+        } catch (RejectedExecutionException e) {
+            cancelAll(courseFuture, lecturesFuture);
+            log.warn("Course overview refused: {} queries already waiting", executor.getQueue().size());
+            throw new ServiceUnavailableException("Server is busy, please retry shortly", retryAfterSeconds);
+        }
+
+        List<String> missing = new ArrayList<>();
+
+        // The course itself is mandatory: without it there's nothing to show
+        Optional<Course> course = await(courseFuture, deadline, "course", missing);
+        if (course == null) {
+            cancelAll(lecturesFuture, batchesFuture);
+            throw new ServiceUnavailableException("Course could not be loaded in time, please retry", retryAfterSeconds);
+        }
+        if (course.isEmpty()) {
+            cancelAll(lecturesFuture, batchesFuture);
+            return Optional.empty();
+        }
+
+        List<LiveLectureSummary> lectures = await(lecturesFuture, deadline, "upcomingLectures", missing);
+        List<Batch> batches = await(batchesFuture, deadline, "batches", missing);
+
+        List<BatchAvailability> availability = null;
+        if (batches != null) {
+            availability = new ArrayList<>(batches.size());
+            for (Batch batch : batches) {
+                // Seat counters live on the batch itself (see SeatReservationService)
+                Long enrolled = batch.getEnrolledCount() == null ? null : batch.getEnrolledCount().longValue();
+                Long available = enrolled == null || batch.getMaxStudents() == null
+                        ? null
+                        : Math.max(0, batch.getMaxStudents() - enrolled);
+                availability.add(new BatchAvailability(batch, enrolled, available));
+            }
+        }
+
+        return Optional.of(CourseOverview.builder()
+                .course(course.get())
+                .batches(availability)
+                .upcomingLectures(lectures)
+                .partial(!missing.isEmpty())
+                .missing(missing)
+                .build());
+    }
+
+    // Wait until the shared deadline; null (and an entry in missing) if it failed or ran out of time
+    private <T> T await(CompletableFuture<T> future, long deadline, String section, List<String> missing) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Course overview section '{}' missed the {} ms deadline", section, timeoutMillis);
+        } catch (ExecutionException e) {
+            log.warn("Course overview section '{}' failed: {}", section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        missing.add(section);
+        return null;
+    }
+
+    // The time left to the deadline becomes the query's maxTimeMS
+    private static Query withDeadline(Query query, long deadline) {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        return query.maxTime(Duration.ofMillis(Math.max(1, remaining)));
+    }
+
+    private void cancelAll(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,358 @@
+package com.learnado.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.CourseSummary;
+import com.learnado.backend.dto.TrendingCourse;
+import com.learnado.backend.event.EnrollmentCreatedEvent;
+import com.learnado.backend.model.CourseTrendViewers;
+import com.learnado.backend.model.CourseTrendWindow;
+import com.learnado.backend.repository.CourseRepository;
+import com.learnado.backend.util.CountMinSketch;
+import com.learnado.backend.util.HyperLogLog;
+import com.learnado.backend.util.TopK;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Course popularity from sketches instead of scans. Views (course overview reads) and
+ * enrollments land in fixed-length windows, each holding Count-Min sketches of views and
+ * enrollments, a HyperLogLog of distinct viewers per course and the window's top-K courses
+ * by score. /trending merges the windows it covers in memory: candidates are the union of
+ * the windows' top-K, counts are summed sketch estimates and viewers a HyperLogLog union.
+ * Changed windows are saved every persist interval and reloaded on startup: the window's
+ * sketches as one fixed-size document, and each course's viewer HyperLogLog as a document
+ * of its own, so no document grows with the number of courses. Nothing is saved until the
+ * stored windows have been loaded, or the saved counts would be overwritten. Like the
+ * timeline cache, this assumes one backend instance.
+ */
+@Slf4j
+@Service
+public class CourseTrendingService {
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseRepository courseRepository;
+    private final boolean enabled;
+    private final Duration windowLength;
+    private final int windows;
+    private final int topK;
+    private final int hllPrecision;
+    private final int cmsDepth;
+    private final int cmsWidth;
+    private final long enrollWeight;
+
+    private final NavigableMap<Instant, Window> byStart = new ConcurrentSkipListMap<>();
+    private final Map<String, String> titles = new ConcurrentHashMap<>();
+    private final Object loadLock = new Object();
+    private final ReentrantLock saveLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public CourseTrendingService(
+            MongoTemplate mongoTemplate,
+            CourseRepository courseRepository,
+            @Value("${learnado.trending.enabled:true}") boolean enabled,
+            @Value("${learnado.trending.window-minutes:60}") long windowMinutes,
+            @Value("${learnado.trending.windows:24}") int windows,
+            @Value("${learnado.trending.top-k:50}") int topK,
+            @Value("${learnado.trending.hll-precision:11}") int hllPrecision,
+            @Value("${learnado.trending.cms-depth:4}") int cmsDepth,
+            @Value("${learnado.trending.cms-width:2048}") int cmsWidth,
+            @Value("${learnado.trending.enroll-weight:10}") long enrollWeight) {
+        this.mongoTemplate = mongoTemplate;
+        this.courseRepository = courseRepository;
+        this.enabled = enabled;
+        this.windowLength = Duration.ofMinutes(windowMinutes);
+        this.windows = windows;
+        this.topK = topK;
+        this.hllPrecision = hllPrecision;
+        this.cmsDepth = cmsDepth;
+        this.cmsWidth = cmsWidth;
+        this.enrollWeight = enrollWeight;
+    }
+
+    public void recordView(String courseId, String title, String viewerId) {
+        if (!enabled) {
+            return;
+        }
+        if (title != null) {
+            titles.put(courseId, title);
+        }
+        Window window = current();
+        synchronized (window) {
+            long views = window.views.add(courseId, 1);
+            window.viewers.computeIfAbsent(courseId, id -> new HyperLogLog(hllPrecision)).offer(viewerId);
+            window.changedViewers.add(courseId);
+            window.candidates.offer(courseId, views + enrollWeight * window.enrollments.estimate(courseId));
+            window.dirty = true;
+        }
+    }
+
+    @EventListener
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        String courseId = event.batch().getCourseId();
+        if (!enabled || courseId == null) {
+            return;
+        }
+        Window window = current();
+        synchronized (window) {
+            long enrollments = window.enrollments.add(courseId, 1);
+            window.candidates.offer(courseId, window.views.estimate(courseId) + enrollWeight * enrollments);
+            window.dirty = true;
+        }
+    }
+
+    // Most popular courses over the last `hours` (capped at the retained windows), highest score first
+    public List<TrendingCourse> getTrending(int limit, int hours) {
+        Instant since = windowStart(Instant.now().minus(Duration.ofHours(hours)));
+        Instant oldestKept = windowStart(Instant.now()).minus(windowLength.multipliedBy(windows - 1L));
+        Iterable<Window> covered = byStart.tailMap(since.isBefore(oldestKept) ? oldestKept : since, true).values();
+
+        Set<String> candidates = new LinkedHashSet<>();
+        covered.forEach(window -> {
+            synchronized (window) {
+                candidates.addAll(window.candidates.keys());
+            }
+        });
+
+        List<TrendingCourse> rows = new ArrayList<>(candidates.size());
+        for (String courseId : candidates) {
+            long views = 0;
+            long enrollments = 0;
+            HyperLogLog viewers = new HyperLogLog(hllPrecision);
+            for (Window window : covered) {
+                synchronized (window) {
+                    views += window.views.estimate(courseId);
+                    enrollments += window.enrollments.estimate(courseId);
+                    HyperLogLog windowViewers = window.viewers.get(courseId);
+                    if (windowViewers != null) {
+                        viewers.merge(windowViewers);
+                    }
+                }
+            }
+            rows.add(TrendingCourse.builder()
+                    .courseId(courseId)
+                    .views(views)
+                    .uniqueViewers(Math.min(viewers.cardinality(), views))
+                    .enrollments(enrollments)
+                    .score(views + enrollWeight * enrollments)
+                    .build());
+        }
+        rows.sort(Comparator.comparingLong(TrendingCourse::getScore).reversed());
+        List<TrendingCourse> top = rows.subList(0, Math.min(limit, rows.size()));
+        fillTitles(top);
+        return top;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    // Reads everything before touching memory, so a failed attempt can simply be repeated. The
+    // reads hold no lock; only applying them does, and only the first successful load applies
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        Instant oldestKept = windowStart(Instant.now()).minus(windowLength.multipliedBy(windows - 1L));
+        List<CourseTrendWindow> stored;
+        List<CourseTrendViewers> storedViewers;
+        try {
+            Query recent = Query.query(Criteria.where("windowStart").gte(oldestKept));
+            stored = mongoTemplate.find(recent, CourseTrendWindow.class);
+            storedViewers = mongoTemplate.find(recent, CourseTrendViewers.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not load trending windows, will retry: {}", e.getMessage());
+            return;
+        }
+        synchronized (loadLock) {
+            if (!loaded) {
+                apply(stored, storedViewers);
+                loaded = true;
+                log.info("Loaded {} trending windows", stored.size());
+            }
+        }
+    }
+
+    private void apply(List<CourseTrendWindow> stored, List<CourseTrendViewers> storedViewers) {
+        for (CourseTrendWindow doc : stored) {
+            Window loadedWindow;
+            try {
+                loadedWindow = fromDocument(doc);
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping trending window {} saved with other sketch sizes", doc.getId());
+                continue;
+            }
+            Window window = byStart.computeIfAbsent(doc.getWindowStart(), Window::new);
+            synchronized (window) {
+                // Events recorded since startup are added on top of what was saved
+                window.views.merge(loadedWindow.views);
+                window.enrollments.merge(loadedWindow.enrollments);
+                for (String courseId : doc.getCandidates()) {
+                    window.candidates.offer(courseId,
+                            window.views.estimate(courseId) + enrollWeight * window.enrollments.estimate(courseId));
+                }
+            }
+        }
+        for (CourseTrendViewers doc : storedViewers) {
+            if (doc.getRegisters() == null || doc.getRegisters().length != 1 << hllPrecision) {
+                continue; // Saved with another precision
+            }
+            HyperLogLog hll = HyperLogLog.fromBytes(doc.getRegisters());
+            Window window = byStart.computeIfAbsent(doc.getWindowStart(), Window::new);
+            synchronized (window) {
+                window.viewers.merge(doc.getCourseId(), hll, (mine, theirs) -> { mine.merge(theirs); return mine; });
+            }
+        }
+    }
+
+    // Nothing to save at startup; loadOnStartup does the first load
+    @Scheduled(initialDelayString = "${learnado.trending.persist-interval-ms:300000}",
+            fixedDelayString = "${learnado.trending.persist-interval-ms:300000}")
+    public void persist() {
+        if (!enabled) {
+            return;
+        }
+        Instant oldestKept = windowStart(Instant.now()).minus(windowLength.multipliedBy(windows - 1L));
+        byStart.headMap(oldestKept, false).clear();
+        load();
+        save();
+    }
+
+    // No load retry on shutdown: with Mongo unreachable it would hold up context close
+    @PreDestroy
+    public void persistOnShutdown() {
+        if (enabled) {
+            save();
+        }
+    }
+
+    // Saves changed windows once the stored ones are loaded; before that, saving would overwrite
+    // the stored counts with partial ones. A ReentrantLock rather than a monitor, since the
+    // saves block on Mongo and must not pin a virtual thread's carrier
+    private void save() {
+        if (!loaded) {
+            return;
+        }
+        saveLock.lock();
+        try {
+            saveWindows();
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    private void saveWindows() {
+        for (Window window : byStart.values()) {
+            CourseTrendWindow doc;
+            Map<String, byte[]> viewers = new LinkedHashMap<>();
+            synchronized (window) {
+                if (!window.dirty) {
+                    continue;
+                }
+                doc = toDocument(window);
+                window.changedViewers.forEach(courseId -> viewers.put(courseId, window.viewers.get(courseId).toBytes()));
+                window.changedViewers.clear();
+                window.dirty = false;
+            }
+            try {
+                mongoTemplate.save(doc);
+                if (!viewers.isEmpty()) {
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseTrendViewers.class);
+                    viewers.forEach((courseId, registers) -> bulk.upsert(
+                            Query.query(Criteria.where("_id").is(window.start + "/" + courseId)),
+                            new Update().set("windowStart", window.start).set("courseId", courseId).set("registers", registers)));
+                    bulk.execute();
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not save trending window {}: {}", window.start, e.getMessage());
+                synchronized (window) {
+                    window.dirty = true;
+                    window.changedViewers.addAll(viewers.keySet());
+                }
+            }
+        }
+    }
+
+    private Window current() {
+        return byStart.computeIfAbsent(windowStart(Instant.now()), Window::new);
+    }
+
+    private Instant windowStart(Instant at) {
+        long length = windowLength.toMillis();
+        return Instant.ofEpochMilli(at.toEpochMilli() / length * length);
+    }
+
+    // Titles seen with views are cached; only courses that were enrolled in but never viewed hit Mongo
+    private void fillTitles(List<TrendingCourse> rows) {
+        List<String> missing = rows.stream().map(TrendingCourse::getCourseId).filter(id -> !titles.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            for (CourseSummary course : courseRepository.findSummariesByIdIn(missing)) {
+                titles.put(course.getId(), course.getTitle());
+            }
+        }
+        rows.forEach(row -> row.setTitle(titles.get(row.getCourseId())));
+    }
+
+    private CourseTrendWindow toDocument(Window window) {
+        return CourseTrendWindow.builder()
+                .id(window.start.toString())
+                .windowStart(window.start)
+                .views(window.views.toBytes())
+                .enrollments(window.enrollments.toBytes())
+                .candidates(window.candidates.keys())
+                .build();
+    }
+
+    private Window fromDocument(CourseTrendWindow doc) {
+        Window window = new Window(doc.getWindowStart());
+        window.views.merge(CountMinSketch.fromBytes(doc.getViews()));
+        window.enrollments.merge(CountMinSketch.fromBytes(doc.getEnrollments()));
+        return window;
+    }
+
+    // One window's sketches; guarded by its own monitor
+    private class Window {
+        final Instant start;
+        final CountMinSketch views = new CountMinSketch(cmsDepth, cmsWidth);
+        final CountMinSketch enrollments = new CountMinSketch(cmsDepth, cmsWidth);
+        final Map<String, HyperLogLog> viewers = new LinkedHashMap<>();
+        final Set<String> changedViewers = new HashSet<>(); // Courses whose viewers aren't saved yet
+        final TopK candidates = new TopK(topK);
+        boolean dirty;
+
+        Window(Instant start) {
+            this.start = start;
+        }
+    }
+}
@@ -1,24 +1,43 @@
 package com.learnado.backend.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.learnado.backend.service.storage.StorageService;
+import com.learnado.backend.service.storage.StoredFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.util.UUID;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class FileService {
 
-    // You get these 3 values from your Cloudinary Dashboard
-    private final Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
-            "cloud_name", "YOUR_CLOUD_NAME",
-            "api_key", "YOUR_API_KEY",
-            "api_secret", "YOUR_API_SECRET"
-    ));
+    private final StorageService storageService;
+
+    // Streams the upload to the configured storage backend (multipart parts are already on disk)
+    public StoredFile uploadFile(MultipartFile file, String folder) throws IOException {
+        String key = folder + "/" + UUID.randomUUID() + extensionOf(file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            return storageService.store(key, in, file.getSize(), file.getContentType());
+        }
+    }
+
+    // Best effort removal of a file that is no longer referenced
+    public void deleteQuietly(String key) {
+        try {
+            storageService.delete(key);
+        } catch (IOException e) {
+            log.warn("Could not delete stored file {}: {}", key, e.getMessage());
+        }
+    }
 
-    public String uploadFile(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-        return uploadResult.get("url").toString(); // This is the link to your file
+    public static String extensionOf(String fileName) {
+        String ext = StringUtils.getFilenameExtension(fileName);
+        return ext == null || !ext.matches("[A-Za-z0-9]{1,10}") ? "" : "." + ext.toLowerCase();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,318 @@
+package com.learnado.backend.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.event.AttendeesRecordedEvent;
+import com.learnado.backend.event.EnrollmentCreatedEvent;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Course;
+import com.learnado.backend.model.InstructorStats;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.model.Role;
+import com.learnado.backend.model.User;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-instructor dashboard counters in instructor_stats. Writes (courses, batches, lecture
+ * status changes, enrollments, new attendees) apply $inc/$set to the instructor's document
+ * on the async executor; a periodic job recomputes every document from the source
+ * collections, which repairs anything a crash lost. Every write bumps the document's
+ * version and the recount is saved with a compare-and-set on the version it read, so an
+ * $inc landing during a recount is never overwritten; the recount is retried instead.
+ *
+ * Attendees come from the lectures' joinedStudents, which only the authenticated REST join
+ * writes. instructor_attendees holds one document per instructor and student with the
+ * lectures the student joined: an upsert that inserts is a new unique attendee, and one
+ * whose lecture is already listed is a join that was counted before.
+ */
+@Slf4j
+@Service
+public class InstructorStatsService {
+
+    private static final String ATTENDEES = "instructor_attendees";
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public InstructorStatsService(
+            MongoTemplate mongoTemplate,
+            @Value("${learnado.instructor-stats.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    // Counters are only trusted once reconciled; until then the document is rebuilt on read
+    public InstructorStats getStats(String instructorEmail) {
+        InstructorStats stats = mongoTemplate.findById(instructorEmail, InstructorStats.class);
+        if (stats == null || stats.getReconciledAt() == null) {
+            stats = reconcile(instructorEmail);
+        }
+        return stats;
+    }
+
+    @Async
+    public void courseCreated(Course course) {
+        apply(course.getInstructorEmail(), new Update().inc("courses", 1));
+    }
+
+    @Async
+    public void batchCreated(Batch batch) {
+        apply(batch.getInstructorEmail(), new Update()
+                .inc("batches", 1)
+                .set("batchSeats." + batch.getId(), seatsOf(batch)));
+    }
+
+    @Async
+    @EventListener
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        Batch batch = event.batch();
+        String prefix = "batchSeats." + batch.getId();
+        // enrolledCount comes from the atomic seat counter; $max keeps a late event from lowering it
+        apply(batch.getInstructorEmail(), new Update()
+                .set(prefix + ".batchName", batch.getBatchName())
+                .set(prefix + ".courseId", batch.getCourseId())
+                .set(prefix + ".maxStudents", batch.getMaxStudents())
+                .max(prefix + ".enrolled", batch.getEnrolledCount() == null ? 0 : batch.getEnrolledCount()));
+    }
+
+    @Async
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLecture lecture = event.lecture();
+        Update update = new Update();
+        if (event.deleted()) {
+            update.inc("lecturesByStatus." + lecture.getStatus(), -1);
+        } else if (event.previousStatus() == null) {
+            update.inc("lecturesByStatus." + lecture.getStatus(), 1);
+        } else if (event.previousStatus() != lecture.getStatus()) {
+            update.inc("lecturesByStatus." + event.previousStatus(), -1)
+                    .inc("lecturesByStatus." + lecture.getStatus(), 1);
+        } else {
+            return;
+        }
+        apply(lecture.getInstructorEmail(), update);
+    }
+
+    @Async
+    @EventListener
+    public void onAttendeesRecorded(AttendeesRecordedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Query lectures = Query.query(Criteria.where("_id").in(event.studentsByLecture().keySet()));
+        lectures.fields().include("instructorEmail");
+        Map<String, String> instructorByLecture = new HashMap<>();
+        mongoTemplate.find(lectures, LiveLecture.class)
+                .forEach(lecture -> instructorByLecture.put(lecture.getId(), lecture.getInstructorEmail()));
+
+        List<String> instructorOfUpsert = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ATTENDEES);
+        event.studentsByLecture().forEach((lectureId, students) -> {
+            String instructor = instructorByLecture.get(lectureId);
+            if (instructor == null) {
+                return;
+            }
+            for (String student : students) {
+                // Only matches while the lecture isn't listed yet; otherwise the upsert hits the duplicate key
+                bulk.upsert(Query.query(Criteria.where("_id").is(attendeeId(instructor, student)).and("lectures").ne(lectureId)),
+                        attendeeInsert(instructor, student).push("lectures", lectureId));
+                instructorOfUpsert.add(instructor);
+            }
+        });
+        if (instructorOfUpsert.isEmpty()) {
+            return;
+        }
+
+        BulkWriteResult result;
+        boolean[] counted = new boolean[instructorOfUpsert.size()];
+        Arrays.fill(counted, true);
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // Duplicate key: the student already joined this lecture. Anything else is left to the reconcile
+            for (BulkWriteError error : e.getErrors()) {
+                counted[error.getIndex()] = false;
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    log.warn("Could not record attendee: {}", error.getMessage());
+                }
+            }
+            result = e.getResult();
+        }
+
+        // Every applied write is a new student/lecture pair; an insert is also a new unique student
+        Map<String, Long> newPairs = new HashMap<>();
+        Map<String, Long> newUnique = new HashMap<>();
+        for (int i = 0; i < counted.length; i++) {
+            if (counted[i]) {
+                newPairs.merge(instructorOfUpsert.get(i), 1L, Long::sum);
+            }
+        }
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            newUnique.merge(instructorOfUpsert.get(upsert.getIndex()), 1L, Long::sum);
+        }
+        newPairs.forEach((instructor, pairs) -> apply(instructor, new Update()
+                .inc("totalAttendees", pairs)
+                .inc("uniqueAttendees", newUnique.getOrDefault(instructor, 0L))));
+    }
+
+    @Scheduled(
+            initialDelayString = "${learnado.instructor-stats.reconcile-ms:900000}",
+            fixedDelayString = "${learnado.instructor-stats.reconcile-ms:900000}")
+    public void reconcileAll() {
+        if (!enabled) {
+            return;
+        }
+        List<String> instructors = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("role").is(Role.INSTRUCTOR)), "email", User.class, String.class);
+        int done = 0;
+        for (String instructor : instructors) {
+            try {
+                reconcile(instructor);
+                done++;
+            } catch (RuntimeException e) {
+                log.warn("Could not reconcile stats for {}: {}", instructor, e.getMessage());
+            }
+        }
+        log.debug("Reconciled dashboard stats for {}/{} instructors", done, instructors.size());
+    }
+
+    // Recomputes one instructor's counters from the source collections (all queries are index-backed).
+    // The result is only saved if no write touched the document meanwhile; otherwise it is recounted.
+    public InstructorStats reconcile(String instructorEmail) {
+        for (int attempt = 1; ; attempt++) {
+            InstructorStats current = mongoTemplate.findById(instructorEmail, InstructorStats.class);
+            Long version = current == null ? null : current.getVersion();
+            InstructorStats saved = saveIfUnchanged(instructorEmail, current != null, version, recount(instructorEmail));
+            if (saved != null) {
+                return saved;
+            }
+            if (attempt == RECONCILE_ATTEMPTS) {
+                log.debug("Stats for {} kept changing during the recount, leaving them to the next run", instructorEmail);
+                return mongoTemplate.findById(instructorEmail, InstructorStats.class);
+            }
+        }
+    }
+
+    private Update recount(String instructorEmail) {
+        Criteria byInstructor = Criteria.where("instructorEmail").is(instructorEmail);
+
+        Map<String, Long> lecturesByStatus = new HashMap<>();
+        Aggregation statuses = Aggregation.newAggregation(
+                Aggregation.match(byInstructor),
+                Aggregation.group("status").count().as("n"));
+        for (Document row : mongoTemplate.aggregate(statuses, LiveLecture.class, Document.class)) {
+            lecturesByStatus.put(String.valueOf(row.get("_id")), ((Number) row.get("n")).longValue());
+        }
+
+        long courses = mongoTemplate.count(Query.query(byInstructor), Course.class);
+
+        Query batchQuery = Query.query(byInstructor);
+        batchQuery.fields().include("batchName", "courseId", "enrolledCount", "maxStudents");
+        Map<String, InstructorStats.BatchSeats> batchSeats = new HashMap<>();
+        mongoTemplate.find(batchQuery, Batch.class).forEach(batch -> batchSeats.put(batch.getId(), seatsOf(batch)));
+
+        // Student -> lectures they joined, from the lectures' joinedStudents
+        long totalAttendees = 0;
+        Map<String, List<String>> lecturesByStudent = new HashMap<>();
+        Aggregation attendees = Aggregation.newAggregation(
+                Aggregation.match(byInstructor),
+                Aggregation.project("joinedStudents"),
+                Aggregation.unwind("joinedStudents"),
+                Aggregation.group("joinedStudents").addToSet("_id").as("lectures"));
+        for (Document row : mongoTemplate.aggregate(attendees, LiveLecture.class, Document.class)) {
+            List<String> lectures = new ArrayList<>();
+            for (Object lectureId : row.getList("lectures", Object.class)) {
+                lectures.add(lectureId.toString());
+            }
+            lecturesByStudent.put((String) row.get("_id"), lectures);
+            totalAttendees += lectures.size();
+        }
+        // Keep the attendee documents in step with the recount
+        if (!lecturesByStudent.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ATTENDEES);
+            lecturesByStudent.forEach((student, lectures) -> bulk.upsert(
+                    Query.query(Criteria.where("_id").is(attendeeId(instructorEmail, student))),
+                    attendeeInsert(instructorEmail, student).addToSet("lectures").each(lectures.toArray())));
+            bulk.execute();
+        }
+
+        return new Update()
+                .set("courses", courses)
+                .set("batches", (long) batchSeats.size())
+                .set("lecturesByStatus", lecturesByStatus)
+                .set("totalAttendees", totalAttendees)
+                .set("uniqueAttendees", (long) lecturesByStudent.size())
+                .set("batchSeats", batchSeats)
+                .set("reconciledAt", Instant.now())
+                .inc("version", 1);
+    }
+
+    // Compare-and-set on the version read before the recount; null if another write got there first
+    private InstructorStats saveIfUnchanged(String instructorEmail, boolean exists, Long version, Update recount) {
+        // Not an equality on a missing version, or an upsert would copy version: null into the insert
+        Criteria sameVersion = version == null ? Criteria.where("version").exists(false) : Criteria.where("version").is(version);
+        Query unchanged = Query.query(Criteria.where("_id").is(instructorEmail).andOperator(sameVersion));
+        try {
+            return mongoTemplate.findAndModify(unchanged, recount,
+                    FindAndModifyOptions.options().upsert(!exists).returnNew(true), InstructorStats.class);
+        } catch (DuplicateKeyException e) {
+            return null; // Created by a concurrent write since we looked
+        }
+    }
+
+    private void apply(String instructorEmail, Update update) {
+        if (!enabled || instructorEmail == null) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instructorEmail)), update.inc("version", 1), InstructorStats.class);
+        } catch (RuntimeException e) {
+            // The next reconcile repairs the counter
+            log.warn("Could not update stats for {}: {}", instructorEmail, e.getMessage());
+        }
+    }
+
+    private InstructorStats.BatchSeats seatsOf(Batch batch) {
+        return new InstructorStats.BatchSeats(batch.getBatchName(), batch.getCourseId(),
+                batch.getEnrolledCount() == null ? 0 : batch.getEnrolledCount(), batch.getMaxStudents());
+    }
+
+    private String attendeeId(String instructor, String student) {
+        return instructor + "|" + student;
+    }
+
+    private Update attendeeInsert(String instructor, String student) {
+        return new Update()
+                .setOnInsert("instructorEmail", instructor)
+                .setOnInsert("studentEmail", student)
+                .setOnInsert("firstSeenAt", Instant.now());
+    }
+}
@@ -0,0 +1,289 @@
+package com.learnado.backend.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.event.LectureReminderEvent;
+import com.learnado.backend.event.LectureStartDueEvent;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.util.HashedTimingWheel;
+import com.learnado.backend.websocket.SignalingHandler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acts on lecture times: a reminder before a lecture starts, a start-due event (or an
+ * automatic start) at scheduledAt, and ending LIVE lectures whose instructor is gone well
+ * after their planned end.
+ *
+ * Timers live on a {@link HashedTimingWheel}. Only lectures starting within the next
+ * {@code learnado.lifecycle.window-minutes} are loaded, and each refresh queries just the
+ * slice between the previous window end and the new one; lectures created or moved inside
+ * the loaded window arrive through {@link LectureChangedEvent}. Every action is a conditional
+ * update, so stale timers and other instances can't apply it twice.
+ */
+@Slf4j
+@Service
+public class LectureLifecycleScheduler {
+
+    private static final int DEFAULT_DURATION_MINUTES = 60;
+
+    private final MongoTemplate mongoTemplate;
+    private final SignalingHandler signalingHandler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long windowMinutes;
+    private final long reminderMinutes;
+    private final long graceMinutes;
+    private final boolean autoStart;
+
+    private final ExecutorService actions;
+    private final HashedTimingWheel wheel;
+    private final Map<String, Timers> timers = new ConcurrentHashMap<>();
+    private volatile LocalDateTime loadedUntil; // null until the first load
+    // The startup load and the scheduled refresh both query Mongo; a lock, not a monitor, so
+    // that wait doesn't pin a virtual thread's carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public LectureLifecycleScheduler(
+            MongoTemplate mongoTemplate,
+            SignalingHandler signalingHandler,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.lifecycle.enabled:true}") boolean enabled,
+            @Value("${learnado.lifecycle.window-minutes:120}") long windowMinutes,
+            @Value("${learnado.lifecycle.reminder-minutes:15}") long reminderMinutes,
+            @Value("${learnado.lifecycle.grace-minutes:15}") long graceMinutes,
+            @Value("${learnado.lifecycle.auto-start:false}") boolean autoStart) {
+        this.mongoTemplate = mongoTemplate;
+        this.signalingHandler = signalingHandler;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.windowMinutes = windowMinutes;
+        this.reminderMinutes = reminderMinutes;
+        this.graceMinutes = graceMinutes;
+        this.autoStart = autoStart;
+
+        // Timer actions touch Mongo, so they run here rather than on the wheel thread
+        AtomicInteger threadCount = new AtomicInteger();
+        this.actions = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "lecture-lifecycle-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new HashedTimingWheel("lecture-lifecycle-wheel", 1000, 4096, actions);
+
+        Gauge.builder("lifecycle.timers.pending", wheel, HashedTimingWheel::pendingCount)
+                .description("Lecture reminder/start/expiry timers waiting on the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refresh();
+    }
+
+    // Until the initial load has succeeded (Mongo may have been down at startup) each run retries it
+    @Scheduled(fixedDelayString = "${learnado.lifecycle.refresh-ms:600000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            if (loadedUntil == null) {
+                Query live = Query.query(Criteria.where("status").is(LectureStatus.LIVE));
+                live.fields().exclude("joinedStudents");
+                mongoTemplate.find(live, LiveLecture.class).forEach(this::schedule);
+                loadWindow(LocalDateTime.now());
+            } else {
+                loadWindow(loadedUntil);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Lecture lifecycle could not load lectures, will retry: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Load SCHEDULED lectures starting in (from, now + window]
+    private void loadWindow(LocalDateTime from) {
+        LocalDateTime to = LocalDateTime.now().plusMinutes(windowMinutes);
+        Query query = Query.query(Criteria.where("status").is(LectureStatus.SCHEDULED)
+                .and("scheduledAt").gt(from).lte(to));
+        query.fields().exclude("joinedStudents");
+        List<LiveLecture> lectures = mongoTemplate.find(query, LiveLecture.class);
+        loadedUntil = to;
+        lectures.forEach(this::schedule);
+        log.debug("Lecture lifecycle loaded {} lectures up to {}", lectures.size(), to);
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.deleted()) {
+            cancel(event.lecture().getId());
+        } else {
+            schedule(event.lecture());
+        }
+    }
+
+    private void schedule(LiveLecture lecture) {
+        timers.compute(lecture.getId(), (id, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            long now = System.currentTimeMillis();
+            if (lecture.getStatus() == LectureStatus.LIVE) {
+                Timers live = new Timers(lecture);
+                live.expiry = wheel.schedule(() -> expire(live), Math.max(now, plannedEnd(lecture) + graceMinutes * 60_000));
+                return live;
+            }
+            LocalDateTime windowEnd = loadedUntil;
+            if (lecture.getStatus() != LectureStatus.SCHEDULED || lecture.getScheduledAt() == null
+                    || windowEnd == null || lecture.getScheduledAt().isAfter(windowEnd)) {
+                return null; // Not ours to time yet; a later window load picks it up
+            }
+            long startAt = millis(lecture.getScheduledAt());
+            if (startAt <= now) {
+                return null;
+            }
+            Timers scheduled = new Timers(lecture);
+            if (lecture.getReminderSentAt() == null) {
+                scheduled.reminder = wheel.schedule(() -> remind(scheduled), Math.max(now, startAt - reminderMinutes * 60_000));
+            }
+            scheduled.start = wheel.schedule(() -> startDue(scheduled), startAt);
+            return scheduled;
+        });
+    }
+
+    private void cancel(String lectureId) {
+        Timers removed = timers.remove(lectureId);
+        if (removed != null) {
+            removed.cancel();
+        }
+    }
+
+    private void remind(Timers owner) {
+        if (timers.get(owner.lecture.getId()) != owner) return;
+        LiveLecture claimed = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(owner.lecture.getId())
+                        .and("status").is(LectureStatus.SCHEDULED)
+                        .and("reminderSentAt").is(null)),
+                new Update().set("reminderSentAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                LiveLecture.class);
+        if (claimed != null) {
+            eventPublisher.publishEvent(new LectureReminderEvent(claimed, reminderMinutes));
+        }
+    }
+
+    private void startDue(Timers owner) {
+        if (timers.get(owner.lecture.getId()) != owner) return;
+        if (!autoStart) {
+            timers.remove(owner.lecture.getId(), owner); // Nothing left to time until it goes LIVE
+            eventPublisher.publishEvent(new LectureStartDueEvent(owner.lecture));
+            return;
+        }
+        LiveLecture started = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(owner.lecture.getId()).and("status").is(LectureStatus.SCHEDULED)),
+                new Update().set("status", LectureStatus.LIVE).set("startedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                LiveLecture.class);
+        if (started != null) {
+            log.info("Auto-started lecture {}", started.getId());
+            eventPublisher.publishEvent(LectureChangedEvent.updated(started, LectureStatus.SCHEDULED));
+        }
+    }
+
+    // Past the planned end plus grace: end it, unless the instructor is still in the room
+    private void expire(Timers owner) {
+        String id = owner.lecture.getId();
+        if (timers.get(id) != owner) return;
+        if (signalingHandler.isInstructorPresent(id)) {
+            timers.computeIfPresent(id, (key, current) -> {
+                if (current == owner) {
+                    owner.expiry = wheel.schedule(() -> expire(owner), System.currentTimeMillis() + graceMinutes * 60_000);
+                }
+                return current;
+            });
+            return;
+        }
+        LiveLecture ended = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("status").is(LectureStatus.LIVE)),
+                new Update().set("status", LectureStatus.COMPLETED).set("endedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                LiveLecture.class);
+        if (ended != null) {
+            log.info("Auto-ended lecture {}: instructor gone past the planned end", id);
+            eventPublisher.publishEvent(LectureChangedEvent.updated(ended, LectureStatus.LIVE));
+        } else {
+            timers.remove(id, owner);
+        }
+    }
+
+    private long plannedEnd(LiveLecture lecture) {
+        LocalDateTime started = lecture.getStartedAt() != null ? lecture.getStartedAt()
+                : lecture.getScheduledAt() != null ? lecture.getScheduledAt()
+                : LocalDateTime.now();
+        int duration = lecture.getDurationMinutes() != null ? lecture.getDurationMinutes() : DEFAULT_DURATION_MINUTES;
+        return millis(started.plusMinutes(duration));
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        actions.shutdownNow();
+    }
+
+    // The timers for one lecture; replaced as a whole whenever the lecture changes
+    private static class Timers {
+        final LiveLecture lecture;
+        volatile HashedTimingWheel.Timeout reminder;
+        volatile HashedTimingWheel.Timeout start;
+        volatile HashedTimingWheel.Timeout expiry;
+
+        Timers(LiveLecture lecture) {
+            this.lecture = lecture;
+        }
+
+        void cancel() {
+            if (reminder != null) reminder.cancel();
+            if (start != null) start.cancel();
+            if (expiry != null) expiry.cancel();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.learnado.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.LectureSeriesRequest;
+import com.learnado.backend.dto.LectureSeriesResult;
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.repository.BatchRepository;
+import com.learnado.backend.util.IntervalTree;
+
+/**
+ * Creates a recurring series of lectures in one go. Occurrences are expanded from the
+ * daily/weekly rule, checked against the instructor's scheduled and live lectures (loaded
+ * with a single range query into an {@link IntervalTree}) and against each other, then
+ * written with one bulk insert. Ids are assigned up front so roomId can be set before the
+ * insert instead of with a second save.
+ */
+@Service
+public class LectureSeriesService {
+
+    private static final int DEFAULT_DURATION_MINUTES = 60;
+
+    private final MongoTemplate mongoTemplate;
+    private final BatchRepository batchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxOccurrences;
+
+    public LectureSeriesService(
+            MongoTemplate mongoTemplate,
+            BatchRepository batchRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${learnado.lecture-series.max-occurrences:500}") int maxOccurrences) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchRepository = batchRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    public LectureSeriesResult create(LectureSeriesRequest request, String instructorEmail) {
+        Batch batch = batchRepository.findById(request.getBatchId())
+                .filter(b -> instructorEmail.equals(b.getInstructorEmail()))
+                .orElseThrow(() -> new RuntimeException("Batch not found"));
+        if (!request.getCourseId().equals(batch.getCourseId())) {
+            throw new RuntimeException("Batch does not belong to this course");
+        }
+
+        List<LocalDateTime> occurrences = expand(request);
+        if (occurrences.isEmpty()) {
+            throw new RuntimeException("The series has no occurrences");
+        }
+        if (occurrences.get(0).isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("The series cannot start in the past");
+        }
+
+        long duration = request.getDurationMinutes();
+        IntervalTree<LiveLecture> schedule = loadSchedule(instructorEmail,
+                occurrences.get(0), occurrences.get(occurrences.size() - 1).plusMinutes(duration));
+
+        List<LocalDateTime> accepted = new ArrayList<>();
+        List<LectureSeriesResult.Conflict> conflicts = new ArrayList<>();
+        LocalDateTime previousEnd = null;
+        LocalDateTime previousStart = null;
+        for (LocalDateTime start : occurrences) {
+            LocalDateTime end = start.plusMinutes(duration);
+            List<LiveLecture> overlapping = schedule.overlapping(millis(start), millis(end));
+            if (!overlapping.isEmpty()) {
+                LiveLecture existing = overlapping.get(0);
+                conflicts.add(new LectureSeriesResult.Conflict(
+                        start, existing.getId(), existing.getTitle(), existing.getScheduledAt()));
+                continue;
+            }
+            // Occurrences are in order, so a duration longer than the step only overlaps the previous one
+            if (previousEnd != null && start.isBefore(previousEnd)) {
+                conflicts.add(new LectureSeriesResult.Conflict(start, null, request.getTitle(), previousStart));
+                continue;
+            }
+            accepted.add(start);
+            previousStart = start;
+            previousEnd = end;
+        }
+
+        if (!conflicts.isEmpty() && request.getOnConflict() != LectureSeriesRequest.ConflictPolicy.SKIP) {
+            return new LectureSeriesResult(null, List.of(), conflicts);
+        }
+        if (accepted.isEmpty()) {
+            return new LectureSeriesResult(null, List.of(), conflicts);
+        }
+
+        String seriesId = new ObjectId().toHexString();
+        LocalDateTime now = LocalDateTime.now();
+        List<LiveLecture> lectures = new ArrayList<>(accepted.size());
+        for (LocalDateTime start : accepted) {
+            String id = new ObjectId().toHexString();
+            lectures.add(LiveLecture.builder()
+                    .id(id)
+                    .roomId(id) // Room ID is same as lecture ID
+                    .seriesId(seriesId)
+                    .batchId(request.getBatchId())
+                    .courseId(request.getCourseId())
+                    .title(request.getTitle())
+                    .description(request.getDescription())
+                    .instructorEmail(instructorEmail)
+                    .scheduledAt(start)
+                    .durationMinutes(request.getDurationMinutes())
+                    .status(LectureStatus.SCHEDULED)
+                    .createdAt(now)
+                    .isScreenSharing(false)
+                    .isRecording(false)
+                    .maxParticipants(request.getMaxParticipants() != null ? request.getMaxParticipants() : 100)
+                    .joinedStudents(new ArrayList<>())
+                    .peakAttendance(0)
+                    .build());
+        }
+        mongoTemplate.insertAll(lectures);
+        lectures.forEach(lecture -> eventPublisher.publishEvent(LectureChangedEvent.created(lecture)));
+
+        return new LectureSeriesResult(seriesId, lectures.stream().map(LiveLectureSummary::of).toList(), conflicts);
+    }
+
+    // Start times of the series in order, after exceptions; count includes excepted dates
+    private List<LocalDateTime> expand(LectureSeriesRequest request) {
+        if (request.getUntil() == null && request.getCount() == null) {
+            throw new RuntimeException("Either until or count is required");
+        }
+        int interval = request.getInterval() == null ? 1 : request.getInterval();
+        if (interval < 1) {
+            throw new RuntimeException("Interval must be at least 1");
+        }
+        if (request.getCount() != null && request.getCount() < 1) {
+            throw new RuntimeException("Count must be at least 1");
+        }
+        LocalDate start = request.getStartDate();
+        LocalDate until = request.getUntil();
+        int count = request.getCount() == null ? Integer.MAX_VALUE : request.getCount();
+        Set<LocalDate> exceptions = request.getExceptions() == null ? Set.of() : new HashSet<>(request.getExceptions());
+
+        List<LocalDate> dates = new ArrayList<>();
+        if (request.getFrequency() == LectureSeriesRequest.Frequency.DAILY) {
+            for (LocalDate date = start; dates.size() < count && (until == null || !date.isAfter(until));
+                    date = date.plusDays(interval)) {
+                addDate(dates, date);
+            }
+        } else {
+            Set<DayOfWeek> days = new TreeSet<>(request.getDaysOfWeek() == null || request.getDaysOfWeek().isEmpty()
+                    ? Set.of(start.getDayOfWeek()) : request.getDaysOfWeek());
+            LocalDate week = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            weeks:
+            for (; ; week = week.plusWeeks(interval)) {
+                for (DayOfWeek day : days) {
+                    LocalDate date = week.plusDays(day.getValue() - 1L);
+                    if (date.isBefore(start)) {
+                        continue;
+                    }
+                    if (dates.size() >= count || (until != null && date.isAfter(until))) {
+                        break weeks;
+                    }
+                    addDate(dates, date);
+                }
+            }
+        }
+
+        return dates.stream()
+                .filter(date -> !exceptions.contains(date))
+                .map(date -> date.atTime(request.getStartTime()))
+                .toList();
+    }
+
+    private void addDate(List<LocalDate> dates, LocalDate date) {
+        if (dates.size() >= maxOccurrences) {
+            throw new RuntimeException("A series can have at most " + maxOccurrences + " occurrences");
+        }
+        dates.add(date);
+    }
+
+    // One range query over the instructor_scheduled index; a day's slack catches lectures that
+    // start before the series but are still running when it begins
+    private IntervalTree<LiveLecture> loadSchedule(String instructorEmail, LocalDateTime from, LocalDateTime to) {
+        Query query = Query.query(Criteria.where("instructorEmail").is(instructorEmail)
+                .and("scheduledAt").gte(from.minusDays(1)).lt(to)
+                .and("status").in(LectureStatus.SCHEDULED, LectureStatus.LIVE));
+        query.fields().include("title", "scheduledAt", "durationMinutes");
+
+        List<IntervalTree.Interval<LiveLecture>> intervals = new ArrayList<>();
+        for (LiveLecture lecture : mongoTemplate.find(query, LiveLecture.class)) {
+            int minutes = lecture.getDurationMinutes() != null ? lecture.getDurationMinutes() : DEFAULT_DURATION_MINUTES;
+            LocalDateTime start = lecture.getScheduledAt();
+            intervals.add(new IntervalTree.Interval<>(millis(start), millis(start.plus(minutes, ChronoUnit.MINUTES)), lecture));
+        }
+        return new IntervalTree<>(intervals);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,285 @@
+package com.learnado.backend.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.learnado.backend.dto.LectureStatusChange;
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.event.EnrollmentCreatedEvent;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.event.LectureReminderEvent;
+import com.learnado.backend.event.LectureStartDueEvent;
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.model.Role;
+import com.learnado.backend.repository.EnrollmentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-sent event stream of lecture status changes. Students see lectures of the batches
+ * they're enrolled in, instructors see their own lectures and admins see everything.
+ *
+ * A subscriber first gets a "snapshot" event with the lectures live right now, then a
+ * "lecture" event per change, plus "reminder" and "start-due" events from the lifecycle
+ * scheduler, and a comment periodically so dead connections get noticed.
+ *
+ * Each subscriber has its own queue, drained by one task at a time on a small shared pool,
+ * so a client sees its events in order and a slow client only delays itself. A client with
+ * more than {@code learnado.live-stream.queue-limit} events waiting has fallen behind and is
+ * disconnected; the browser's EventSource reconnects and starts again from a snapshot.
+ */
+@Slf4j
+@Service
+public class LectureStatusStream {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final LiveLectureRegistry liveLectureRegistry;
+    private static final int MAX_EVENTS_PER_TURN = 32;
+
+    private final long timeoutMillis;
+    private final int queueLimit;
+    private final Counter droppedCounter;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+
+    public LectureStatusStream(
+            EnrollmentRepository enrollmentRepository,
+            LiveLectureRegistry liveLectureRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.live-stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${learnado.live-stream.send-threads:4}") int sendThreads,
+            @Value("${learnado.live-stream.queue-limit:100}") int queueLimit) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.liveLectureRegistry = liveLectureRegistry;
+        this.timeoutMillis = timeoutMillis;
+        this.queueLimit = queueLimit;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread thread = new Thread(r, "lecture-status-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedCounter = Counter.builder("sse.lecture_status.dropped")
+                .description("Lecture status subscribers disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String email, Role role) {
+        Set<String> batchIds = ConcurrentHashMap.newKeySet();
+        if (role == Role.STUDENT) {
+            enrollmentRepository.findByStudentEmail(email).stream()
+                    .map(Enrollment::getBatchId)
+                    .forEach(batchIds::add);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(email, role, batchIds, emitter);
+        emitter.onCompletion(() -> forget(subscriber));
+        emitter.onTimeout(() -> forget(subscriber));
+        emitter.onError(e -> forget(subscriber));
+        subscribers.add(subscriber);
+
+        List<LiveLectureSummary> liveNow = liveLectureRegistry.getLive().stream()
+                .filter(lecture -> subscriber.canSee(lecture.getBatchId(), lecture.getInstructorEmail()))
+                .toList();
+        enqueue(subscriber, SseEmitter.event().name("snapshot").data(liveNow));
+        return emitter;
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLecture lecture = event.lecture();
+        // Only creations, status changes and deletions are pushed, not edits to details
+        if (!event.deleted() && event.previousStatus() != null
+                && Objects.equals(event.previousStatus(), lecture.getStatus())) {
+            return;
+        }
+        LectureStatusChange change = new LectureStatusChange(
+                lecture.getId(),
+                lecture.getBatchId(),
+                event.deleted() ? null : lecture.getStatus(),
+                event.previousStatus(),
+                event.deleted() ? null : LiveLectureSummary.of(lecture));
+        subscribers.stream()
+                .filter(subscriber -> subscriber.canSee(lecture.getBatchId(), lecture.getInstructorEmail()))
+                .forEach(subscriber -> enqueue(subscriber, SseEmitter.event().name("lecture").data(change)));
+    }
+
+    @EventListener
+    public void onLectureReminder(LectureReminderEvent event) {
+        push("reminder", event.lecture());
+    }
+
+    @EventListener
+    public void onLectureStartDue(LectureStartDueEvent event) {
+        push("start-due", event.lecture());
+    }
+
+    private void push(String name, LiveLecture lecture) {
+        LiveLectureSummary summary = LiveLectureSummary.of(lecture);
+        subscribers.stream()
+                .filter(subscriber -> subscriber.canSee(lecture.getBatchId(), lecture.getInstructorEmail()))
+                .forEach(subscriber -> enqueue(subscriber, SseEmitter.event().name(name).data(summary)));
+    }
+
+    @EventListener
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        Enrollment enrollment = event.enrollment();
+        subscribers.stream()
+                .filter(subscriber -> subscriber.email.equals(enrollment.getStudentEmail()))
+                .forEach(subscriber -> subscriber.batchIds.add(enrollment.getBatchId()));
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.live-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        subscribers.forEach(subscriber -> enqueue(subscriber, SseEmitter.event().comment("ping")));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    // Never blocks: queues the event and makes sure a drain is scheduled
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (subscriber.queued.incrementAndGet() > queueLimit) {
+            droppedCounter.increment();
+            log.debug("Lecture stream for {} fell behind, disconnecting", subscriber.email);
+            close(subscriber);
+            return;
+        }
+        subscriber.queue.add(event);
+        kick(subscriber);
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        kick(subscriber); // The drain completes the emitter, so it never races a send
+    }
+
+    // The emitter is already done; just stop queueing for it
+    private void forget(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private void kick(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; shutdown() completes the emitters
+        }
+    }
+
+    // One drain per subscriber at a time; yields the thread after a few events so others get a turn
+    private void drain(Subscriber subscriber) {
+        int sent = 0;
+        while (true) {
+            if (subscriber.closed) {
+                subscriber.queue.clear();
+                complete(subscriber);
+                return;
+            }
+            SseEmitter.SseEventBuilder event = subscriber.queue.poll();
+            if (event == null) {
+                subscriber.draining.set(false);
+                // An event or close that arrived after the poll but before the flag cleared is ours
+                if ((subscriber.queue.isEmpty() && !subscriber.closed) || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.queued.decrementAndGet();
+            send(subscriber, event);
+            if (++sent >= MAX_EVENTS_PER_TURN) {
+                schedule(subscriber);
+                return;
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container completes the emitter
+            forget(subscriber);
+            log.debug("Dropping lecture stream for {}: {}", subscriber.email, e.getMessage());
+        }
+    }
+
+    private void complete(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException e) {
+            log.debug("Could not complete lecture stream for {}: {}", subscriber.email, e.getMessage());
+        }
+    }
+
+    // Identity equality on purpose: batchIds changes while the subscriber sits in the set
+    private static class Subscriber {
+        final String email;
+        final Role role;
+        final Set<String> batchIds;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(String email, Role role, Set<String> batchIds, SseEmitter emitter) {
+            this.email = email;
+            this.role = role;
+            this.batchIds = batchIds;
+            this.emitter = emitter;
+        }
+
+        boolean canSee(String batchId, String instructorEmail) {
+            return switch (role) {
+                case ADMIN -> true;
+                case INSTRUCTOR -> email.equals(instructorEmail);
+                case STUDENT -> batchIds.contains(batchId);
+            };
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.learnado.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.repository.LiveLectureRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The set of lectures that are LIVE right now, held in memory so /live-now and the join
+ * check don't query Mongo on every poll.
+ *
+ * Seeded from Mongo once the app is ready and kept current from {@link LectureChangedEvent}.
+ * A periodic resync picks up changes made by other backend instances. Until the first seed
+ * succeeds, reads go to Mongo.
+ */
+@Slf4j
+@Service
+public class LiveLectureRegistry {
+
+    private static final Comparator<LiveLectureSummary> NEWEST_FIRST = Comparator.comparing(
+            LiveLectureSummary::getStartedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()));
+
+    private final LiveLectureRepository liveLectureRepository;
+    private final boolean enabled;
+
+    private final Map<String, LiveLectureSummary> live = new ConcurrentHashMap<>();
+    private volatile boolean seeded;
+
+    // Guards seeding against events; ids changed by events while a seed query was running
+    private final Object lock = new Object();
+    private boolean seeding;
+    private final Set<String> changedWhileSeeding = new HashSet<>();
+
+    public LiveLectureRegistry(
+            LiveLectureRepository liveLectureRepository,
+            @Value("${learnado.live-registry.enabled:true}") boolean enabled) {
+        this.liveLectureRepository = liveLectureRepository;
+        this.enabled = enabled;
+    }
+
+    public List<LiveLectureSummary> getLive() {
+        if (!enabled || !seeded) {
+            return liveLectureRepository.findSummariesByStatus(LectureStatus.LIVE);
+        }
+        return live.values().stream().sorted(NEWEST_FIRST).toList();
+    }
+
+    public boolean isLive(String lectureId) {
+        if (!enabled || !seeded) {
+            return liveLectureRepository.existsByIdAndStatus(lectureId, LectureStatus.LIVE);
+        }
+        return live.containsKey(lectureId);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        resync();
+    }
+
+    @Scheduled(initialDelayString = "${learnado.live-registry.resync-ms:60000}",
+            fixedDelayString = "${learnado.live-registry.resync-ms:60000}")
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (lock) {
+            seeding = true;
+            changedWhileSeeding.clear();
+        }
+
+        List<LiveLectureSummary> found;
+        try {
+            found = liveLectureRepository.findSummariesByStatus(LectureStatus.LIVE);
+        } catch (DataAccessException e) {
+            log.warn("Could not load live lectures: {}", e.getMessage());
+            synchronized (lock) {
+                seeding = false;
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            // Events that arrived during the query are newer than what it returned
+            Set<String> foundIds = new HashSet<>();
+            for (LiveLectureSummary lecture : found) {
+                foundIds.add(lecture.getId());
+                if (!changedWhileSeeding.contains(lecture.getId())) {
+                    live.put(lecture.getId(), lecture);
+                }
+            }
+            live.keySet().removeIf(id -> !foundIds.contains(id) && !changedWhileSeeding.contains(id));
+            seeding = false;
+            changedWhileSeeding.clear();
+            seeded = true;
+        }
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLectureSummary lecture = LiveLectureSummary.of(event.lecture());
+        synchronized (lock) {
+            if (seeding) {
+                changedWhileSeeding.add(lecture.getId());
+            }
+            if (!event.deleted() && lecture.getStatus() == LectureStatus.LIVE) {
+                live.put(lecture.getId(), lecture);
+            } else {
+                live.remove(lecture.getId());
+            }
+        }
+    }
+}
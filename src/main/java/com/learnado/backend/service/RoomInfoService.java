@@ -0,0 +1,141 @@
+package com.learnado.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.RoomInfo;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.websocket.RoomStateStore;
+import com.learnado.backend.websocket.SignalingHandler;
+
+/**
+ * Room info for many lectures at once: live participant counts and room state from the
+ * signaling layer plus lecture metadata from a small LRU cache. Cache misses for a request are loaded with a
+ * single projected query, and entries are refreshed from {@link LectureChangedEvent} and
+ * expire after {@code learnado.room-info.ttl-seconds} to pick up other instances' changes.
+ */
+@Service
+public class RoomInfoService {
+
+    private static final int DEFAULT_MAX_PARTICIPANTS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final SignalingHandler signalingHandler;
+    private final RoomStateStore roomStateStore;
+    private final long ttlMillis;
+    private final Map<String, RoomMetadata> cache;
+
+    public RoomInfoService(
+            MongoTemplate mongoTemplate,
+            SignalingHandler signalingHandler,
+            RoomStateStore roomStateStore,
+            @Value("${learnado.room-info.cache-size:10000}") int cacheSize,
+            @Value("${learnado.room-info.ttl-seconds:30}") long ttlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.signalingHandler = signalingHandler;
+        this.roomStateStore = roomStateStore;
+        this.ttlMillis = ttlSeconds * 1000;
+        // Access-ordered map so the least recently asked-for lectures are evicted first
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RoomMetadata> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Unknown ids are left out; results keep the order the ids were given in
+    public List<RoomInfo> getRoomInfos(Collection<String> lectureIds) {
+        Set<String> ids = new LinkedHashSet<>(lectureIds);
+        Map<String, RoomMetadata> found = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            for (String id : ids) {
+                RoomMetadata metadata = cache.get(id);
+                if (metadata != null && now - metadata.loadedAt < ttlMillis) {
+                    found.put(id, metadata);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Query query = Query.query(Criteria.where("_id").in(missing));
+            query.fields().include("roomId", "status", "maxParticipants", "isScreenSharing", "isRecording",
+                    "instructorPresent", "instructorEmail");
+            List<RoomMetadata> loaded = mongoTemplate.find(query, LiveLecture.class).stream()
+                    .map(lecture -> RoomMetadata.of(lecture, now))
+                    .toList();
+            synchronized (cache) {
+                loaded.forEach(metadata -> {
+                    cache.put(metadata.lectureId, metadata);
+                    found.put(metadata.lectureId, metadata);
+                });
+            }
+        }
+
+        List<RoomInfo> result = new ArrayList<>(found.size());
+        for (String id : ids) {
+            RoomMetadata metadata = found.get(id);
+            if (metadata != null) {
+                result.add(metadata.toRoomInfo(signalingHandler.getParticipantCount(id), roomStateStore.get(id)));
+            }
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLecture lecture = event.lecture();
+        synchronized (cache) {
+            if (event.deleted()) {
+                cache.remove(lecture.getId());
+            } else if (cache.containsKey(lecture.getId())) {
+                cache.put(lecture.getId(), RoomMetadata.of(lecture, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    // The stored room state is only a fallback for rooms this instance hasn't seen any activity in
+    private record RoomMetadata(String lectureId, String roomId, LectureStatus status, int maxParticipants,
+                                boolean screenSharing, boolean recording, boolean instructorPresent,
+                                String instructorEmail, long loadedAt) {
+
+        static RoomMetadata of(LiveLecture lecture, long loadedAt) {
+            return new RoomMetadata(
+                    lecture.getId(),
+                    lecture.getRoomId() != null ? lecture.getRoomId() : lecture.getId(),
+                    lecture.getStatus(),
+                    lecture.getMaxParticipants() != null ? lecture.getMaxParticipants() : DEFAULT_MAX_PARTICIPANTS,
+                    Boolean.TRUE.equals(lecture.getIsScreenSharing()),
+                    Boolean.TRUE.equals(lecture.getIsRecording()),
+                    Boolean.TRUE.equals(lecture.getInstructorPresent()),
+                    lecture.getInstructorEmail(),
+                    loadedAt);
+        }
+
+        RoomInfo toRoomInfo(int participantCount, RoomStateStore.RoomState.Snapshot live) {
+            return live == null
+                    ? new RoomInfo(lectureId, roomId, status, participantCount, maxParticipants,
+                            screenSharing, recording, instructorPresent, instructorEmail)
+                    : new RoomInfo(lectureId, roomId, status, participantCount, maxParticipants,
+                            live.screenSharing(), live.recording(), live.instructorPresent(), instructorEmail);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.learnado.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.event.EnrollmentCreatedEvent;
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.repository.EnrollmentRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Enrolls students without overselling a batch. A seat is claimed with a single
+ * findAndModify that only increments {@code enrolledCount} while it is below
+ * {@code maxStudents}. Students already in the batch are turned away before a seat is
+ * claimed, so a full batch still answers "already in this batch"; the unique
+ * (studentEmail, batchId) index catches concurrent double enrollments, in which case the
+ * seat is handed back. A batch without a counter (created before counters existed, or
+ * cleaned of duplicate enrollments) never gets a seat until its counter has been set from
+ * its actual enrollments, so it can't be oversold while the startup backfill is running.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatReservationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public Enrollment enroll(String batchId, String studentEmail) {
+        if (enrollmentRepository.existsByStudentEmailAndBatchId(studentEmail, batchId)) {
+            throw new RuntimeException("You are already in this batch!");
+        }
+        Batch batch = reserveSeat(batchId);
+        if (batch == null) {
+            if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(batchId)), Batch.class)) {
+                throw new RuntimeException("Batch not found");
+            }
+            throw new RuntimeException("This batch is full!");
+        }
+
+        Enrollment enrollment = Enrollment.builder()
+                .studentEmail(studentEmail)
+                .batchId(batchId)
+                .enrolledAt(LocalDateTime.now())
+                .status("PAID")
+                .build();
+        Enrollment saved;
+        try {
+            saved = mongoTemplate.insert(enrollment);
+        } catch (DuplicateKeyException e) {
+            releaseSeat(batchId);
+            throw new RuntimeException("You are already in this batch!");
+        } catch (RuntimeException e) {
+            releaseSeat(batchId);
+            throw e;
+        }
+        eventPublisher.publishEvent(new EnrollmentCreatedEvent(saved, batch));
+        return saved;
+    }
+
+    // Take one seat if there is room; returns the updated batch, or null if full / missing
+    private Batch reserveSeat(String batchId) {
+        Batch batch = claimSeat(batchId);
+        if (batch == null && countSeats(batchId)) {
+            batch = claimSeat(batchId);
+        }
+        return batch;
+    }
+
+    private Batch claimSeat(String batchId) {
+        Criteria hasRoom = new Criteria().orOperator(
+                Criteria.where("maxStudents").is(null),
+                Criteria.expr(ComparisonOperators.Lt.valueOf("enrolledCount").lessThan("maxStudents")));
+        Query query = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(batchId).and("enrolledCount").exists(true), hasRoom));
+        return mongoTemplate.findAndModify(query, new Update().inc("enrolledCount", 1),
+                FindAndModifyOptions.options().returnNew(true), Batch.class);
+    }
+
+    // A batch without a counter gets one from its enrollments; false if it already had one (or doesn't exist)
+    private boolean countSeats(String batchId) {
+        Query missing = Query.query(Criteria.where("_id").is(batchId).and("enrolledCount").exists(false));
+        if (!mongoTemplate.exists(missing, Batch.class)) {
+            return false;
+        }
+        long enrolled = mongoTemplate.count(Query.query(Criteria.where("batchId").is(batchId)), Enrollment.class);
+        // Only if still missing, so a concurrent count can't overwrite seats taken since
+        mongoTemplate.updateFirst(missing, new Update().set("enrolledCount", (int) enrolled), Batch.class);
+        return true;
+    }
+
+    private void releaseSeat(String batchId) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(batchId).and("enrolledCount").gt(0)),
+                new Update().inc("enrolledCount", -1),
+                Batch.class);
+    }
+
+    // Batches created before seat counters existed get theirs filled in on startup
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSeatCounts() {
+        try {
+            reconcileSeatCounts(true);
+        } catch (RuntimeException e) {
+            log.error("Could not backfill seat counters: {}", e.getMessage());
+        }
+    }
+
+    // Recompute seat counters from the enrollments collection (backfills batches created before counters existed)
+    public void reconcileSeatCounts(boolean onlyMissing) {
+        Query batches = onlyMissing
+                ? Query.query(Criteria.where("enrolledCount").exists(false))
+                : new Query();
+        batches.fields().include("_id");
+        List<String> batchIds = mongoTemplate.find(batches, Batch.class).stream().map(Batch::getId).toList();
+        if (batchIds.isEmpty()) {
+            return;
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("batchId").in(batchIds)),
+                Aggregation.group("batchId").count().as("count"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Enrollment.class, Document.class)) {
+            counts.put(row.getString("_id"), ((Number) row.get("count")).intValue());
+        }
+        for (String batchId : batchIds) {
+            // A backfill leaves counters set meanwhile by an enrollment alone
+            Criteria batch = Criteria.where("_id").is(batchId);
+            if (onlyMissing) {
+                batch = batch.and("enrolledCount").exists(false);
+            }
+            mongoTemplate.updateFirst(Query.query(batch),
+                    new Update().set("enrolledCount", counts.getOrDefault(batchId, 0)), Batch.class);
+        }
+        log.info("Reconciled seat counters for {} batches", batchIds.size());
+    }
+}
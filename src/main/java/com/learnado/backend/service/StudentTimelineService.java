@@ -0,0 +1,273 @@
+package com.learnado.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.event.EnrollmentCreatedEvent;
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.repository.EnrollmentRepository;
+import com.learnado.backend.repository.LiveLectureRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps each active student's lecture timeline in memory, sorted by scheduledAt, so the
+ * student dashboard endpoints are a range read instead of an enrollment lookup plus an
+ * $in query on every poll.
+ *
+ * A student's timeline is built on first use and then kept current from
+ * {@link LectureChangedEvent} and {@link EnrollmentCreatedEvent}. Idle timelines are evicted.
+ * Events are local to this instance, so run with {@code learnado.timeline.enabled=false}
+ * when several backend instances share the database.
+ */
+@Slf4j
+@Service
+public class StudentTimelineService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final LiveLectureRepository liveLectureRepository;
+    private final boolean enabled;
+    private final int maxStudents;
+    private final long idleMillis;
+
+    // All changes go through this lock; readers only touch the concurrent maps
+    private final Object writeLock = new Object();
+    private long version; // Bumped on every change, lets loaders detect they raced with a write
+
+    // batchId -> (lectureId -> lecture), only for batches some loaded student is in
+    private final Map<String, Map<String, LiveLectureSummary>> batchLectures = new ConcurrentHashMap<>();
+    // batchId -> loaded students enrolled in it
+    private final Map<String, Set<String>> batchStudents = new ConcurrentHashMap<>();
+    // studentEmail -> timeline
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+
+    public StudentTimelineService(
+            EnrollmentRepository enrollmentRepository,
+            LiveLectureRepository liveLectureRepository,
+            @Value("${learnado.timeline.enabled:true}") boolean enabled,
+            @Value("${learnado.timeline.max-students:50000}") int maxStudents,
+            @Value("${learnado.timeline.idle-minutes:30}") long idleMinutes) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.liveLectureRepository = liveLectureRepository;
+        this.enabled = enabled;
+        this.maxStudents = maxStudents;
+        this.idleMillis = idleMinutes * 60_000;
+    }
+
+    // Lectures scheduled after now, soonest first
+    public List<LiveLectureSummary> getUpcoming(String studentEmail) {
+        LocalDateTime now = LocalDateTime.now();
+        Timeline timeline = timeline(studentEmail);
+        if (timeline == null) {
+            List<String> batchIds = batchIdsOf(studentEmail);
+            return batchIds.isEmpty()
+                    ? List.of()
+                    : liveLectureRepository.findSummariesByBatchIdInAndScheduledAtAfterOrderByScheduledAtAsc(batchIds, now);
+        }
+        return new ArrayList<>(timeline.lectures.tailMap(TimelineKey.after(now), false).values());
+    }
+
+    // Every lecture of the student's batches, newest first
+    public List<LiveLectureSummary> getAll(String studentEmail) {
+        Timeline timeline = timeline(studentEmail);
+        if (timeline == null) {
+            List<String> batchIds = batchIdsOf(studentEmail);
+            return batchIds.isEmpty()
+                    ? List.of()
+                    : liveLectureRepository.findSummariesByBatchIdInOrderByScheduledAtDesc(batchIds);
+        }
+        return new ArrayList<>(timeline.lectures.descendingMap().values());
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLectureSummary lecture = LiveLectureSummary.of(event.lecture());
+        synchronized (writeLock) {
+            version++;
+            Map<String, LiveLectureSummary> lectures = batchLectures.get(lecture.getBatchId());
+            if (lectures == null) {
+                return; // No loaded student is in this batch
+            }
+            LiveLectureSummary previous = event.deleted()
+                    ? lectures.remove(lecture.getId())
+                    : lectures.put(lecture.getId(), lecture);
+            for (String student : batchStudents.getOrDefault(lecture.getBatchId(), Set.of())) {
+                Timeline timeline = timelines.get(student);
+                if (timeline == null) continue;
+                if (previous != null) {
+                    timeline.lectures.remove(TimelineKey.of(previous));
+                }
+                if (!event.deleted()) {
+                    timeline.lectures.put(TimelineKey.of(lecture), lecture);
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        String student = event.enrollment().getStudentEmail();
+        String batchId = event.enrollment().getBatchId();
+        synchronized (writeLock) {
+            version++;
+            Timeline timeline = timelines.get(student);
+            if (timeline == null) {
+                return;
+            }
+            Map<String, LiveLectureSummary> lectures = batchLectures.get(batchId);
+            if (lectures == null) {
+                // Batch isn't in memory yet: drop the timeline and let the next read rebuild it
+                evict(student, timeline);
+                return;
+            }
+            timeline.batchIds.add(batchId);
+            batchStudents.computeIfAbsent(batchId, k -> ConcurrentHashMap.newKeySet()).add(student);
+            lectures.values().forEach(lecture -> timeline.lectures.put(TimelineKey.of(lecture), lecture));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.timeline.eviction-interval-ms:60000}")
+    public void evictIdleTimelines() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        synchronized (writeLock) {
+            timelines.forEach((student, timeline) -> {
+                if (timeline.lastAccess < cutoff) {
+                    evict(student, timeline);
+                }
+            });
+        }
+    }
+
+    private Timeline timeline(String studentEmail) {
+        if (!enabled) {
+            return null;
+        }
+        Timeline timeline = timelines.get(studentEmail);
+        if (timeline != null) {
+            timeline.lastAccess = System.currentTimeMillis();
+            return timeline;
+        }
+        if (timelines.size() >= maxStudents) {
+            return null; // Full: serve this student straight from Mongo
+        }
+        return load(studentEmail);
+    }
+
+    // Read the student's batches and any lectures we don't already hold, then install them
+    // unless a write happened in the meantime (in which case try again)
+    private Timeline load(String studentEmail) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long seenVersion;
+            synchronized (writeLock) {
+                seenVersion = version;
+            }
+
+            List<String> batchIds = batchIdsOf(studentEmail);
+            List<String> missing = batchIds.stream().filter(id -> !batchLectures.containsKey(id)).toList();
+            List<LiveLectureSummary> loaded = missing.isEmpty()
+                    ? List.of()
+                    : liveLectureRepository.findSummariesByBatchIdInOrderByScheduledAtDesc(missing);
+
+            synchronized (writeLock) {
+                Timeline existing = timelines.get(studentEmail);
+                if (existing != null) {
+                    return existing;
+                }
+                if (version != seenVersion) {
+                    continue;
+                }
+
+                Map<String, List<LiveLectureSummary>> byBatch = loaded.stream()
+                        .collect(Collectors.groupingBy(LiveLectureSummary::getBatchId));
+                for (String batchId : missing) {
+                    Map<String, LiveLectureSummary> lectures = new ConcurrentHashMap<>();
+                    byBatch.getOrDefault(batchId, List.of()).forEach(lecture -> lectures.put(lecture.getId(), lecture));
+                    batchLectures.put(batchId, lectures);
+                }
+
+                Timeline timeline = new Timeline(new HashSet<>(batchIds));
+                for (String batchId : batchIds) {
+                    batchStudents.computeIfAbsent(batchId, k -> ConcurrentHashMap.newKeySet()).add(studentEmail);
+                    batchLectures.get(batchId).values()
+                            .forEach(lecture -> timeline.lectures.put(TimelineKey.of(lecture), lecture));
+                }
+                timelines.put(studentEmail, timeline);
+                return timeline;
+            }
+        }
+        log.debug("Timeline for {} kept changing while loading, serving from Mongo", studentEmail);
+        return null;
+    }
+
+    // Caller holds writeLock
+    private void evict(String student, Timeline timeline) {
+        version++;
+        timelines.remove(student);
+        for (String batchId : timeline.batchIds) {
+            Set<String> students = batchStudents.get(batchId);
+            if (students == null) continue;
+            students.remove(student);
+            if (students.isEmpty()) {
+                batchStudents.remove(batchId);
+                batchLectures.remove(batchId);
+            }
+        }
+    }
+
+    private List<String> batchIdsOf(String studentEmail) {
+        return enrollmentRepository.findByStudentEmail(studentEmail)
+                .stream()
+                .map(Enrollment::getBatchId)
+                .distinct()
+                .toList();
+    }
+
+    private static class Timeline {
+        final Set<String> batchIds;
+        final NavigableMap<TimelineKey, LiveLectureSummary> lectures = new ConcurrentSkipListMap<>();
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Timeline(Set<String> batchIds) {
+            this.batchIds = batchIds;
+        }
+    }
+
+    // Sort key: scheduled time, then id to keep lectures at the same time apart
+    private record TimelineKey(LocalDateTime scheduledAt, String id) implements Comparable<TimelineKey> {
+
+        private static final Comparator<TimelineKey> ORDER = Comparator
+                .comparing(TimelineKey::scheduledAt)
+                .thenComparing(TimelineKey::id);
+
+        static TimelineKey of(LiveLectureSummary lecture) {
+            LocalDateTime at = lecture.getScheduledAt() != null ? lecture.getScheduledAt() : LocalDateTime.MIN;
+            return new TimelineKey(at, lecture.getId());
+        }
+
+        // Sorts after every lecture scheduled at or before the given time
+        static TimelineKey after(LocalDateTime time) {
+            return new TimelineKey(time, "\uffff");
+        }
+
+        @Override
+        public int compareTo(TimelineKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
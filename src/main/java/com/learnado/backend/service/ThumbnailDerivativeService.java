@@ -0,0 +1,309 @@
+package com.learnado.backend.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.model.Course;
+import com.learnado.backend.model.ImageVariant;
+import com.learnado.backend.model.ThumbnailSize;
+import com.learnado.backend.service.storage.StorageService;
+import com.learnado.backend.service.storage.StoredFile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates the card/detail/retina derivatives of a course thumbnail on a small,
+ * bounded worker pool. Uploads only enqueue a job; if the queue is full the job is
+ * refused (the original thumbnail is still served) rather than blocking the request.
+ * Refused and failed jobs are recorded on the course and retried later, up to
+ * learnado.thumbnails.max-attempts. Images are sized from their header before decoding,
+ * and anything over learnado.thumbnails.max-pixels is never decoded.
+ */
+@Slf4j
+@Service
+public class ThumbnailDerivativeService {
+
+    // The JDK has no WebP encoder, so derivatives are JPEG
+    private static final String FORMAT = "jpeg";
+
+    private final StorageService storageService;
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolExecutor executor;
+    private final float quality;
+    private final long maxPixels;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    private final Timer processingTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public ThumbnailDerivativeService(
+            StorageService storageService,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.thumbnails.workers:2}") int workers,
+            @Value("${learnado.thumbnails.queue-capacity:200}") int queueCapacity,
+            @Value("${learnado.thumbnails.quality:0.8}") float quality,
+            @Value("${learnado.thumbnails.max-pixels:40000000}") long maxPixels,
+            @Value("${learnado.thumbnails.max-attempts:5}") int maxAttempts,
+            @Value("${learnado.thumbnails.retry-delay-ms:300000}") long retryDelayMillis) {
+        this.storageService = storageService;
+        this.mongoTemplate = mongoTemplate;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("thumbnail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("thumbnails.queue.depth", executor, e -> e.getQueue().size())
+                .description("Thumbnail jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("thumbnails.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Thumbnail jobs currently running")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("thumbnails.processing")
+                .description("Time to generate and store all derivatives of one thumbnail")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("thumbnails.rejected")
+                .description("Jobs refused because the queue was full (retried later)")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("thumbnails.failed")
+                .description("Jobs that failed with an error")
+                .register(meterRegistry);
+    }
+
+    // Queue derivative generation for a freshly uploaded thumbnail
+    public void enqueue(String courseId, String originalKey) {
+        try {
+            executor.execute(() -> processingTimer.record(() -> generate(courseId, originalKey)));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Thumbnail queue full, will retry derivatives for course {}", courseId);
+            recordFailure(courseId, originalKey);
+        }
+    }
+
+    // Re-queues refused and failed jobs that are due, as many as the queue has room for
+    @Scheduled(initialDelayString = "${learnado.thumbnails.retry-interval-ms:60000}",
+            fixedDelayString = "${learnado.thumbnails.retry-interval-ms:60000}")
+    public void retryFailed() {
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        Query due = Query.query(Criteria.where("thumbnailRetryAt").lte(LocalDateTime.now())
+                .and("thumbnailAttempts").lt(maxAttempts)).limit(room);
+        due.fields().include("thumbnailKey");
+        for (Course course : mongoTemplate.find(due, Course.class)) {
+            // Push the retry out first, so a job lost with the process is picked up again later
+            Query same = Query.query(Criteria.where("_id").is(course.getId()).and("thumbnailKey").is(course.getThumbnailKey()));
+            mongoTemplate.updateFirst(same, new Update().set("thumbnailRetryAt", nextRetry()), Course.class);
+            enqueue(course.getId(), course.getThumbnailKey());
+        }
+    }
+
+    // Pick the smallest variant that is at least the requested width, or the largest one we have
+    public static ImageVariant smallestFitting(List<ImageVariant> variants, int width) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        for (ImageVariant variant : variants) {
+            if (variant.getWidth() >= width) {
+                return variant;
+            }
+        }
+        return variants.get(variants.size() - 1);
+    }
+
+    private void generate(String courseId, String originalKey) {
+        try {
+            BufferedImage original;
+            try (InputStream in = storageService.open(originalKey)) {
+                original = read(in, originalKey);
+            }
+            if (original == null) {
+                // Retrying won't help
+                mongoTemplate.updateFirst(sameThumbnail(courseId, originalKey), clearRetry(new Update()), Course.class);
+                return;
+            }
+
+            String baseKey = originalKey.contains(".") ? originalKey.substring(0, originalKey.lastIndexOf('.')) : originalKey;
+            List<ImageVariant> variants = new ArrayList<>();
+            int lastWidth = 0;
+            for (ThumbnailSize size : ThumbnailSize.values()) {
+                BufferedImage resized = resize(original, size.getMaxWidth(), size.getMaxHeight());
+                // Don't store two copies of the same size when the original is small
+                if (resized.getWidth() <= lastWidth) {
+                    continue;
+                }
+                lastWidth = resized.getWidth();
+
+                byte[] encoded = encode(resized);
+                String key = baseKey + "-" + size.getVariantName() + "." + FORMAT;
+                StoredFile stored = storageService.store(key, new ByteArrayInputStream(encoded), encoded.length, "image/" + FORMAT);
+                variants.add(ImageVariant.builder()
+                        .name(size.getVariantName())
+                        .width(resized.getWidth())
+                        .height(resized.getHeight())
+                        .format(FORMAT)
+                        .url(stored.getUrl())
+                        .key(stored.getKey())
+                        .build());
+            }
+
+            // Only attach the variants if the course still points at the same original
+            Update attach = clearRetry(new Update().set("thumbnailVariants", variants));
+            if (mongoTemplate.updateFirst(sameThumbnail(courseId, originalKey), attach, Course.class).getMatchedCount() == 0) {
+                for (ImageVariant variant : variants) {
+                    storageService.delete(variant.getKey());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.error("Failed to generate thumbnail derivatives for course {}: {}", courseId, e.getMessage());
+            recordFailure(courseId, originalKey);
+        }
+    }
+
+    // Decodes the image only if its header says it is within the pixel limit; null if unreadable or too large
+    private BufferedImage read(InputStream in, String key) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                log.warn("Thumbnail {} is not a readable image, skipping derivatives", key);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("Thumbnail {} has {} pixels (limit {}), skipping derivatives", key, pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Counts the attempt and schedules a retry, as long as the course still has this thumbnail
+    private void recordFailure(String courseId, String originalKey) {
+        try {
+            mongoTemplate.updateFirst(sameThumbnail(courseId, originalKey), new Update()
+                    .inc("thumbnailAttempts", 1)
+                    .set("thumbnailRetryAt", nextRetry()), Course.class);
+        } catch (RuntimeException e) {
+            log.error("Could not record failed thumbnail job for course {}: {}", courseId, e.getMessage());
+        }
+    }
+
+    private Query sameThumbnail(String courseId, String originalKey) {
+        return Query.query(Criteria.where("_id").is(courseId).and("thumbnailKey").is(originalKey));
+    }
+
+    private Update clearRetry(Update update) {
+        return update.unset("thumbnailRetryAt").unset("thumbnailAttempts");
+    }
+
+    private LocalDateTime nextRetry() {
+        return LocalDateTime.now().plus(retryDelayMillis, ChronoUnit.MILLIS);
+    }
+
+    // Scale down to fit the box, halving in steps so large reductions stay sharp
+    private BufferedImage resize(BufferedImage source, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min((double) maxWidth / source.getWidth(), (double) maxHeight / source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE); // JPEG has no alpha channel
+            g.fillRect(0, 0, width, height);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(FORMAT);
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,235 @@
+package com.learnado.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.dto.UploadSessionRequest;
+import com.learnado.backend.model.Course;
+import com.learnado.backend.model.UploadSession;
+import com.learnado.backend.model.UploadStatus;
+import com.learnado.backend.repository.CourseRepository;
+import com.learnado.backend.repository.UploadSessionRepository;
+import com.learnado.backend.service.storage.StorageService;
+import com.learnado.backend.service.storage.StoredFile;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resumable, chunked uploads for large course media. Each session spools to its own file
+ * on local disk; clients send chunks at the current offset and can ask for the offset
+ * again after a dropped connection. Finished files are streamed to the storage backend.
+ */
+@Slf4j
+@Service
+public class UploadSessionService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final CourseRepository courseRepository;
+    private final StorageService storageService;
+    private final Path spoolDir;
+    private final long maxFileBytes;
+    private final long maxChunkBytes;
+    private final long sessionTtlHours;
+
+    // One lock per session so two chunks for the same upload can't interleave. An entry only
+    // lives while someone holds or waits for it, so finished and expired sessions leave none.
+    // A ReentrantLock rather than a monitor: a chunk is written while the request body is still
+    // being read, and a virtual thread blocked inside synchronized would pin its carrier
+    private final Map<String, SessionLock> sessionLocks = new ConcurrentHashMap<>();
+
+    private static final class SessionLock extends ReentrantLock {
+        int holders; // Guarded by the map's compute
+    }
+
+    private interface SessionWork<T> {
+        T run() throws IOException;
+    }
+
+    public UploadSessionService(
+            UploadSessionRepository uploadSessionRepository,
+            CourseRepository courseRepository,
+            StorageService storageService,
+            @Value("${learnado.upload.spool-dir:${java.io.tmpdir}/learnado-uploads}") String spoolDir,
+            @Value("${learnado.upload.max-file-bytes:2147483648}") long maxFileBytes,
+            @Value("${learnado.upload.max-chunk-bytes:16777216}") long maxChunkBytes,
+            @Value("${learnado.upload.session-ttl-hours:24}") long sessionTtlHours) throws IOException {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.courseRepository = courseRepository;
+        this.storageService = storageService;
+        this.spoolDir = Paths.get(spoolDir).toAbsolutePath().normalize();
+        this.maxFileBytes = maxFileBytes;
+        this.maxChunkBytes = maxChunkBytes;
+        this.sessionTtlHours = sessionTtlHours;
+        Files.createDirectories(this.spoolDir);
+    }
+
+    public UploadSession start(UploadSessionRequest request, String email) throws IOException {
+        Course course = courseRepository.findById(request.getCourseId())
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        if (!email.equals(course.getInstructorEmail())) {
+            throw new RuntimeException("You can only upload media for your own courses");
+        }
+        if (request.getTotalBytes() > maxFileBytes) {
+            throw new RuntimeException("File is larger than the " + maxFileBytes + " byte limit");
+        }
+
+        UploadSession session = UploadSession.builder()
+                .ownerEmail(email)
+                .courseId(request.getCourseId())
+                .fileName(request.getFileName())
+                .contentType(request.getContentType())
+                .totalBytes(request.getTotalBytes())
+                .receivedBytes(0L)
+                .status(UploadStatus.IN_PROGRESS)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        session = uploadSessionRepository.save(session);
+        Files.deleteIfExists(spoolFile(session.getId()));
+        Files.createFile(spoolFile(session.getId()));
+        return session;
+    }
+
+    public UploadSession getSession(String id, String email) {
+        UploadSession session = uploadSessionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Upload session not found"));
+        if (!session.getOwnerEmail().equals(email)) {
+            throw new RuntimeException("Upload session not found");
+        }
+        return session;
+    }
+
+    // Write one chunk starting at offset; the offset must match what we've already received
+    public UploadSession appendChunk(String id, long offset, InputStream body, String email) throws IOException {
+        return withSessionLock(id, () -> writeChunk(id, offset, body, email));
+    }
+
+    private UploadSession writeChunk(String id, long offset, InputStream body, String email) throws IOException {
+        UploadSession session = getSession(id, email);
+        if (session.getStatus() != UploadStatus.IN_PROGRESS) {
+            throw new RuntimeException("Upload session is " + session.getStatus());
+        }
+        if (offset != session.getReceivedBytes()) {
+            throw new RuntimeException("Chunk offset " + offset + " does not match expected offset "
+                    + session.getReceivedBytes());
+        }
+
+        long allowed = Math.min(maxChunkBytes, session.getTotalBytes() - offset);
+        long written;
+        try (FileChannel channel = FileChannel.open(spoolFile(id), StandardOpenOption.WRITE)) {
+            // Drop any tail left behind by a chunk that failed half way through
+            channel.truncate(offset);
+            ReadableByteChannel source = Channels.newChannel(body);
+            written = 0;
+            while (written < allowed) {
+                long n = channel.transferFrom(source, offset + written, allowed - written);
+                if (n <= 0) break;
+                written += n;
+            }
+        }
+        if (body.read() != -1) {
+            throw new RuntimeException("Chunk is larger than " + allowed + " bytes");
+        }
+
+        session.setReceivedBytes(offset + written);
+        session.setUpdatedAt(LocalDateTime.now());
+        return uploadSessionRepository.save(session);
+    }
+
+    // All bytes are in: stream the spooled file to storage and clean up
+    public UploadSession complete(String id, String email) throws IOException {
+        return withSessionLock(id, () -> finish(id, email));
+    }
+
+    private UploadSession finish(String id, String email) throws IOException {
+        UploadSession session = getSession(id, email);
+        if (session.getStatus() == UploadStatus.COMPLETED) {
+            return session;
+        }
+        if (!session.getReceivedBytes().equals(session.getTotalBytes())) {
+            throw new RuntimeException("Upload incomplete: received " + session.getReceivedBytes()
+                    + " of " + session.getTotalBytes() + " bytes");
+        }
+
+        String key = "courses/" + session.getCourseId() + "/media/" + UUID.randomUUID()
+                + FileService.extensionOf(session.getFileName());
+        Path spool = spoolFile(id);
+        StoredFile stored;
+        try (InputStream in = Files.newInputStream(spool)) {
+            stored = storageService.store(key, in, session.getTotalBytes(), session.getContentType());
+        }
+        Files.deleteIfExists(spool);
+
+        session.setStatus(UploadStatus.COMPLETED);
+        session.setStorageKey(stored.getKey());
+        session.setUrl(stored.getUrl());
+        session.setUpdatedAt(LocalDateTime.now());
+        return uploadSessionRepository.save(session);
+    }
+
+    // Remove spool files for sessions that were abandoned
+    @Scheduled(initialDelayString = "${learnado.upload.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${learnado.upload.cleanup-interval-ms:3600000}")
+    public void expireStaleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        for (UploadSession stale : uploadSessionRepository.findByStatusAndUpdatedAtBefore(UploadStatus.IN_PROGRESS, cutoff)) {
+            try {
+                withSessionLock(stale.getId(), () -> expire(stale.getId(), cutoff));
+            } catch (IOException e) {
+                log.warn("Could not expire upload {}: {}", stale.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private UploadSession expire(String id, LocalDateTime cutoff) {
+        // Re-read under the lock: a chunk may have arrived since the query
+        UploadSession session = uploadSessionRepository.findById(id).orElse(null);
+        if (session == null || session.getStatus() != UploadStatus.IN_PROGRESS || !session.getUpdatedAt().isBefore(cutoff)) {
+            return session;
+        }
+        try {
+            Files.deleteIfExists(spoolFile(id));
+        } catch (IOException e) {
+            log.warn("Could not delete spool file for upload {}: {}", id, e.getMessage());
+        }
+        session.setStatus(UploadStatus.EXPIRED);
+        session.setUpdatedAt(LocalDateTime.now());
+        return uploadSessionRepository.save(session);
+    }
+
+    private <T> T withSessionLock(String id, SessionWork<T> work) throws IOException {
+        SessionLock lock = sessionLocks.compute(id, (key, existing) -> {
+            SessionLock held = existing == null ? new SessionLock() : existing;
+            held.holders++;
+            return held;
+        });
+        lock.lock();
+        try {
+            return work.run();
+        } finally {
+            lock.unlock();
+            // The last holder removes the entry
+            sessionLocks.computeIfPresent(id, (key, held) -> --held.holders == 0 ? null : held);
+        }
+    }
+
+    private Path spoolFile(String id) {
+        return spoolDir.resolve(id + ".part");
+    }
+}
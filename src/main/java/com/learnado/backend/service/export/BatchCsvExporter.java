@@ -0,0 +1,87 @@
+package com.learnado.backend.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.model.ExportType;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.util.CsvWriter;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes a batch's roster or attendance as CSV straight from a Mongo cursor: documents are
+ * fetched cursorBatchSize at a time and written as they arrive, so memory use doesn't
+ * depend on the batch size. Both queries use the batchId indexes.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchCsvExporter {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Returns the number of data rows written; the caller owns (and closes) the stream
+    public long write(ExportType type, String batchId, OutputStream out) throws IOException {
+        return switch (type) {
+            case ROSTER -> writeRoster(batchId, out);
+            case ATTENDANCE -> writeAttendance(batchId, out);
+        };
+    }
+
+    private long writeRoster(String batchId, OutputStream out) throws IOException {
+        Query query = Query.query(Criteria.where("batchId").is(batchId)).cursorBatchSize(CURSOR_BATCH_SIZE);
+        query.fields().include("studentEmail", "enrolledAt", "status");
+
+        CsvWriter csv = new CsvWriter(out);
+        csv.row("studentEmail", "enrolledAt", "status");
+        long rows = 0;
+        try (Stream<Enrollment> enrollments = mongoTemplate.stream(query, Enrollment.class)) {
+            for (Iterator<Enrollment> it = enrollments.iterator(); it.hasNext(); ) {
+                Enrollment enrollment = it.next();
+                csv.row(enrollment.getStudentEmail(), enrollment.getEnrolledAt(), enrollment.getStatus());
+                rows++;
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+
+    // Lectures without attendees still get a row (with an empty student) so none go missing
+    private long writeAttendance(String batchId, OutputStream out) throws IOException {
+        Query query = Query.query(Criteria.where("batchId").is(batchId))
+                .with(Sort.by(Sort.Direction.ASC, "scheduledAt"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        query.fields().include("title", "scheduledAt", "status", "joinedStudents");
+
+        CsvWriter csv = new CsvWriter(out);
+        csv.row("lectureId", "lectureTitle", "scheduledAt", "lectureStatus", "studentEmail");
+        long rows = 0;
+        try (Stream<LiveLecture> lectures = mongoTemplate.stream(query, LiveLecture.class)) {
+            for (Iterator<LiveLecture> it = lectures.iterator(); it.hasNext(); ) {
+                LiveLecture lecture = it.next();
+                if (lecture.getJoinedStudents() == null || lecture.getJoinedStudents().isEmpty()) {
+                    csv.row(lecture.getId(), lecture.getTitle(), lecture.getScheduledAt(), lecture.getStatus(), null);
+                    rows++;
+                    continue;
+                }
+                for (String student : lecture.getJoinedStudents()) {
+                    csv.row(lecture.getId(), lecture.getTitle(), lecture.getScheduledAt(), lecture.getStatus(), student);
+                    rows++;
+                }
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+}
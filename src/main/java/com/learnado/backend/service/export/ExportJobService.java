@@ -0,0 +1,201 @@
+package com.learnado.backend.service.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.ExportJob;
+import com.learnado.backend.model.ExportStatus;
+import com.learnado.backend.model.ExportType;
+import com.learnado.backend.repository.ExportJobRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background CSV exports for batches too large to stream within one request. A small pool
+ * writes the gzipped CSV into {@code learnado.export.root} and marks the job DONE. That
+ * directory is kept apart from media storage, so the only way to a file is the owner's
+ * download through {@code ExportController}; it is deleted when the job expires. Jobs left
+ * QUEUED or RUNNING by a restart are marked FAILED once the app is up.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    private final ExportJobRepository exportJobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final BatchCsvExporter exporter;
+    private final Path root;
+    private final Duration retention;
+    private final long streamTimeoutMillis;
+    private final int maxSyncStudents;
+    private final ThreadPoolExecutor executor;
+
+    public ExportJobService(
+            ExportJobRepository exportJobRepository,
+            MongoTemplate mongoTemplate,
+            BatchCsvExporter exporter,
+            @Value("${learnado.export.root:./data/exports}") String root,
+            @Value("${learnado.export.workers:2}") int workers,
+            @Value("${learnado.export.queue-capacity:20}") int queueCapacity,
+            @Value("${learnado.export.retention-hours:24}") long retentionHours,
+            @Value("${learnado.export.max-sync-students:20000}") int maxSyncStudents,
+            @Value("${learnado.export.stream-timeout-ms:600000}") long streamTimeoutMillis) throws IOException {
+        this.exportJobRepository = exportJobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.exporter = exporter;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.retention = Duration.ofHours(retentionHours);
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.maxSyncStudents = maxSyncStudents;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("export-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        Files.createDirectories(this.root);
+    }
+
+    // How long an export response may keep streaming (other async requests keep the default)
+    public long streamTimeoutMillis() {
+        return streamTimeoutMillis;
+    }
+
+    // The pool's queue doesn't survive a restart, so those jobs will never finish
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterrupted() {
+        try {
+            long failed = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("status").in(ExportStatus.QUEUED, ExportStatus.RUNNING)),
+                    new Update()
+                            .set("status", ExportStatus.FAILED)
+                            .set("error", "Interrupted by a server restart, please start the export again")
+                            .set("finishedAt", Instant.now()),
+                    ExportJob.class).getModifiedCount();
+            if (failed > 0) {
+                log.info("Marked {} interrupted export jobs as failed", failed);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not fail interrupted export jobs: {}", e.getMessage());
+        }
+    }
+
+    // Batches this large are only exported in the background, not within a request
+    public boolean needsJob(Batch batch) {
+        return batch.getEnrolledCount() != null && batch.getEnrolledCount() > maxSyncStudents;
+    }
+
+    public ExportJob start(ExportType type, String batchId, String ownerEmail) {
+        ExportJob job = exportJobRepository.save(ExportJob.builder()
+                .ownerEmail(ownerEmail)
+                .batchId(batchId)
+                .type(type)
+                .status(ExportStatus.QUEUED)
+                .createdAt(Instant.now())
+                .build());
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            exportJobRepository.delete(job);
+            throw new RuntimeException("Too many exports in progress, try again later");
+        }
+        return job;
+    }
+
+    public InputStream openDownload(ExportJob job) throws IOException {
+        return Files.newInputStream(resolve(job.getStorageKey()));
+    }
+
+    private void run(ExportJob job) {
+        job.setStatus(ExportStatus.RUNNING);
+        exportJobRepository.save(job);
+
+        Path spool = null;
+        try {
+            // Spooled next to the final file so the move into place is atomic
+            spool = Files.createTempFile(root, ".export-" + job.getId() + "-", ".part");
+            long rows;
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(spool), 64 * 1024)) {
+                rows = exporter.write(job.getType(), job.getBatchId(), out);
+            }
+            long bytes = Files.size(spool);
+            String key = job.getId() + ".csv.gz";
+            Files.move(spool, resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.setStorageKey(key);
+            job.setRows(rows);
+            job.setBytes(bytes);
+            job.setStatus(ExportStatus.DONE);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export {} of batch {} failed: {}", job.getType(), job.getBatchId(), e.getMessage());
+            job.setStatus(ExportStatus.FAILED);
+            job.setError(e.getMessage());
+        } finally {
+            job.setFinishedAt(Instant.now());
+            exportJobRepository.save(job);
+            if (spool != null) {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    log.warn("Could not delete export spool {}: {}", spool, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Drop expired jobs and their files
+    @Scheduled(initialDelayString = "${learnado.export.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${learnado.export.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        for (ExportJob job : exportJobRepository.findByCreatedAtBefore(Instant.now().minus(retention))) {
+            if (job.getStorageKey() != null) {
+                try {
+                    Files.deleteIfExists(resolve(job.getStorageKey()));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not delete export file {}: {}", job.getStorageKey(), e.getMessage());
+                    continue;
+                }
+            }
+            exportJobRepository.delete(job);
+        }
+    }
+
+    // Export file for a key, refusing anything outside the export root
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new RuntimeException("Invalid export key: " + key);
+        }
+        return path;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.learnado.backend.service.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One fixed-size, memory-mapped journal file. Records are laid out as
+ * {@code [int length][long timestampMillis][length bytes of JSON]}; the file starts zero-filled,
+ * so a length of 0 marks the end. The length is written last, which makes it the commit
+ * marker for readers of the active segment.
+ */
+class JournalSegment {
+
+    static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    final int number;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private JournalSegment(int number, FileChannel channel, MappedByteBuffer buffer, int position) {
+        this.number = number;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    static Path fileName(Path dir, int number) {
+        return dir.resolve(String.format("%08d.seg", number));
+    }
+
+    // Opens (or creates) a segment and finds where its records end
+    static JournalSegment open(Path dir, int number, int size) throws IOException {
+        FileChannel channel = FileChannel.open(fileName(dir, number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new JournalSegment(number, channel, buffer, endOf(buffer, 0));
+    }
+
+    // Position after the last complete record, scanning from the given position
+    static int endOf(ByteBuffer buffer, int from) {
+        int position = from;
+        while (position + HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.limit()) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    boolean fits(int payloadBytes) {
+        return position + HEADER_BYTES + payloadBytes <= buffer.capacity();
+    }
+
+    int position() {
+        return position;
+    }
+
+    // Timestamp of the last record at or after the given record start, or -1 if there is none
+    long lastTimestamp(int from) {
+        long timestamp = -1;
+        for (int at = from; at < position; at += HEADER_BYTES + buffer.getInt(at)) {
+            timestamp = buffer.getLong(at + Integer.BYTES);
+        }
+        return timestamp;
+    }
+
+    // Caller checked fits(); returns the position the record was written at
+    int append(long timestamp, byte[] payload) {
+        int start = position;
+        buffer.putLong(start + Integer.BYTES, timestamp);
+        buffer.put(start + HEADER_BYTES, payload);
+        buffer.putInt(start, payload.length);
+        position = start + HEADER_BYTES + payload.length;
+        return start;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    // The segment must not be used afterwards: its buffer is unmapped
+    void close() throws IOException {
+        try {
+            buffer.force();
+        } finally {
+            try {
+                channel.close();
+            } finally {
+                MappedBuffers.unmap(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.learnado.backend.service.journal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.repository.LiveLectureRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of everything that happens in a lecture room, one directory per
+ * lecture under {@code learnado.journal.root}, written through memory-mapped segments.
+ *
+ * {@link #record} only puts the event on a bounded queue (events are dropped and counted
+ * when it is full), so the signaling thread never waits on disk. A single writer thread
+ * drains the queue in batches, appends each event to its lecture's active segment and then
+ * forces every touched segment once per batch (group commit). A sparse index of
+ * (timestamp, segment, position) entries lets {@link #replay} start near a point in time
+ * without scanning the whole log.
+ *
+ * Timestamps are taken by the writer as it appends, so they never go backwards within a
+ * lecture and replay can stop at the first one past its range. A lecture's directory is
+ * only created once the lecture is found in Mongo. The writer also sweeps the root now and
+ * then, deleting journals untouched for {@code retention-days} and then the oldest ones
+ * while the total is over {@code max-total-bytes}.
+ */
+@Slf4j
+@Service
+public class LectureJournal {
+
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String INDEX_FILE = "index";
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int MAX_BATCH = 1024;
+
+    private final Path root;
+    private final boolean enabled;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final boolean sync;
+    private final long idleMillis;
+    private final long retentionMillis;
+    private final long maxTotalBytes;
+    private final LiveLectureRepository liveLectureRepository;
+
+    private final BlockingQueue<Entry> queue;
+    private final Counter droppedCounter;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Only touched by the writer thread
+    private final Map<String, LectureLog> open = new HashMap<>();
+    // Ids Mongo didn't know, so their events don't each cost a lookup; cleared by the idle check
+    private final Set<String> unknown = new HashSet<>();
+
+    public LectureJournal(
+            MeterRegistry meterRegistry,
+            LiveLectureRepository liveLectureRepository,
+            @Value("${learnado.journal.root:./data/journal}") String root,
+            @Value("${learnado.journal.enabled:true}") boolean enabled,
+            @Value("${learnado.journal.queue-capacity:65536}") int queueCapacity,
+            @Value("${learnado.journal.segment-bytes:8388608}") int segmentBytes,
+            @Value("${learnado.journal.index-interval-bytes:65536}") int indexIntervalBytes,
+            @Value("${learnado.journal.sync:true}") boolean sync,
+            @Value("${learnado.journal.idle-close-minutes:5}") long idleCloseMinutes,
+            @Value("${learnado.journal.retention-days:90}") long retentionDays,
+            @Value("${learnado.journal.max-total-bytes:10737418240}") long maxTotalBytes) throws IOException {
+        this.liveLectureRepository = liveLectureRepository;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.segmentBytes = segmentBytes;
+        this.indexIntervalBytes = indexIntervalBytes;
+        this.sync = sync;
+        this.idleMillis = idleCloseMinutes * 60_000;
+        this.retentionMillis = retentionDays * 86_400_000;
+        this.maxTotalBytes = maxTotalBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(this.root);
+
+        Gauge.builder("journal.queue.depth", queue, BlockingQueue::size)
+                .description("Room events waiting to be written to the lecture journal")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("journal.dropped")
+                .description("Room events dropped because the journal queue was full")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "lecture-journal");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    // Never blocks: if the writer has fallen this far behind, the event is dropped
+    public void record(String lectureId, String json) {
+        if (!enabled || !SAFE_ID.matcher(lectureId).matches()) {
+            return;
+        }
+        Entry entry = new Entry(lectureId, json.getBytes(StandardCharsets.UTF_8));
+        if (!queue.offer(entry)) {
+            droppedCounter.increment();
+        }
+    }
+
+    public boolean exists(String lectureId) {
+        return SAFE_ID.matcher(lectureId).matches() && Files.isDirectory(root.resolve(lectureId));
+    }
+
+    /**
+     * Writes the lecture's events with {@code from <= timestamp < to} as NDJSON lines of the
+     * form {@code {"ts":<millis>,"event":<event>}}. Events still on the queue aren't included.
+     */
+    public void replay(String lectureId, long from, long to, OutputStream out) throws IOException {
+        if (!exists(lectureId)) {
+            return;
+        }
+        Path dir = root.resolve(lectureId);
+        long[] start = seek(dir, from);
+        int startSegment = (int) start[0];
+        int startPosition = (int) start[1];
+
+        List<Integer> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".seg"))
+                    .map(name -> Integer.parseInt(name.substring(0, name.length() - 4)))
+                    .filter(number -> number >= startSegment)
+                    .sorted()
+                    .toList();
+        }
+
+        byte[] prefix = "{\"ts\":".getBytes(StandardCharsets.US_ASCII);
+        byte[] middle = ",\"event\":".getBytes(StandardCharsets.US_ASCII);
+        byte[] suffix = "}\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] payload = new byte[0];
+        for (int number : segments) {
+            try (FileChannel channel = FileChannel.open(JournalSegment.fileName(dir, number), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                try {
+                    int position = number == startSegment ? startPosition : 0;
+                    int end = JournalSegment.endOf(buffer, position);
+                    while (position < end) {
+                        int length = buffer.getInt(position);
+                        long timestamp = buffer.getLong(position + Integer.BYTES);
+                        if (timestamp >= to) {
+                            return;
+                        }
+                        if (timestamp >= from) {
+                            if (payload.length < length) {
+                                payload = new byte[Math.max(length, payload.length * 2)];
+                            }
+                            buffer.get(position + JournalSegment.HEADER_BYTES, payload, 0, length);
+                            out.write(prefix);
+                            out.write(Long.toString(timestamp).getBytes(StandardCharsets.US_ASCII));
+                            out.write(middle);
+                            out.write(payload, 0, length);
+                            out.write(suffix);
+                        }
+                        position += JournalSegment.HEADER_BYTES + length;
+                    }
+                } finally {
+                    MappedBuffers.unmap(buffer);
+                }
+            }
+        }
+    }
+
+    // Latest index entry strictly before the given time, as {segment, position}; strictly,
+    // because events in the same millisecond may sit before an entry with that timestamp
+    private long[] seek(Path dir, long from) throws IOException {
+        Path indexFile = dir.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return new long[]{0, 0};
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                int entries = (int) (channel.size() / INDEX_ENTRY_BYTES);
+                int low = 0;
+                int high = entries - 1;
+                int found = -1;
+                while (low <= high) {
+                    int mid = (low + high) >>> 1;
+                    if (index.getLong(mid * INDEX_ENTRY_BYTES) < from) {
+                        found = mid;
+                        low = mid + 1;
+                    } else {
+                        high = mid - 1;
+                    }
+                }
+                if (found < 0) {
+                    return new long[]{0, 0};
+                }
+                int offset = found * INDEX_ENTRY_BYTES;
+                return new long[]{index.getInt(offset + Long.BYTES), index.getInt(offset + Long.BYTES + Integer.BYTES)};
+            } finally {
+                MappedBuffers.unmap(index);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        Set<LectureLog> touched = new LinkedHashSet<>();
+        long lastIdleCheck = System.currentTimeMillis();
+        long lastSweep = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    for (Entry entry : batch) {
+                        LectureLog lectureLog = append(entry);
+                        if (lectureLog != null) {
+                            touched.add(lectureLog);
+                        }
+                    }
+                    // Group commit: one force per touched lecture for the whole batch
+                    for (LectureLog lectureLog : touched) {
+                        lectureLog.commit();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                log.error("Lecture journal write failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+                touched.clear();
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastIdleCheck > 30_000) {
+                lastIdleCheck = now;
+                closeIdle(now);
+                unknown.clear();
+            }
+            if (now - lastSweep > 3_600_000) {
+                lastSweep = now;
+                sweep(now);
+            }
+        }
+        open.values().forEach(LectureLog::closeQuietly);
+        open.clear();
+    }
+
+    private LectureLog append(Entry entry) throws IOException {
+        if (entry.payload.length > segmentBytes - JournalSegment.HEADER_BYTES) {
+            log.warn("Dropping {} byte journal event for lecture {}", entry.payload.length, entry.lectureId);
+            return null;
+        }
+        LectureLog lectureLog = open.get(entry.lectureId);
+        if (lectureLog == null) {
+            Path dir = root.resolve(entry.lectureId);
+            if (!Files.isDirectory(dir) && !isKnownLecture(entry.lectureId)) {
+                return null;
+            }
+            lectureLog = LectureLog.open(dir, segmentBytes, sync);
+            open.put(entry.lectureId, lectureLog);
+        }
+        lectureLog.append(entry, segmentBytes, indexIntervalBytes);
+        return lectureLog;
+    }
+
+    private boolean isKnownLecture(String lectureId) {
+        if (unknown.contains(lectureId)) {
+            return false;
+        }
+        if (liveLectureRepository.existsById(lectureId)) {
+            return true;
+        }
+        log.warn("Not journaling events for unknown lecture {}", lectureId);
+        unknown.add(lectureId);
+        return false;
+    }
+
+    // Deletes closed journals past the retention age, then the oldest while over the size cap
+    private void sweep(long now) {
+        List<JournalDir> dirs = new ArrayList<>();
+        try (Stream<Path> children = Files.list(root)) {
+            for (Path dir : (Iterable<Path>) children::iterator) {
+                String lectureId = dir.getFileName().toString();
+                if (Files.isDirectory(dir) && !open.containsKey(lectureId)) {
+                    dirs.add(JournalDir.of(dir));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Lecture journal sweep failed: {}", e.getMessage());
+            return;
+        }
+
+        long total = dirs.stream().mapToLong(JournalDir::bytes).sum();
+        for (LectureLog lectureLog : open.values()) {
+            total += JournalDir.of(lectureLog.dir).bytes();
+        }
+        dirs.sort(Comparator.comparingLong(JournalDir::lastModified));
+        int deleted = 0;
+        for (JournalDir dir : dirs) {
+            if (now - dir.lastModified() < retentionMillis && total <= maxTotalBytes) {
+                break;
+            }
+            if (delete(dir.path())) {
+                total -= dir.bytes();
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Lecture journal sweep deleted {} journals", deleted);
+        }
+    }
+
+    private boolean delete(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not delete journal {}: {}", dir, e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeIdle(long now) {
+        open.values().removeIf(lectureLog -> {
+            if (now - lectureLog.lastAppend < idleMillis) {
+                return false;
+            }
+            lectureLog.closeQuietly();
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(5_000);
+    }
+
+    private record Entry(String lectureId, byte[] payload) {
+    }
+
+    // A lecture's journal on disk: total size and newest file time
+    private record JournalDir(Path path, long bytes, long lastModified) {
+
+        static JournalDir of(Path dir) {
+            long bytes = 0;
+            long lastModified = 0;
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    bytes += attributes.size();
+                    lastModified = Math.max(lastModified, attributes.lastModifiedTime().toMillis());
+                }
+            } catch (IOException e) {
+                log.debug("Could not read journal {}: {}", dir, e.getMessage());
+            }
+            return new JournalDir(dir, bytes, lastModified);
+        }
+    }
+
+    // A lecture's active segment plus its index file; writer thread only
+    private static class LectureLog {
+        final Path dir;
+        final FileChannel indexChannel;
+        final boolean sync;
+        final ByteBuffer pendingIndex = ByteBuffer.allocate(INDEX_ENTRY_BYTES * 64);
+        JournalSegment segment;
+        int lastIndexedPosition = -1; // -1: index the next record (first one after open or roll)
+        long lastAppend = System.currentTimeMillis();
+        long lastTimestamp;
+
+        private LectureLog(Path dir, FileChannel indexChannel, JournalSegment segment, boolean sync) {
+            this.dir = dir;
+            this.indexChannel = indexChannel;
+            this.segment = segment;
+            this.sync = sync;
+        }
+
+        static LectureLog open(Path dir, int segmentBytes, boolean sync) throws IOException {
+            Files.createDirectories(dir);
+            int last;
+            try (Stream<Path> files = Files.list(dir)) {
+                last = files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(".seg"))
+                        .mapToInt(name -> Integer.parseInt(name.substring(0, name.length() - 4)))
+                        .max()
+                        .orElse(0);
+            }
+            FileChannel indexChannel = FileChannel.open(dir.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // A crash can leave half an entry at the end; drop it so new entries stay aligned
+                long entries = indexChannel.size() / INDEX_ENTRY_BYTES;
+                indexChannel.truncate(entries * INDEX_ENTRY_BYTES);
+                indexChannel.position(entries * INDEX_ENTRY_BYTES);
+                LectureLog lectureLog = new LectureLog(dir, indexChannel, JournalSegment.open(dir, last, segmentBytes), sync);
+                lectureLog.lastTimestamp = lectureLog.restoreLastTimestamp(entries);
+                return lectureLog;
+            } catch (IOException | RuntimeException e) {
+                indexChannel.close();
+                throw e;
+            }
+        }
+
+        // Where appends left off, so a lecture reopened after a restart or an idle close keeps
+        // its timestamps in order: the newest index entry, then the records after it
+        private long restoreLastTimestamp(long entries) throws IOException {
+            if (entries == 0) {
+                return segment.lastTimestamp(0);
+            }
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+            long offset = (entries - 1) * INDEX_ENTRY_BYTES;
+            while (entry.hasRemaining()) {
+                if (indexChannel.read(entry, offset + entry.position()) < 0) {
+                    return segment.lastTimestamp(0);
+                }
+            }
+            entry.flip();
+            long timestamp = entry.getLong();
+            int indexedSegment = entry.getInt();
+            int position = entry.getInt();
+            // The entry may point into an older segment, or past what reached the disk
+            int from = indexedSegment == segment.number && position <= segment.position() ? position : 0;
+            return Math.max(timestamp, segment.lastTimestamp(from));
+        }
+
+        void append(Entry entry, int segmentBytes, int indexIntervalBytes) throws IOException {
+            if (!segment.fits(entry.payload.length)) {
+                // Swap first: the full segment is unmapped on close and must not stay reachable
+                JournalSegment full = segment;
+                segment = JournalSegment.open(dir, full.number + 1, segmentBytes);
+                lastIndexedPosition = -1;
+                try {
+                    full.close();
+                } catch (IOException e) {
+                    log.warn("Could not close journal segment {} in {}: {}", full.number, dir, e.getMessage());
+                }
+            }
+            // Stamped here, in append order; a clock step backwards can't reorder the log
+            long now = System.currentTimeMillis();
+            long timestamp = Math.max(now, lastTimestamp);
+            int position = segment.append(timestamp, entry.payload);
+            if (lastIndexedPosition < 0 || position - lastIndexedPosition >= indexIntervalBytes) {
+                if (pendingIndex.remaining() < INDEX_ENTRY_BYTES) {
+                    writeIndex();
+                }
+                pendingIndex.putLong(timestamp).putInt(segment.number).putInt(position);
+                lastIndexedPosition = position;
+            }
+            lastTimestamp = timestamp;
+            lastAppend = now;
+        }
+
+        void commit() throws IOException {
+            writeIndex();
+            if (sync) {
+                segment.force();
+                indexChannel.force(false);
+            }
+        }
+
+        private void writeIndex() throws IOException {
+            pendingIndex.flip();
+            while (pendingIndex.hasRemaining()) {
+                indexChannel.write(pendingIndex);
+            }
+            pendingIndex.clear();
+        }
+
+        void closeQuietly() {
+            try {
+                commit();
+            } catch (IOException e) {
+                log.warn("Could not commit journal in {}: {}", dir, e.getMessage());
+            }
+            try {
+                try {
+                    segment.close();
+                } finally {
+                    indexChannel.close();
+                }
+            } catch (IOException e) {
+                log.warn("Could not close journal in {}: {}", dir, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.learnado.backend.service.journal;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Releases a file mapping as soon as we are done with it instead of whenever the buffer is
+ * garbage collected. Until then every closed segment still holds its address space and page
+ * cache, and its file can't be deleted on some platforms. Java 17 has no public unmap, so
+ * this goes through {@code sun.misc.Unsafe.invokeCleaner} (module jdk.unsupported); if that
+ * is unavailable the mapping is left to the GC as before. A buffer must not be touched after
+ * it has been unmapped, so only pass buffers nothing else still references.
+ */
+@Slf4j
+final class MappedBuffers {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("Journal mappings will be released by the GC: {}", e.toString());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private MappedBuffers() {
+    }
+
+    static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not unmap journal buffer: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.learnado.backend.service.mail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.model.EmailStatus;
+import com.learnado.backend.model.OutboundEmail;
+import com.learnado.backend.repository.OutboundEmailRepository;
+import com.learnado.backend.util.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the outbound_emails queue. Each run picks due emails, keeps as many per domain as
+ * the domain's rate limit allows, claims those (so several instances never send the same
+ * one) and sends them over a single SMTP connection, recording each email's outcome as soon
+ * as it is sent.
+ * Failures are retried with exponential backoff and jitter up to {@code max-attempts}.
+ */
+@Slf4j
+@Service
+public class EmailDispatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final MailBatchSender mailBatchSender;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long baseBackoffSeconds;
+    private final long maxBackoffSeconds;
+    private final long claimTimeoutMinutes;
+    private final double defaultRate;
+    private final Map<String, Double> domainRates = new HashMap<>();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public EmailDispatcher(
+            MongoTemplate mongoTemplate,
+            MailBatchSender mailBatchSender,
+            OutboundEmailRepository outboundEmailRepository,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.mail.batch-size:100}") int batchSize,
+            @Value("${learnado.mail.max-attempts:6}") int maxAttempts,
+            @Value("${learnado.mail.backoff-base-seconds:30}") long baseBackoffSeconds,
+            @Value("${learnado.mail.backoff-max-seconds:3600}") long maxBackoffSeconds,
+            @Value("${learnado.mail.claim-timeout-minutes:10}") long claimTimeoutMinutes,
+            @Value("${learnado.mail.rate-per-second:5}") double defaultRate,
+            @Value("${learnado.mail.domain-rates:}") String domainRates) {
+        this.mongoTemplate = mongoTemplate;
+        this.mailBatchSender = mailBatchSender;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.claimTimeoutMinutes = claimTimeoutMinutes;
+        this.defaultRate = defaultRate;
+        // "gmail.com:20,outlook.com:10"
+        for (String entry : domainRates.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2) {
+                this.domainRates.put(parts[0].trim().toLowerCase(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+
+        Gauge.builder("mail.queue.pending", outboundEmailRepository, repository -> repository.countByStatus(EmailStatus.PENDING))
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("mail.retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.mail.dispatch-interval-ms:2000}")
+    public void dispatch() {
+        if (!mailBatchSender.isAvailable()) {
+            return;
+        }
+        try {
+            releaseStaleClaims();
+            // Keep going while batches come back full, but let other scheduled work run eventually
+            for (int round = 0; round < 10; round++) {
+                if (dispatchBatch() < batchSize) break;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Email dispatch skipped: {}", e.getMessage());
+        }
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        String claim = UUID.randomUUID().toString();
+
+        // 1. Pick due emails, skipping domains whose rate limit has no room right now
+        Criteria dueCriteria = Criteria.where("status").is(EmailStatus.PENDING).and("nextAttemptAt").lte(now);
+        Set<String> exhausted = exhaustedDomains();
+        if (!exhausted.isEmpty()) {
+            dueCriteria.and("domain").nin(exhausted);
+        }
+        Query due = Query.query(dueCriteria).with(Sort.by("nextAttemptAt")).limit(batchSize);
+        due.fields().include("id", "domain");
+        List<OutboundEmail> candidates = mongoTemplate.find(due, OutboundEmail.class);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        // 2. Per-domain rate limits: only what the bucket allows is claimed, the rest stays PENDING untouched
+        Map<String, List<String>> byDomain = new LinkedHashMap<>();
+        candidates.forEach(email -> byDomain.computeIfAbsent(email.getDomain(), k -> new ArrayList<>()).add(email.getId()));
+        Map<String, Integer> granted = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        byDomain.forEach((domain, domainIds) -> {
+            int tokens = bucket(domain).tryAcquire(domainIds.size());
+            granted.put(domain, tokens);
+            ids.addAll(domainIds.subList(0, tokens));
+        });
+        if (ids.isEmpty()) {
+            return candidates.size();
+        }
+
+        // 3. Claim them; the status condition makes the claim exclusive
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("id").in(ids).and("status").is(EmailStatus.PENDING)),
+                new Update().set("status", EmailStatus.SENDING).set("claimedBy", claim).set("claimedAt", now),
+                OutboundEmail.class);
+        List<OutboundEmail> claimed = mongoTemplate.find(
+                Query.query(Criteria.where("claimedBy").is(claim).and("status").is(EmailStatus.SENDING)),
+                OutboundEmail.class);
+        // Tokens for emails another dispatcher claimed first go back to the bucket
+        Map<String, Integer> claimedByDomain = new HashMap<>();
+        claimed.forEach(email -> claimedByDomain.merge(email.getDomain(), 1, Integer::sum));
+        granted.forEach((domain, tokens) -> bucket(domain).refund(tokens - claimedByDomain.getOrDefault(domain, 0)));
+
+        // 4. One SMTP session for the whole batch; each outcome is written as soon as it is known
+        int[] failed = {0};
+        String[] firstError = {null};
+        mailBatchSender.send(claimed, (email, error) -> {
+            if (error != null) {
+                failed[0]++;
+                if (firstError[0] == null) {
+                    firstError[0] = error;
+                }
+            }
+            record(email, claim, error);
+        });
+        if (failed[0] > 0) {
+            log.warn("{} of {} emails failed, first error: {}", failed[0], claimed.size(), firstError[0]);
+        }
+        return candidates.size();
+    }
+
+    private void record(OutboundEmail email, String claim, String error) {
+        Query claimedEmail = Query.query(Criteria.where("id").is(email.getId()).and("claimedBy").is(claim));
+        Update update;
+        if (error == null) {
+            sentCounter.increment();
+            update = new Update()
+                    .set("status", EmailStatus.SENT)
+                    .set("sentAt", LocalDateTime.now())
+                    .unset("claimedBy");
+        } else {
+            int attempts = (email.getAttempts() == null ? 0 : email.getAttempts()) + 1;
+            boolean giveUp = attempts >= maxAttempts;
+            (giveUp ? failedCounter : retriedCounter).increment();
+            update = new Update()
+                    .set("status", giveUp ? EmailStatus.FAILED : EmailStatus.PENDING)
+                    .set("attempts", attempts)
+                    .set("nextAttemptAt", LocalDateTime.now().plusSeconds(backoffSeconds(attempts)))
+                    .set("lastError", error)
+                    .unset("claimedBy");
+        }
+        try {
+            mongoTemplate.updateFirst(claimedEmail, update, OutboundEmail.class);
+        } catch (DataAccessException e) {
+            // Left SENDING; the stale-claim release hands it back later
+            log.error("Could not record outcome of email {}: {}", email.getId(), e.getMessage());
+        }
+    }
+
+    // Domains whose bucket is empty; their due emails are left out of the next pick
+    private Set<String> exhaustedDomains() {
+        Set<String> exhausted = new HashSet<>();
+        buckets.forEach((domain, bucket) -> {
+            if (bucket.millisUntilAvailable() > 0) {
+                exhausted.add(domain);
+            }
+        });
+        return exhausted;
+    }
+
+    // A dispatcher that died mid-send leaves emails SENDING; hand them back after a while
+    private void releaseStaleClaims() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("status").is(EmailStatus.SENDING)
+                        .and("claimedAt").lt(LocalDateTime.now().minusMinutes(claimTimeoutMinutes))),
+                new Update().set("status", EmailStatus.PENDING).unset("claimedBy"),
+                OutboundEmail.class);
+    }
+
+    private TokenBucket bucket(String domain) {
+        return buckets.computeIfAbsent(domain, d -> {
+            double rate = domainRates.getOrDefault(d, defaultRate);
+            return new TokenBucket(Math.max(1, rate), rate);
+        });
+    }
+
+    // base * 2^(attempt-1), capped, with +-20% jitter so retries from one outage spread out
+    private long backoffSeconds(int attempt) {
+        long backoff = Math.min(maxBackoffSeconds, baseBackoffSeconds << Math.min(attempt - 1, 20));
+        return Math.max(1, (long) (backoff * ThreadLocalRandom.current().nextDouble(0.8, 1.2)));
+    }
+}
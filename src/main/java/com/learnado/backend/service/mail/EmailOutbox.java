@@ -0,0 +1,116 @@
+package com.learnado.backend.service.mail;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.event.LectureReminderEvent;
+import com.learnado.backend.model.EmailStatus;
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.model.OutboundEmail;
+import com.learnado.backend.repository.EnrollmentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns lecture reminders and cancellations into one queued email per enrolled student.
+ * Runs on the async executor so the request that cancelled the lecture never waits for it,
+ * and writes with $setOnInsert keyed by kind/lecture/recipient, so a repeated event can't
+ * queue the same email twice. {@link EmailDispatcher} does the sending.
+ */
+@Slf4j
+@Service
+public class EmailOutbox {
+
+    private static final DateTimeFormatter WHEN = DateTimeFormatter.ofPattern("EEE d MMM yyyy, HH:mm", Locale.ENGLISH);
+
+    private final MongoTemplate mongoTemplate;
+    private final EnrollmentRepository enrollmentRepository;
+    private final boolean enabled;
+
+    public EmailOutbox(
+            MongoTemplate mongoTemplate,
+            EnrollmentRepository enrollmentRepository,
+            @Value("${learnado.mail.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enrollmentRepository = enrollmentRepository;
+        this.enabled = enabled;
+    }
+
+    @Async
+    @EventListener
+    public void onLectureReminder(LectureReminderEvent event) {
+        LiveLecture lecture = event.lecture();
+        enqueueForBatch("reminder", lecture,
+                "Starting soon: " + lecture.getTitle(),
+                "Your live lecture \"" + lecture.getTitle() + "\" starts at " + format(lecture.getScheduledAt()) + ".\n\n"
+                        + "Join it from your Learnado dashboard.");
+    }
+
+    @Async
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLecture lecture = event.lecture();
+        if (event.deleted() || lecture.getStatus() != LectureStatus.CANCELLED
+                || event.previousStatus() == LectureStatus.CANCELLED) {
+            return;
+        }
+        enqueueForBatch("cancelled", lecture,
+                "Cancelled: " + lecture.getTitle(),
+                "The live lecture \"" + lecture.getTitle() + "\" planned for " + format(lecture.getScheduledAt())
+                        + " has been cancelled.");
+    }
+
+    private void enqueueForBatch(String kind, LiveLecture lecture, String subject, String body) {
+        if (!enabled) {
+            return;
+        }
+        List<String> recipients = enrollmentRepository.findByBatchId(lecture.getBatchId()).stream()
+                .map(Enrollment::getStudentEmail)
+                .distinct()
+                .toList();
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboundEmail.class);
+        for (String recipient : recipients) {
+            String id = kind + ":" + lecture.getId() + ":" + recipient;
+            bulk.upsert(Query.query(Criteria.where("id").is(id)), new Update()
+                    .setOnInsert("recipient", recipient)
+                    .setOnInsert("domain", domainOf(recipient))
+                    .setOnInsert("subject", subject)
+                    .setOnInsert("body", body)
+                    .setOnInsert("status", EmailStatus.PENDING)
+                    .setOnInsert("attempts", 0)
+                    .setOnInsert("nextAttemptAt", now)
+                    .setOnInsert("createdAt", now));
+        }
+        bulk.execute();
+        log.info("Queued {} {} emails for lecture {}", recipients.size(), kind, lecture.getId());
+    }
+
+    static String domainOf(String email) {
+        int at = email.lastIndexOf('@');
+        return at < 0 ? "" : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String format(LocalDateTime time) {
+        return time == null ? "the scheduled time" : WHEN.format(time);
+    }
+}
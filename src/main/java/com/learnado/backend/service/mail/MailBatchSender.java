@@ -0,0 +1,95 @@
+package com.learnado.backend.service.mail;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import com.learnado.backend.model.OutboundEmail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Sends a batch of queued emails through one SMTP connection and reports the outcome of
+ * each email as soon as the server has accepted or refused it, so a crash mid-batch can't
+ * leave already-delivered emails looking unsent.
+ */
+@Component
+public class MailBatchSender {
+
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final String from;
+
+    public MailBatchSender(
+            ObjectProvider<JavaMailSender> mailSender,
+            @Value("${learnado.mail.from:no-reply@learnado.local}") String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    // False when no spring.mail.host is configured
+    public boolean isAvailable() {
+        return mailSender.getIfAvailable() != null;
+    }
+
+    // Calls onResult once per email, with null for sent or the error
+    public void send(List<OutboundEmail> emails, BiConsumer<OutboundEmail, String> onResult) {
+        JavaMailSender sender = mailSender.getObject();
+        if (!(sender instanceof JavaMailSenderImpl impl)) {
+            // No access to the transport: one send (and connection) per email
+            for (OutboundEmail email : emails) {
+                try {
+                    sender.send(toMessage(sender, email));
+                    onResult.accept(email, null);
+                } catch (MessagingException | MailException e) {
+                    onResult.accept(email, e.getMessage());
+                }
+            }
+            return;
+        }
+
+        Transport transport;
+        try {
+            transport = impl.getSession().getTransport(impl.getProtocol() != null ? impl.getProtocol() : "smtp");
+            transport.connect(impl.getHost(), impl.getPort(), impl.getUsername(), impl.getPassword());
+        } catch (MessagingException e) {
+            // Connection or authentication problem: nothing in the batch goes out
+            emails.forEach(email -> onResult.accept(email, e.getMessage()));
+            return;
+        }
+        try (transport) {
+            for (OutboundEmail email : emails) {
+                try {
+                    MimeMessage message = toMessage(sender, email);
+                    message.saveChanges();
+                    transport.sendMessage(message, message.getAllRecipients());
+                    onResult.accept(email, null);
+                } catch (MessagingException e) {
+                    onResult.accept(email, e.getMessage());
+                }
+            }
+        } catch (MessagingException e) {
+            // Only closing failed; every email already has its outcome
+        }
+    }
+
+    private MimeMessage toMessage(JavaMailSender sender, OutboundEmail email) throws MessagingException {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        helper.setSentDate(new Date());
+        return message;
+    }
+}
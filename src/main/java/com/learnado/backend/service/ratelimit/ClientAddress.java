@@ -0,0 +1,44 @@
+package com.learnado.backend.service.ratelimit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The client address that rate limits key on. getRemoteAddr already takes X-Forwarded-For
+ * from trusted proxies only (server.forward-headers-strategy=native). IPv6 addresses are
+ * cut to their /64: one client normally gets a whole /64, so keying on the full address
+ * would let it use a new address for every request.
+ */
+public final class ClientAddress {
+
+    private ClientAddress() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        return normalize(request.getRemoteAddr());
+    }
+
+    static String normalize(String address) {
+        if (address == null || address.indexOf(':') < 0) {
+            return address;
+        }
+        InetAddress parsed;
+        try {
+            // Contains ':', so it is parsed as an IPv6 literal and never looked up in DNS
+            parsed = InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            return address;
+        }
+        byte[] bytes = parsed.getAddress();
+        if (bytes.length != 16) {
+            return parsed.getHostAddress(); // IPv4-mapped, keyed like plain IPv4
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < 8; i += 2) {
+            prefix.append(Integer.toHexString(((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff))).append(':');
+        }
+        return prefix.append(":/64").toString();
+    }
+}
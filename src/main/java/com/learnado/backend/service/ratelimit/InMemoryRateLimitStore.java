@@ -0,0 +1,117 @@
+package com.learnado.backend.service.ratelimit;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token buckets in striped maps: a key hashes to one of STRIPES plain HashMaps, each guarded
+ * by its own lock, so concurrent requests for different keys rarely wait on each other.
+ * Buckets refill lazily when touched. A bucket that has been idle long enough to be full
+ * again behaves exactly like a missing one, so the periodic sweep simply drops it.
+ */
+@Component
+@ConditionalOnProperty(name = "learnado.ratelimit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public InMemoryRateLimitStore(MeterRegistry meterRegistry) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        Gauge.builder("ratelimit.buckets", this, InMemoryRateLimitStore::size)
+                .description("Token buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean tryConsume(String key, RateLimitPolicy policy) {
+        long now = System.nanoTime();
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(policy, now);
+                stripe.buckets.put(key, bucket);
+            }
+            return bucket.tryConsume(now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.ratelimit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Iterator<Bucket> it = stripe.buckets.values().iterator(); it.hasNext(); ) {
+                    if (it.next().isFull(now)) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static class Stripe {
+        final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    // Tokens are counted in nanoseconds of refill time so the arithmetic stays in longs
+    private static class Bucket {
+        final long refillNanos;
+        final long capacityNanos;
+        long available;
+        long updatedAt;
+
+        Bucket(RateLimitPolicy policy, long now) {
+            this.refillNanos = policy.refillNanos();
+            this.capacityNanos = refillNanos * policy.capacity();
+            this.available = capacityNanos;
+            this.updatedAt = now;
+        }
+
+        boolean tryConsume(long now) {
+            refill(now);
+            if (available < refillNanos) {
+                return false;
+            }
+            available -= refillNanos;
+            return true;
+        }
+
+        boolean isFull(long now) {
+            refill(now);
+            return available >= capacityNanos;
+        }
+
+        private void refill(long now) {
+            available = Math.min(capacityNanos, available + (now - updatedAt));
+            updatedAt = now;
+        }
+    }
+}
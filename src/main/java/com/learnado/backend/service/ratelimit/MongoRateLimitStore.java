@@ -0,0 +1,92 @@
+package com.learnado.backend.service.ratelimit;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOptions;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token buckets shared by every backend instance, one small document per key. Each bucket is
+ * stored as GCRA's "theoretical arrival time" (tat), which behaves exactly like a token bucket
+ * but needs one number. A request is allowed if tat <= now + (capacity - 1) * refill, and
+ * then tat becomes max(tat, now) + refill. That check-and-set is a single conditional upsert.
+ * When the condition fails the upsert collides with the existing _id, which means "denied".
+ * Two first requests for a key can also collide while both insert; the loser retries once,
+ * when the document exists, so only a second collision is a denial.
+ * Documents expire through a TTL index once their bucket would be full again. If Mongo is
+ * unreachable requests are allowed, so an outage doesn't also lock everyone out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "learnado.ratelimit.store", havingValue = "mongo")
+public class MongoRateLimitStore implements RateLimitStore {
+
+    static final String COLLECTION = "rate_limit_buckets";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureTtlIndex() {
+        try {
+            collection().createIndex(Indexes.ascending("expireAt"),
+                    new IndexOptions().name("expire_at").expireAfter(0L, TimeUnit.SECONDS));
+        } catch (MongoException e) {
+            log.warn("Could not create rate limit TTL index: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean tryConsume(String key, RateLimitPolicy policy) {
+        long now = System.currentTimeMillis();
+        long refill = Math.max(1, TimeUnit.NANOSECONDS.toMillis(policy.refillNanos()));
+        long tolerance = refill * (policy.capacity() - 1);
+
+        Bson filter = Filters.and(Filters.eq("_id", key), Filters.lte("tat", now + tolerance));
+        Document newTat = new Document("$add", List.of(new Document("$max", List.of("$tat", now)), refill));
+        List<Bson> update = List.of(new Document("$set", new Document("tat", newTat)),
+                new Document("$set", new Document("expireAt", new Document("$toDate", "$tat"))));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                collection().updateOne(filter, update, new UpdateOptions().upsert(true));
+                return true;
+            } catch (MongoWriteException e) {
+                if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                    log.warn("Rate limit check failed open for {}: {}", policy.name(), e.getMessage());
+                    return true;
+                }
+                if (attempt >= 2) {
+                    return false;
+                }
+            } catch (MongoException e) {
+                log.warn("Rate limit check failed open for {}: {}", policy.name(), e.getMessage());
+                return true;
+            }
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
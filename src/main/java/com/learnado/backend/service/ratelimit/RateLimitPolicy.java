@@ -0,0 +1,30 @@
+package com.learnado.backend.service.ratelimit;
+
+import java.time.Duration;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * A token bucket: up to {@code capacity} requests at once, refilled evenly at
+ * capacity per {@code period}. Written in properties as "capacity/period", e.g. "10/1m".
+ */
+public record RateLimitPolicy(String name, int capacity, Duration period) {
+
+    public static RateLimitPolicy parse(String name, String spec) {
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Rate limit '" + name + "' must look like 10/1m, got " + spec);
+        }
+        int capacity = Integer.parseInt(spec.substring(0, slash).trim());
+        Duration period = DurationStyle.detectAndParse(spec.substring(slash + 1).trim());
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit '" + name + "' needs a positive capacity and period");
+        }
+        return new RateLimitPolicy(name, capacity, period);
+    }
+
+    // Time for one token to come back
+    public long refillNanos() {
+        return period.toNanos() / capacity;
+    }
+}
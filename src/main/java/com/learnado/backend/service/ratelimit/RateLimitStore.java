@@ -0,0 +1,12 @@
+package com.learnado.backend.service.ratelimit;
+
+/**
+ * Where token buckets live. The in-memory store is exact for a single backend instance;
+ * with several instances behind a load balancer each would hand out its own tokens, so
+ * those deployments use a shared store (learnado.ratelimit.store=mongo).
+ */
+public interface RateLimitStore {
+
+    // Take one token from the bucket for this key, created full on first use
+    boolean tryConsume(String key, RateLimitPolicy policy);
+}
@@ -0,0 +1,84 @@
+package com.learnado.backend.service.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.learnado.backend.exception.RateLimitExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Named rate limits over a {@link RateLimitStore}. Each policy is a token bucket per key
+ * (client IP, user or WebSocket session, chosen by the caller); buckets of different
+ * policies never share tokens. Outcomes are counted per policy in ratelimit.requests.
+ */
+@Service
+public class RateLimiter {
+
+    public static final String LOGIN_IP = "login-ip";
+    public static final String LOGIN_USER = "login-user";
+    public static final String LOGIN_ACCOUNT = "login-account";
+    public static final String SEARCH = "search";
+    public static final String WS_CHAT = "ws-chat";
+    public static final String WS_ICE_CANDIDATE = "ws-ice-candidate";
+
+    private final RateLimitStore store;
+    private final boolean enabled;
+    private final Map<String, RateLimitPolicy> policies = new HashMap<>();
+    private final Map<String, Counter> allowed = new HashMap<>();
+    private final Map<String, Counter> denied = new HashMap<>();
+
+    public RateLimiter(
+            RateLimitStore store,
+            MeterRegistry meterRegistry,
+            @Value("${learnado.ratelimit.enabled:true}") boolean enabled,
+            @Value("${learnado.ratelimit.policy.login-ip:20/1m}") String loginIp,
+            @Value("${learnado.ratelimit.policy.login-user:5/1m}") String loginUser,
+            @Value("${learnado.ratelimit.policy.login-account:30/1h}") String loginAccount,
+            @Value("${learnado.ratelimit.policy.search:30/10s}") String search,
+            @Value("${learnado.ratelimit.policy.ws-chat:10/10s}") String wsChat,
+            @Value("${learnado.ratelimit.policy.ws-ice-candidate:100/5s}") String wsIceCandidate) {
+        this.store = store;
+        this.enabled = enabled;
+        for (RateLimitPolicy policy : new RateLimitPolicy[] {
+                RateLimitPolicy.parse(LOGIN_IP, loginIp),
+                RateLimitPolicy.parse(LOGIN_USER, loginUser),
+                RateLimitPolicy.parse(LOGIN_ACCOUNT, loginAccount),
+                RateLimitPolicy.parse(SEARCH, search),
+                RateLimitPolicy.parse(WS_CHAT, wsChat),
+                RateLimitPolicy.parse(WS_ICE_CANDIDATE, wsIceCandidate)}) {
+            policies.put(policy.name(), policy);
+            allowed.put(policy.name(), Counter.builder("ratelimit.requests")
+                    .tag("policy", policy.name()).tag("outcome", "allowed").register(meterRegistry));
+            denied.put(policy.name(), Counter.builder("ratelimit.requests")
+                    .tag("policy", policy.name()).tag("outcome", "denied").register(meterRegistry));
+        }
+    }
+
+    public boolean hasPolicy(String name) {
+        return policies.containsKey(name);
+    }
+
+    // False if the key has used up its tokens for this policy
+    public boolean tryAcquire(String policyName, String key) {
+        RateLimitPolicy policy = policies.get(policyName);
+        if (!enabled || policy == null) {
+            return true;
+        }
+        boolean ok = store.tryConsume(policyName + ":" + key, policy);
+        (ok ? allowed : denied).get(policyName).increment();
+        return ok;
+    }
+
+    // Like tryAcquire, but throws so the request is answered with 429
+    public void acquire(String policyName, String key) {
+        if (!tryAcquire(policyName, key)) {
+            long refillNanos = policies.get(policyName).refillNanos();
+            throw new RateLimitExceededException(Math.max(1, (refillNanos + 999_999_999L) / 1_000_000_000L));
+        }
+    }
+}
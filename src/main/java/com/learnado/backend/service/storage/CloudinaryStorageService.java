@@ -0,0 +1,91 @@
+package com.learnado.backend.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+
+/**
+ * Stores media in Cloudinary. The incoming stream is spooled to a temp file and sent
+ * with the chunked upload API, so only one chunk is ever buffered in memory.
+ *
+ * Cloudinary picks the resource type (image, video or raw) on upload and needs it again to
+ * fetch or destroy the asset, so the returned key carries it as a prefix, e.g.
+ * "video:courses/<courseId>/media/<uuid>.mp4". Keys without one are images.
+ */
+@Service
+@ConditionalOnProperty(name = "learnado.storage.type", havingValue = "cloudinary")
+public class CloudinaryStorageService implements StorageService {
+
+    // Cloudinary requires chunks of at least 5 MB
+    private static final int CHUNK_SIZE = 5 * 1024 * 1024;
+    private static final String DEFAULT_RESOURCE_TYPE = "image";
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryStorageService(
+            @Value("${learnado.storage.cloudinary.cloud-name}") String cloudName,
+            @Value("${learnado.storage.cloudinary.api-key}") String apiKey,
+            @Value("${learnado.storage.cloudinary.api-secret}") String apiSecret) {
+        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", cloudName,
+                "api_key", apiKey,
+                "api_secret", apiSecret
+        ));
+    }
+
+    @Override
+    public StoredFile store(String key, InputStream content, long size, String contentType) throws IOException {
+        Path spool = Files.createTempFile("cloudinary-", ".upload");
+        try {
+            Files.copy(content, spool, StandardCopyOption.REPLACE_EXISTING);
+            Map uploadResult = cloudinary.uploader().uploadLarge(spool.toFile(), ObjectUtils.asMap(
+                    "public_id", publicId(key),
+                    "resource_type", "auto",
+                    "overwrite", true
+            ), CHUNK_SIZE);
+            return StoredFile.builder()
+                    .key(uploadResult.get("resource_type") + ":" + key)
+                    .url(uploadResult.get("secure_url").toString())
+                    .size(Files.size(spool))
+                    .contentType(contentType)
+                    .build();
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        String url = cloudinary.url().resourceType(resourceType(key)).generate(publicId(key));
+        return new URL(url).openStream();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        cloudinary.uploader().destroy(publicId(key), ObjectUtils.asMap("resource_type", resourceType(key)));
+    }
+
+    private String resourceType(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? DEFAULT_RESOURCE_TYPE : key.substring(0, colon);
+    }
+
+    // Cloudinary adds the extension itself, so strip it (and the resource type) from the key
+    private String publicId(String key) {
+        key = key.substring(key.indexOf(':') + 1);
+        int dot = key.lastIndexOf('.');
+        int slash = key.lastIndexOf('/');
+        return dot > slash ? key.substring(0, dot) : key;
+    }
+}
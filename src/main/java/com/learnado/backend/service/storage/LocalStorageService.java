@@ -0,0 +1,123 @@
+package com.learnado.backend.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores media on the local filesystem under {@code learnado.storage.local.root}.
+ * Files are streamed to a temporary sibling first and moved into place once complete,
+ * so readers never see a half-written file. The SHA-256 of the content is computed on the
+ * way through and kept in a hidden sidecar (".<name>.sha256"), which MediaController serves
+ * as a strong ETag without reading the file again.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "learnado.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalStorageService implements StorageService {
+
+    private static final String HASH_SUFFIX = ".sha256";
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalStorageService(
+            @Value("${learnado.storage.local.root:./data/media}") String root,
+            @Value("${learnado.storage.local.public-base-url:/api/media}") String publicBaseUrl) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+        Files.createDirectories(this.root);
+        log.info("Local media storage at {}", this.root);
+    }
+
+    @Override
+    public StoredFile store(String key, InputStream content, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // Files.copy pulls through a small fixed buffer, so memory stays flat for any file size
+        Path partial = Files.createTempFile(target.getParent(), ".upload-", ".part");
+        Path partialHash = Files.createTempFile(target.getParent(), ".upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long written = Files.copy(new DigestInputStream(content, digest), partial, StandardCopyOption.REPLACE_EXISTING);
+            // The hash is in place before the file, so a visible file always has one
+            Files.writeString(partialHash, HexFormat.of().formatHex(digest.digest()), StandardCharsets.US_ASCII);
+            Files.move(partialHash, hashPath(target), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return StoredFile.builder()
+                    .key(key)
+                    .url(publicBaseUrl + "/" + key)
+                    .size(written)
+                    .contentType(contentType)
+                    .build();
+        } finally {
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(partialHash);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path path = resolve(key);
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(hashPath(path));
+    }
+
+    // Hex SHA-256 recorded when the file was stored; null for files stored before hashes were kept
+    public String contentHash(Path file) throws IOException {
+        Path hash = hashPath(file);
+        if (!Files.isRegularFile(hash)) {
+            return null;
+        }
+        String hex = Files.readString(hash, StandardCharsets.US_ASCII).trim();
+        return hex.matches("[0-9a-f]{64}") ? hex : null;
+    }
+
+    // Hashes, temporary parts and anything else whose name starts with a dot; keys never do
+    public static boolean isHidden(String key) {
+        return key.startsWith(".") || key.contains("/.");
+    }
+
+    // Map a storage key to a path, refusing anything that escapes the storage root
+    public Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new RuntimeException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+
+    private static Path hashPath(Path file) {
+        return file.resolveSibling("." + file.getFileName() + HASH_SUFFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.learnado.backend.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Where uploaded media ends up. Implementations receive the bytes as a stream so
+ * callers never have to hold a whole file on the heap.
+ */
+public interface StorageService {
+
+    // Store the stream under the given key and return where it can be fetched from. The returned
+    // key (which may add to the one given) is the one to pass to open and delete
+    StoredFile store(String key, InputStream content, long size, String contentType) throws IOException;
+
+    // Open a previously stored file for reading
+    InputStream open(String key) throws IOException;
+
+    // Remove a stored file (no-op if it does not exist)
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,17 @@
+package com.learnado.backend.service.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+    private String key;         // Storage key, e.g. "thumbnails/<courseId>/<uuid>.png"
+    private String url;         // Public URL clients use to fetch the file
+    private long size;          // Bytes written
+    private String contentType;
+}
@@ -0,0 +1,97 @@
+package com.learnado.backend.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Count-Min sketch: {@code depth} rows of {@code width} counters. Estimates never undercount;
+ * with conservative update they overcount by at most about e/width of the total, with
+ * probability 1 - e^-depth. Row indexes come from one 64-bit hash split into two halves
+ * (Kirsch-Mitzenmacher). Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth * width];
+    }
+
+    // Adds count for key and returns its new estimate. Conservative update: only the counters
+    // below the new estimate are raised, which keeps collisions from inflating every row.
+    public long add(String key, long count) {
+        int[] cells = cells(key);
+        long target = min(cells) + count;
+        for (int cell : cells) {
+            if (counters[cell] < target) {
+                counters[cell] = target;
+            }
+        }
+        total += count;
+        return target;
+    }
+
+    public long estimate(String key) {
+        return min(cells(key));
+    }
+
+    public long total() {
+        return total;
+    }
+
+    // Cell-wise sum; estimates of the result still never undercount
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("dimension mismatch");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(16 + counters.length * 8);
+        buffer.putInt(depth).putInt(width).putLong(total);
+        for (long counter : counters) {
+            buffer.putLong(counter);
+        }
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        sketch.total = buffer.getLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+
+    private int[] cells(String key) {
+        long hash = HyperLogLog.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int[] cells = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            cells[row] = row * width + Math.floorMod(h1 + row * h2, width);
+        }
+        return cells;
+    }
+
+    private long min(int[] cells) {
+        long min = Long.MAX_VALUE;
+        for (int cell : cells) {
+            min = Math.min(min, counters[cell]);
+        }
+        return min;
+    }
+}
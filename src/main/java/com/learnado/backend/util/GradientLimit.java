@@ -0,0 +1,115 @@
+package com.learnado.backend.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit driven by latency, after the gradient algorithm from Netflix's
+ * concurrency-limits. Request latencies are averaged over short windows. The limit follows
+ * the ratio of a long-term latency baseline to the latest window's average:
+ *
+ *   newLimit = limit * clamp(tolerance * longRtt / shortRtt, 0.5, 1) + sqrt(limit)
+ *
+ * While latency stays near the baseline the sqrt term lets the limit grow. When requests
+ * start queueing (on Mongo, say), the ratio falls and the limit shrinks. The result is
+ * smoothed and clamped to [minLimit, maxLimit]. Windows where fewer than half the permits
+ * were in use don't move the limit, so an idle server doesn't inflate it.
+ *
+ * Admission takes a share of the limit. A caller that may only use 60% of the limit is
+ * refused once 60% is in flight, which keeps headroom for higher-priority requests.
+ * Thread-safe.
+ */
+public class GradientLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOWS = 60;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Current window; guarded by this
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double longRtt;
+    private double estimate; // Unrounded limit, so small limits can still grow
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                         long windowNanos, int minWindowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.estimate = limit;
+    }
+
+    // Takes a permit if fewer than share * limit are in flight; every success needs a release
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Returns a permit and feeds the request's latency into the current window
+    public void release(long rttNanos) {
+        int wasInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, wasInFlight);
+            long now = System.nanoTime();
+            if (now - windowStart >= windowNanos && windowSamples >= minWindowSamples) {
+                update((double) windowRttSum / windowSamples);
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double shortRtt) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        longRtt += (shortRtt - longRtt) / LONG_WINDOWS;
+        // After a long slow period the baseline drifts up; pull it back so the limit can recover
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (windowMaxInFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
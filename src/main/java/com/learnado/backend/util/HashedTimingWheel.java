@@ -0,0 +1,190 @@
+package com.learnado.backend.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hashed timing wheel (Varghese &amp; Lauck): a ring of slots, each a list of timeouts. One
+ * thread advances a slot per tick and fires whatever is due there, so scheduling and
+ * cancelling are O(1) and hundreds of thousands of pending timeouts cost one thread and
+ * a node each. Deadlines further away than one turn of the wheel wait out extra rounds.
+ *
+ * Timeouts fire at tick granularity (never early, up to one tick late) and their tasks run
+ * on the given executor, never on the wheel thread.
+ */
+@Slf4j
+public class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final Slot[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private final long startMillis;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedTimingWheel(String name, long tickMillis, int slots, Executor executor) {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("slots must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.wheel = new Slot[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = slots - 1;
+        this.executor = executor;
+        this.startMillis = System.currentTimeMillis();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // Thread-safe; the timeout is handed to the wheel thread on its next tick
+    public Timeout schedule(Runnable task, long deadlineMillis) {
+        Timeout timeout = new Timeout(task, deadlineMillis);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = startMillis + (tick + 1) * tickMillis;
+            long sleep = tickDeadline - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            transferAdded();
+            expire(wheel[(int) (tick & mask)], tick);
+            tick++;
+        }
+    }
+
+    private void transferAdded() {
+        // Bounded per tick so a burst of scheduling can't stall the wheel
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.cancelled) {
+                pending.decrementAndGet();
+                continue;
+            }
+            // Slot n is expired at startMillis + (n + 1) * tickMillis, so the first slot whose
+            // expiry time is at or past the deadline
+            long dueTick = Math.max(tick, Math.floorDiv(timeout.deadlineMillis - startMillis - 1, tickMillis));
+            timeout.rounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Slot slot, long currentTick) {
+        Timeout timeout = slot.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.cancelled) {
+                slot.remove(timeout);
+                pending.decrementAndGet();
+            } else if (timeout.rounds <= 0) {
+                slot.remove(timeout);
+                pending.decrementAndGet();
+                timeout.fired = true;
+                try {
+                    executor.execute(timeout.task);
+                } catch (RuntimeException e) {
+                    log.error("Timing wheel task rejected at tick {}: {}", currentTick, e.getMessage());
+                }
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineMillis;
+        private volatile boolean cancelled;
+        private volatile boolean fired;
+        // Owned by the wheel thread
+        private long rounds;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        // The wheel unlinks cancelled timeouts when it next passes their slot
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isFired() {
+            return fired;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+
+    // Doubly linked so removal from the middle is O(1); wheel thread only
+    private static final class Slot {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
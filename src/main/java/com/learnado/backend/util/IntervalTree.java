@@ -0,0 +1,63 @@
+package com.learnado.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static interval tree over half-open intervals [start, end). Built once from a list: the
+ * intervals are sorted by start and viewed as an implicit balanced BST (middle element is
+ * the root), with every node storing the largest end in its subtree, so an overlap query
+ * skips subtrees that end too early or start too late. O(n log n) to build, O(log n + k)
+ * per query.
+ */
+public class IntervalTree<T> {
+
+    public record Interval<T>(long start, long end, T value) {}
+
+    private final List<Interval<T>> intervals;
+    private final long[] maxEnd;
+
+    public IntervalTree(List<Interval<T>> intervals) {
+        this.intervals = new ArrayList<>(intervals);
+        this.intervals.sort(Comparator.comparingLong(Interval::start));
+        this.maxEnd = new long[this.intervals.size()];
+        build(0, this.intervals.size() - 1);
+    }
+
+    // Values of every interval overlapping [start, end)
+    public List<T> overlapping(long start, long end) {
+        List<T> found = new ArrayList<>();
+        collect(0, intervals.size() - 1, start, end, found);
+        return found;
+    }
+
+    private long build(int lo, int hi) {
+        if (lo > hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(intervals.get(mid).end(), Math.max(build(lo, mid - 1), build(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collect(int lo, int hi, long start, long end, List<T> found) {
+        if (lo > hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] <= start) {
+            return; // Everything here ends before the query starts
+        }
+        collect(lo, mid - 1, start, end, found);
+        Interval<T> node = intervals.get(mid);
+        if (node.start() >= end) {
+            return; // This node and its right subtree start after the query ends
+        }
+        if (node.end() > start) {
+            found.add(node.value());
+        }
+        collect(mid + 1, hi, start, end, found);
+    }
+}
@@ -0,0 +1,49 @@
+package com.learnado.backend.util;
+
+/**
+ * Token bucket: holds up to {@code capacity} tokens and refills at {@code ratePerSecond}.
+ * Refill is computed lazily from elapsed time on each call, so an idle bucket costs nothing.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double ratePerMilli;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double capacity, double ratePerSecond) {
+        this.capacity = capacity;
+        this.ratePerMilli = ratePerSecond / 1000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.currentTimeMillis();
+    }
+
+    // Takes up to the requested number of tokens and returns how many it got
+    public synchronized int tryAcquire(int requested) {
+        refill();
+        int granted = (int) Math.min(requested, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    public synchronized boolean tryAcquire() {
+        return tryAcquire(1) == 1;
+    }
+
+    // Gives back tokens that were taken but not used
+    public synchronized void refund(int unused) {
+        tokens = Math.min(capacity, tokens + unused);
+    }
+
+    // How long until at least one token is available
+    public synchronized long millisUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / ratePerMilli);
+    }
+
+    private void refill() {
+        long now = System.currentTimeMillis();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerMilli);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,55 @@
+package com.learnado.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The k keys with the highest scores seen so far. Scores are kept in a set ordered
+ * lowest-first (a min-heap that also supports removing a key whose score changed), so a
+ * new key only gets in by beating the current minimum. Not thread-safe.
+ */
+public class TopK {
+
+    private record Entry(String key, long score) {}
+
+    private static final Comparator<Entry> LOWEST_FIRST =
+            Comparator.comparingLong(Entry::score).thenComparing(Entry::key);
+
+    private final int k;
+    private final Map<String, Long> scores = new HashMap<>();
+    private final TreeSet<Entry> ordered = new TreeSet<>(LOWEST_FIRST);
+
+    public TopK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+    }
+
+    public void offer(String key, long score) {
+        Long current = scores.get(key);
+        if (current != null) {
+            ordered.remove(new Entry(key, current));
+        } else if (scores.size() >= k) {
+            Entry lowest = ordered.first();
+            if (score <= lowest.score()) {
+                return;
+            }
+            ordered.pollFirst();
+            scores.remove(lowest.key());
+        }
+        scores.put(key, score);
+        ordered.add(new Entry(key, score));
+    }
+
+    // Keys from the highest score down
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(ordered.size());
+        ordered.descendingIterator().forEachRemaining(entry -> keys.add(entry.key()));
+        return keys;
+    }
+}
@@ -0,0 +1,116 @@
+package com.learnado.backend.websocket;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.model.Role;
+import com.learnado.backend.model.User;
+import com.learnado.backend.repository.EnrollmentRepository;
+import com.learnado.backend.repository.UserRepository;
+import com.learnado.backend.util.JwtUtil;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates signaling sockets. Browsers can't set headers on a WebSocket, so the JWT
+ * comes as the access_token query parameter (like the lecture SSE stream). The socket is
+ * only opened for a LIVE lecture, by its instructor or a student enrolled in its batch, and
+ * the lecture id, email, name and role the handler uses come from here, never from the
+ * client's messages.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LectureHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String LECTURE_ID = "lectureId";
+    static final String EMAIL = "email";
+    static final String NAME = "name";
+    static final String ROLE = "role";
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String path = request.getURI().getPath();
+        String lectureId = path.substring(path.lastIndexOf('/') + 1);
+
+        // 1. Who is connecting
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("access_token");
+        User user = authenticate(token);
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        // 2. Only live lectures get a room
+        Query query = Query.query(Criteria.where("_id").is(lectureId));
+        query.fields().include("status", "instructorEmail", "batchId");
+        LiveLecture lecture = mongoTemplate.findOne(query, LiveLecture.class);
+        if (lecture == null || lecture.getStatus() != LectureStatus.LIVE) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+
+        // 3. The lecture's own instructor hosts; anyone else must be enrolled in its batch
+        Role role;
+        if (user.getEmail().equals(lecture.getInstructorEmail())) {
+            role = Role.INSTRUCTOR;
+        } else if (user.getRole() == Role.STUDENT
+                && enrollmentRepository.existsByStudentEmailAndBatchId(user.getEmail(), lecture.getBatchId())) {
+            role = Role.STUDENT;
+        } else {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(LECTURE_ID, lectureId);
+        attributes.put(EMAIL, user.getEmail());
+        attributes.put(NAME, user.getFullName() != null ? user.getFullName() : user.getEmail());
+        attributes.put(ROLE, role.name());
+        log.info("WebSocket handshake for lecture {} by {} as {}", lectureId, user.getEmail(), role);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+        if (exception != null) {
+            log.error("WebSocket handshake failed", exception);
+        }
+    }
+
+    // Null if the token is missing, invalid, expired or names an unknown user
+    private User authenticate(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            if (jwtUtil.extractExpiration(token).before(new Date())) {
+                return null;
+            }
+            return userRepository.findByEmail(jwtUtil.extractUsername(token)).orElse(null);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.learnado.backend.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live state of each lecture room (screen sharing, recording, instructor presence). The
+ * signaling handler changes it, REST reads it from here, and Mongo is only updated by a
+ * periodic flush that writes the latest state of each changed room, so toggling something
+ * several times between flushes costs one write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomStateStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, RoomState> rooms = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    // Null if nothing has happened in the room since this instance started
+    public RoomState.Snapshot get(String lectureId) {
+        RoomState state = rooms.get(lectureId);
+        return state == null ? null : state.snapshot();
+    }
+
+    public void setScreenSharing(String lectureId, boolean screenSharing) {
+        change(lectureId, true, state -> state.screenSharing = screenSharing);
+    }
+
+    public void setRecording(String lectureId, boolean recording) {
+        change(lectureId, true, state -> state.recording = recording);
+    }
+
+    // Sharing and recording stop with the instructor's connection. The instructor leaving
+    // doesn't keep a room that is being released open
+    public void setInstructorPresent(String lectureId, boolean present) {
+        change(lectureId, present, state -> {
+            state.instructorPresent = present;
+            if (!present) {
+                state.screenSharing = false;
+                state.recording = false;
+            }
+        });
+    }
+
+    // Nobody is left in the room: flush its final state, then drop it from memory
+    public void release(String lectureId) {
+        if (!rooms.containsKey(lectureId)) {
+            return;
+        }
+        change(lectureId, false, state -> {
+            state.instructorPresent = false;
+            state.screenSharing = false;
+            state.recording = false;
+            state.closed = true;
+        });
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LiveLecture lecture = event.lecture();
+        if (event.deleted()) {
+            rooms.remove(lecture.getId());
+            dirty.remove(lecture.getId());
+        } else if (lecture.getStatus() != LectureStatus.LIVE && rooms.containsKey(lecture.getId())) {
+            // Lecture is over: write the final state once more, then forget the room
+            change(lecture.getId(), false, state -> {
+                state.screenSharing = false;
+                state.recording = false;
+                state.closed = true;
+            });
+        } else if (lecture.getStatus() == LectureStatus.LIVE && rooms.containsKey(lecture.getId())) {
+            change(lecture.getId(), true, state -> { });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learnado.room-state.flush-interval-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LiveLecture.class);
+        List<RoomState> closed = new ArrayList<>();
+        for (String id : ids) {
+            RoomState state = rooms.get(id);
+            if (state == null) continue;
+            RoomState.Snapshot snapshot = state.snapshot();
+            bulk.updateOne(Query.query(Criteria.where("id").is(id)), new Update()
+                    .set("isScreenSharing", snapshot.screenSharing())
+                    .set("isRecording", snapshot.recording())
+                    .set("instructorPresent", snapshot.instructorPresent()));
+            if (snapshot.closed()) {
+                closed.add(state);
+            }
+        }
+
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // Plain $set of the latest values, so writing them again later is safe
+            log.error("Room state flush of {} lectures failed, will retry: {}", ids.size(), e.getMessage());
+            dirty.addAll(ids);
+            return;
+        }
+        // Only drop rooms nothing has touched since the snapshot
+        closed.forEach(state -> {
+            if (!dirty.contains(state.lectureId)) {
+                rooms.remove(state.lectureId, state);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // reopen: the change keeps the room in memory even if it was being released
+    private void change(String lectureId, boolean reopen, Consumer<RoomState> mutation) {
+        RoomState state;
+        do {
+            state = rooms.computeIfAbsent(lectureId, RoomState::new);
+            synchronized (state) {
+                if (reopen) {
+                    state.closed = false;
+                }
+                mutation.accept(state);
+            }
+            // The flusher may have just dropped a closed room; apply to the new one instead
+        } while (rooms.get(lectureId) != state);
+        dirty.add(lectureId);
+    }
+
+    public static class RoomState {
+        final String lectureId;
+        boolean screenSharing;
+        boolean recording;
+        boolean instructorPresent;
+        boolean closed;
+
+        RoomState(String lectureId) {
+            this.lectureId = lectureId;
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(screenSharing, recording, instructorPresent, closed);
+        }
+
+        public record Snapshot(boolean screenSharing, boolean recording, boolean instructorPresent, boolean closed) {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.learnado.backend.websocket;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outgoing frames of one WebSocket session. A session may only be written by one thread at
+ * a time, so frames are queued and a single drain task writes them in order. The drain runs
+ * on the signaling send executor. On platform threads that executor runs tasks inline, and
+ * the caller that finds the queue idle does the writing. On virtual threads each drain gets
+ * a virtual thread of its own, so a slow client blocks only its own drain and never the
+ * broadcast loop. A client that lets more than the queue limit pile up is disconnected.
+ */
+@Slf4j
+class SessionSender {
+
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final int queueLimit;
+
+    private final Queue<TextMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    SessionSender(WebSocketSession session, Executor executor, int queueLimit) {
+        this.session = session;
+        this.executor = executor;
+        this.queueLimit = queueLimit;
+    }
+
+    void send(TextMessage message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        if (queued.incrementAndGet() > queueLimit) {
+            queued.decrementAndGet();
+            log.warn("Closing session {}: {} frames waiting to be sent", session.getId(), queueLimit);
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return;
+        }
+        queue.add(message);
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            TextMessage message;
+            while ((message = queue.poll()) != null) {
+                queued.decrementAndGet();
+                try {
+                    if (session.isOpen()) {
+                        session.sendMessage(message);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.error("Error sending message to session {}: {}", session.getId(), e.getMessage());
+                }
+            }
+            draining.set(false);
+            // A frame queued after the last poll but before the flag cleared is ours to send
+        } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void close(CloseStatus status) {
+        queue.clear();
+        queued.set(0);
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Error closing session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.learnado.backend.websocket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * The {@link SessionSender} of every open signaling session. All writes to a session go
+ * through here, never straight to {@code session.sendMessage}.
+ */
+@Component
+public class SessionSenders {
+
+    private final TaskExecutor executor;
+    private final int queueLimit;
+    private final Map<String, SessionSender> senders = new ConcurrentHashMap<>();
+
+    public SessionSenders(
+            @Qualifier("signalingSendExecutor") TaskExecutor executor,
+            @Value("${learnado.signaling.send-queue-limit:1000}") int queueLimit) {
+        this.executor = executor;
+        this.queueLimit = queueLimit;
+    }
+
+    public void send(WebSocketSession session, String message) {
+        send(session, new TextMessage(message));
+    }
+
+    public void send(WebSocketSession session, TextMessage message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        senders.computeIfAbsent(session.getId(), id -> new SessionSender(session, executor, queueLimit)).send(message);
+    }
+
+    public void remove(WebSocketSession session) {
+        senders.remove(session.getId());
+    }
+}
@@ -14,13 +14,29 @@ import org.springframework.web.socket.handler.TextWebSocketHandler;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.learnado.backend.model.ChatMessage;
+import com.learnado.backend.service.AttendanceAnalyticsService;
+import com.learnado.backend.service.ChatHistoryService;
+import com.learnado.backend.service.journal.LectureJournal;
+import com.learnado.backend.service.ratelimit.RateLimiter;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class SignalingHandler extends TextWebSocketHandler {
 
+    private final AttendanceAnalyticsService attendanceAnalytics;
+    private final RoomStateStore roomStateStore;
+    private final LectureJournal lectureJournal;
+    private final ChatHistoryService chatHistory;
+    private final RateLimiter rateLimiter;
+    private final SessionSenders senders;
+
+    private static final String RATE_LIMITED_TYPES = "rateLimitedTypes";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // Map: lectureId -> Set of sessions in that lecture room
@@ -44,6 +60,13 @@ public class SignalingHandler extends TextWebSocketHandler {
         
         log.info("Received message type: {} from session: {}", type, session.getId());
 
+        // Chat and ICE floods are dropped per session; the sender is told so the UI can back off
+        if (!rateLimiter.tryAcquire("ws-" + type, session.getId())) {
+            notifyRateLimited(session, type);
+            return;
+        }
+        rateLimitedTypes(session).remove(type);
+
         switch (type) {
             case "join" -> handleJoin(session, json);
             case "offer" -> handleOffer(session, json);
@@ -51,27 +74,41 @@ public class SignalingHandler extends TextWebSocketHandler {
             case "ice-candidate" -> handleIceCandidate(session, json);
             case "screen-share-start" -> handleScreenShareStart(session, json);
             case "screen-share-stop" -> handleScreenShareStop(session, json);
+            case "recording-start" -> handleRecording(session, true);
+            case "recording-stop" -> handleRecording(session, false);
             case "chat" -> handleChat(session, json);
             case "leave" -> handleLeave(session);
             default -> log.warn("Unknown message type: {}", type);
         }
     }
 
+    // Identity and lecture come from the authenticated handshake; only the message type is the client's
     private void handleJoin(WebSocketSession session, JsonNode json) throws IOException {
-        String lectureId = json.get("lectureId").asText();
-        String email = json.get("email").asText();
-        String role = json.get("role").asText(); // INSTRUCTOR or STUDENT
-        String name = json.has("name") ? json.get("name").asText() : email;
+        Map<String, Object> attributes = session.getAttributes();
+        String lectureId = (String) attributes.get(LectureHandshakeInterceptor.LECTURE_ID);
+        String email = (String) attributes.get(LectureHandshakeInterceptor.EMAIL);
+        String role = (String) attributes.get(LectureHandshakeInterceptor.ROLE); // INSTRUCTOR or STUDENT
+        String name = (String) attributes.get(LectureHandshakeInterceptor.NAME);
+        if (lectureId == null || email == null) return;
 
         ParticipantInfo info = new ParticipantInfo(lectureId, email, role, name);
-        sessionInfo.put(session.getId(), info);
+        ParticipantInfo previous = sessionInfo.put(session.getId(), info);
+        if (previous != null) {
+            attendanceAnalytics.onLeave(previous.lectureId, previous.email);
+        }
+        attendanceAnalytics.onJoin(lectureId, email);
 
         // Add to room
-        lectureRooms.computeIfAbsent(lectureId, k -> ConcurrentHashMap.newKeySet()).add(session);
+        lectureRooms.compute(lectureId, (k, room) -> {
+            Set<WebSocketSession> sessions = room != null ? room : ConcurrentHashMap.newKeySet();
+            sessions.add(session);
+            return sessions;
+        });
 
         // Track instructor session
         if ("INSTRUCTOR".equals(role)) {
             instructorSessions.put(lectureId, session);
+            roomStateStore.setInstructorPresent(lectureId, true);
         }
 
         // Notify others in the room
@@ -84,8 +121,13 @@ public class SignalingHandler extends TextWebSocketHandler {
         
         broadcastToRoom(lectureId, joinNotification.toString(), session);
 
-        // Send current participants list to the new joiner
+        // Send current participants list, room state and recent chat to the new joiner
         sendParticipantsList(session, lectureId);
+        sendRoomState(session, lectureId);
+        String chatHistoryFrame = chatHistory.historyFrame(lectureId);
+        if (chatHistoryFrame != null) {
+            senders.send(session, chatHistoryFrame);
+        }
         
         // If this is a student and instructor is present, notify them to create offer
         if ("STUDENT".equals(role)) {
@@ -96,7 +138,7 @@ public class SignalingHandler extends TextWebSocketHandler {
                 requestOffer.put("targetSessionId", session.getId());
                 requestOffer.put("studentEmail", email);
                 requestOffer.put("studentName", name);
-                instructorSession.sendMessage(new TextMessage(requestOffer.toString()));
+                senders.send(instructorSession, requestOffer.toString());
             }
         }
 
@@ -121,7 +163,7 @@ public class SignalingHandler extends TextWebSocketHandler {
                 offerMessage.put("fromEmail", senderInfo.email);
                 offerMessage.put("fromRole", senderInfo.role);
                 offerMessage.set("offer", json.get("offer"));
-                targetSession.sendMessage(new TextMessage(offerMessage.toString()));
+                senders.send(targetSession, offerMessage.toString());
                 break;
             }
         }
@@ -142,7 +184,7 @@ public class SignalingHandler extends TextWebSocketHandler {
                 answerMessage.put("type", "answer");
                 answerMessage.put("fromSessionId", session.getId());
                 answerMessage.set("answer", json.get("answer"));
-                targetSession.sendMessage(new TextMessage(answerMessage.toString()));
+                senders.send(targetSession, answerMessage.toString());
                 break;
             }
         }
@@ -163,7 +205,7 @@ public class SignalingHandler extends TextWebSocketHandler {
                 iceMessage.put("type", "ice-candidate");
                 iceMessage.put("fromSessionId", session.getId());
                 iceMessage.set("candidate", json.get("candidate"));
-                targetSession.sendMessage(new TextMessage(iceMessage.toString()));
+                senders.send(targetSession, iceMessage.toString());
                 break;
             }
         }
@@ -173,6 +215,8 @@ public class SignalingHandler extends TextWebSocketHandler {
         ParticipantInfo senderInfo = sessionInfo.get(session.getId());
         if (senderInfo == null || !"INSTRUCTOR".equals(senderInfo.role)) return;
 
+        roomStateStore.setScreenSharing(senderInfo.lectureId, true);
+
         ObjectNode notification = objectMapper.createObjectNode();
         notification.put("type", "screen-share-started");
         notification.put("fromSessionId", session.getId());
@@ -185,6 +229,8 @@ public class SignalingHandler extends TextWebSocketHandler {
         ParticipantInfo senderInfo = sessionInfo.get(session.getId());
         if (senderInfo == null || !"INSTRUCTOR".equals(senderInfo.role)) return;
 
+        roomStateStore.setScreenSharing(senderInfo.lectureId, false);
+
         ObjectNode notification = objectMapper.createObjectNode();
         notification.put("type", "screen-share-stopped");
         notification.put("fromSessionId", session.getId());
@@ -192,6 +238,36 @@ public class SignalingHandler extends TextWebSocketHandler {
         broadcastToRoom(senderInfo.lectureId, notification.toString(), session);
     }
 
+    private void handleRecording(WebSocketSession session, boolean recording) throws IOException {
+        ParticipantInfo senderInfo = sessionInfo.get(session.getId());
+        if (senderInfo == null || !"INSTRUCTOR".equals(senderInfo.role)) return;
+
+        roomStateStore.setRecording(senderInfo.lectureId, recording);
+
+        ObjectNode notification = objectMapper.createObjectNode();
+        notification.put("type", recording ? "recording-started" : "recording-stopped");
+        notification.put("fromSessionId", session.getId());
+
+        broadcastToRoom(senderInfo.lectureId, notification.toString(), session);
+    }
+
+    // Screen sharing toggled over REST: same state change and notification as the WebSocket message
+    public void setScreenSharing(String lectureId, boolean screenSharing, String instructorEmail) throws IOException {
+        roomStateStore.setScreenSharing(lectureId, screenSharing);
+
+        ObjectNode notification = objectMapper.createObjectNode();
+        notification.put("type", screenSharing ? "screen-share-started" : "screen-share-stopped");
+        WebSocketSession instructorSession = instructorSessions.get(lectureId);
+        if (instructorSession != null) {
+            notification.put("fromSessionId", instructorSession.getId());
+        }
+        if (screenSharing) {
+            notification.put("instructorEmail", instructorEmail);
+        }
+
+        broadcastToRoom(lectureId, notification.toString(), instructorSession);
+    }
+
     private void handleChat(WebSocketSession session, JsonNode json) throws IOException {
         ParticipantInfo senderInfo = sessionInfo.get(session.getId());
         if (senderInfo == null) return;
@@ -204,6 +280,16 @@ public class SignalingHandler extends TextWebSocketHandler {
         chatMessage.put("fromRole", senderInfo.role);
         chatMessage.put("message", json.get("message").asText());
         chatMessage.put("timestamp", System.currentTimeMillis());
+
+        // Keep it for late joiners and queue it for storage; neither waits on Mongo
+        chatHistory.append(ChatMessage.builder()
+                .lectureId(senderInfo.lectureId)
+                .fromEmail(senderInfo.email)
+                .fromName(senderInfo.name)
+                .fromRole(senderInfo.role)
+                .message(chatMessage.get("message").asText())
+                .timestamp(chatMessage.get("timestamp").asLong())
+                .build());
         
         broadcastToRoom(senderInfo.lectureId, chatMessage.toString(), null); // Include sender
     }
@@ -216,23 +302,27 @@ public class SignalingHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         log.info("WebSocket connection closed: {} with status: {}", session.getId(), status);
         removeSession(session);
+        senders.remove(session);
     }
 
     private void removeSession(WebSocketSession session) throws IOException {
         ParticipantInfo info = sessionInfo.remove(session.getId());
         if (info == null) return;
+        attendanceAnalytics.onLeave(info.lectureId, info.email);
 
-        Set<WebSocketSession> room = lectureRooms.get(info.lectureId);
-        if (room != null) {
+        // Removing the session and dropping an empty room is one step, so a concurrent join can't be lost
+        boolean emptied = lectureRooms.computeIfPresent(info.lectureId, (k, room) -> {
             room.remove(session);
-            if (room.isEmpty()) {
-                lectureRooms.remove(info.lectureId);
-            }
-        }
+            return room.isEmpty() ? null : room;
+        }) == null;
 
-        // Remove instructor tracking
-        if ("INSTRUCTOR".equals(info.role)) {
-            instructorSessions.remove(info.lectureId);
+        // Remove instructor tracking (unless the instructor already reconnected on another session)
+        if ("INSTRUCTOR".equals(info.role) && instructorSessions.remove(info.lectureId, session)) {
+            roomStateStore.setInstructorPresent(info.lectureId, false);
+        }
+        if (emptied) {
+            // Last one out: write the final room state and forget it
+            roomStateStore.release(info.lectureId);
         }
 
         // Notify others
@@ -269,25 +359,60 @@ public class SignalingHandler extends TextWebSocketHandler {
             }
         }
 
-        session.sendMessage(new TextMessage(participantsMessage.toString()));
+        senders.send(session, participantsMessage.toString());
     }
 
+    private void sendRoomState(WebSocketSession session, String lectureId) throws IOException {
+        RoomStateStore.RoomState.Snapshot state = roomStateStore.get(lectureId);
+        if (state == null) return;
+
+        ObjectNode stateMessage = objectMapper.createObjectNode();
+        stateMessage.put("type", "room-state");
+        stateMessage.put("isScreenSharing", state.screenSharing());
+        stateMessage.put("isRecording", state.recording());
+        stateMessage.put("instructorPresent", state.instructorPresent());
+
+        senders.send(session, stateMessage.toString());
+    }
+
+    // Every room-wide event (join, leave, chat, screen share, recording) passes through here,
+    // so this is also where it goes into the lecture journal
     private void broadcastToRoom(String lectureId, String message, WebSocketSession exclude) throws IOException {
+        lectureJournal.record(lectureId, message);
+
         Set<WebSocketSession> room = lectureRooms.get(lectureId);
         if (room == null) return;
 
         TextMessage textMessage = new TextMessage(message);
         for (WebSocketSession session : room) {
             if (session.isOpen() && (exclude == null || !session.getId().equals(exclude.getId()))) {
-                try {
-                    session.sendMessage(textMessage);
-                } catch (IOException e) {
-                    log.error("Error sending message to session {}: {}", session.getId(), e.getMessage());
-                }
+                senders.send(session, textMessage);
             }
         }
     }
 
+    // One "rate-limited" frame per burst: repeated drops stay silent until a frame of that type gets through
+    private void notifyRateLimited(WebSocketSession session, String type) {
+        if (!rateLimitedTypes(session).add(type)) {
+            return;
+        }
+        ObjectNode limited = objectMapper.createObjectNode();
+        limited.put("type", "rate-limited");
+        limited.put("messageType", type);
+        senders.send(session, limited.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> rateLimitedTypes(WebSocketSession session) {
+        return (Set<String>) session.getAttributes().computeIfAbsent(RATE_LIMITED_TYPES, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    // Whether the lecture's instructor has an open signaling session
+    public boolean isInstructorPresent(String lectureId) {
+        WebSocketSession session = instructorSessions.get(lectureId);
+        return session != null && session.isOpen();
+    }
+
     // Get participant count for a lecture
     public int getParticipantCount(String lectureId) {
         Set<WebSocketSession> room = lectureRooms.get(lectureId);
@@ -1,13 +1,27 @@
 package com.learnado.backend;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 
-@SpringBootTest
+// No MongoDB here, so the unique indexes can't be created before startup
+@SpringBootTest(properties = "learnado.mongo.require-unique-indexes=false")
 class BackendApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void reactiveMongoIsOffWithoutTheProfile() {
+		assertThat(context.getBeansOfType(ReactiveMongoTemplate.class)).isEmpty();
+	}
+
 }
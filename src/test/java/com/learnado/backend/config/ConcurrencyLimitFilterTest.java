@@ -0,0 +1,132 @@
+package com.learnado.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+
+class ConcurrencyLimitFilterTest {
+
+    private interface Inside {
+        void run() throws IOException, ServletException;
+    }
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // A fixed limit of 4: LOW may use 2 permits, NORMAL 3 and CRITICAL all 4
+        filter = new ConcurrencyLimitFilter(Jackson2ObjectMapperBuilder.json().build(), meterRegistry,
+                true, 4, 4, 4, 1.5, 1000, 0.75, 0.5,
+                List.of("/ws/**", "/api/live-lectures/*/join", "/api/live-lectures/*/start", "/api/live-lectures/*/end"),
+                List.of("/api/courses/**", "/api/batches/**", "/api/stream/courses/**", "/api/stream/batches/**"),
+                List.of("/actuator/health"),
+                2);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRequestURI(path);
+        return request;
+    }
+
+    // Runs inside while `permits` critical requests are in flight
+    private void holding(int permits, Inside inside) throws IOException, ServletException {
+        if (permits == 0) {
+            inside.run();
+            return;
+        }
+        filter.doFilter(request("GET", "/ws/lecture/" + permits), new MockHttpServletResponse(),
+                (req, res) -> holding(permits - 1, inside));
+    }
+
+    // Status of a request sent now; 200 if it reached the chain
+    private MockHttpServletResponse send(String method, String path, AtomicBoolean reached) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, (req, res) -> reached.set(true));
+        return response;
+    }
+
+    @Test
+    void classifiesByPathAndMethod() {
+        assertThat(filter.classify(request("GET", "/ws/lecture/1"))).isEqualTo(ConcurrencyLimitFilter.Priority.CRITICAL);
+        assertThat(filter.classify(request("POST", "/api/live-lectures/abc/join"))).isEqualTo(ConcurrencyLimitFilter.Priority.CRITICAL);
+        assertThat(filter.classify(request("GET", "/api/courses/1"))).isEqualTo(ConcurrencyLimitFilter.Priority.LOW);
+        assertThat(filter.classify(request("HEAD", "/api/batches/course/1"))).isEqualTo(ConcurrencyLimitFilter.Priority.LOW);
+        assertThat(filter.classify(request("POST", "/api/courses"))).isEqualTo(ConcurrencyLimitFilter.Priority.NORMAL);
+        assertThat(filter.classify(request("GET", "/api/enrollments/my"))).isEqualTo(ConcurrencyLimitFilter.Priority.NORMAL);
+    }
+
+    @Test
+    void lowPriorityIsShedFirstWith503AndRetryAfter() throws Exception {
+        holding(2, () -> {
+            AtomicBoolean reached = new AtomicBoolean();
+            MockHttpServletResponse response = send("GET", "/api/courses/1", reached);
+
+            assertThat(reached).isFalse();
+            assertThat(response.getStatus()).isEqualTo(503);
+            assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+            assertThat(response.getContentAsString()).contains("\"status\":503");
+
+            // NORMAL and CRITICAL still have room
+            AtomicBoolean normal = new AtomicBoolean();
+            assertThat(send("POST", "/api/courses", normal).getStatus()).isEqualTo(200);
+            assertThat(normal).isTrue();
+        });
+        assertThat(meterRegistry.get("http.concurrency.shed").tag("priority", "low").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.concurrency.shed").tag("priority", "normal").counter().count()).isZero();
+    }
+
+    @Test
+    void criticalRequestsUseTheWholeLimit() throws Exception {
+        holding(3, () -> {
+            AtomicBoolean normal = new AtomicBoolean();
+            assertThat(send("POST", "/api/courses", normal).getStatus()).isEqualTo(503);
+            assertThat(normal).isFalse();
+
+            AtomicBoolean critical = new AtomicBoolean();
+            assertThat(send("POST", "/api/live-lectures/abc/join", critical).getStatus()).isEqualTo(200);
+            assertThat(critical).isTrue();
+        });
+        holding(4, () -> {
+            AtomicBoolean critical = new AtomicBoolean();
+            assertThat(send("POST", "/api/live-lectures/abc/join", critical).getStatus()).isEqualTo(503);
+            assertThat(critical).isFalse();
+        });
+    }
+
+    @Test
+    void permitsAreReturnedAfterTheRequest() throws Exception {
+        holding(4, () -> { });
+        AtomicBoolean reached = new AtomicBoolean();
+        assertThat(send("GET", "/api/courses/1", reached).getStatus()).isEqualTo(200);
+        assertThat(reached).isTrue();
+        assertThat(meterRegistry.get("http.concurrency.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void healthChecksAndPreflightsAreNeverShed() throws Exception {
+        holding(4, () -> {
+            AtomicBoolean health = new AtomicBoolean();
+            assertThat(send("GET", "/actuator/health", health).getStatus()).isEqualTo(200);
+            assertThat(health).isTrue();
+
+            AtomicBoolean preflight = new AtomicBoolean();
+            assertThat(send("OPTIONS", "/api/courses", preflight).getStatus()).isEqualTo(200);
+            assertThat(preflight).isTrue();
+        });
+    }
+}
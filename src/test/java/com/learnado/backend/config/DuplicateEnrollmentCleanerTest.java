@@ -0,0 +1,96 @@
+package com.learnado.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Enrollment;
+
+class DuplicateEnrollmentCleanerTest {
+
+    private MongoTemplate mongoTemplate;
+    private IndexOperations indexOps;
+    private DuplicateEnrollmentCleaner cleaner;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(Enrollment.class)).thenReturn(indexOps);
+        cleaner = new DuplicateEnrollmentCleaner(mongoTemplate);
+    }
+
+    private void duplicates(Document... rows) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Enrollment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(rows), new Document()));
+    }
+
+    private static Document pair(String batchId, Object... ids) {
+        return new Document("_id", new Document("studentEmail", "s@example.com").append("batchId", batchId))
+                .append("ids", List.of(ids))
+                .append("count", ids.length);
+    }
+
+    @Test
+    void keepsTheEarliestOfEachPairAndResetsTheAffectedCounters() {
+        ObjectId keep1 = new ObjectId();
+        ObjectId drop1 = new ObjectId();
+        ObjectId keep2 = new ObjectId();
+        ObjectId drop2 = new ObjectId();
+        ObjectId drop3 = new ObjectId();
+        duplicates(pair("b1", keep1, drop1), pair("b2", keep2, drop2, drop3));
+
+        assertThat(cleaner.removeDuplicates()).isEqualTo(3);
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(Enrollment.class));
+        assertThat(removed.getValue().getQueryObject().get("_id", Document.class).get("$in", Collection.class))
+                .containsExactly(drop1, drop2, drop3);
+        ArgumentCaptor<Query> batches = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(batches.capture(), update.capture(), eq(Batch.class));
+        assertThat(batches.getValue().getQueryObject().get("_id", Document.class).get("$in", Collection.class))
+                .containsExactly("b1", "b2");
+        assertThat(update.getValue().getUpdateObject().get("$unset", Document.class)).containsKey("enrolledCount");
+    }
+
+    @Test
+    void noDuplicatesNoWrites() {
+        duplicates();
+
+        assertThat(cleaner.removeDuplicates()).isZero();
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Enrollment.class));
+    }
+
+    @Test
+    void skipsTheScanOnceTheUniqueIndexExists() {
+        IndexInfo unique = mock(IndexInfo.class);
+        when(unique.getName()).thenReturn(DuplicateEnrollmentCleaner.UNIQUE_INDEX);
+        when(unique.isUnique()).thenReturn(true);
+        when(indexOps.getIndexInfo()).thenReturn(List.of(unique));
+
+        assertThat(cleaner.removeDuplicates()).isZero();
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(Enrollment.class), eq(Document.class));
+    }
+}
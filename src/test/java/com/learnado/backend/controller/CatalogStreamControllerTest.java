@@ -0,0 +1,67 @@
+package com.learnado.backend.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.learnado.backend.dto.CourseSummary;
+import com.learnado.backend.repository.reactive.ReactiveCourseRepository;
+
+import reactor.core.publisher.Flux;
+
+// No MongoDB here, so the unique indexes can't be created before startup
+@SpringBootTest(properties = "learnado.mongo.require-unique-indexes=false")
+@ActiveProfiles("reactive")
+@AutoConfigureMockMvc
+class CatalogStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @MockitoBean
+    private ReactiveCourseRepository courseRepository;
+
+    @Test
+    void reactiveMongoIsConfiguredUnderTheProfile() {
+        assertThat(context.getBeansOfType(ReactiveMongoTemplate.class)).hasSize(1);
+        assertThat(context.getBeansOfType(CatalogStreamController.class)).hasSize(1);
+    }
+
+    @Test
+    void streamsCoursesAsNdjson() throws Exception {
+        when(courseRepository.findSummariesBy()).thenReturn(Flux.just(
+                new CourseSummary("c1", "Java", null, 10.0, "a@example.com", null, null),
+                new CourseSummary("c2", "Go", null, 20.0, "b@example.com", null, null)));
+
+        MvcResult result = mockMvc.perform(get("/api/stream/courses").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":\"c1\"").contains("\"title\":\"Java\"");
+        assertThat(lines[1]).contains("\"id\":\"c2\"").contains("\"title\":\"Go\"");
+    }
+}
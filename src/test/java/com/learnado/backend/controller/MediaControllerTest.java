@@ -0,0 +1,101 @@
+package com.learnado.backend.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.learnado.backend.repository.BatchRepository;
+import com.learnado.backend.repository.CourseRepository;
+import com.learnado.backend.repository.EnrollmentRepository;
+import com.learnado.backend.service.storage.LocalStorageService;
+
+class MediaControllerTest {
+
+    private static final String KEY = "thumbnails/c1/a.txt";
+    private static final String URL = "/api/media/" + KEY;
+
+    @TempDir
+    Path root;
+
+    private LocalStorageService storage;
+    private MockMvc mockMvc;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new LocalStorageService(root.toString(), "/api/media");
+        byte[] bytes = "0123456789".getBytes(StandardCharsets.US_ASCII);
+        storage.store(KEY, new ByteArrayInputStream(bytes), bytes.length, "text/plain");
+        etag = "\"" + storage.contentHash(storage.resolve(KEY)) + "\"";
+        mockMvc = MockMvcBuilders.standaloneSetup(new MediaController(storage,
+                mock(CourseRepository.class), mock(BatchRepository.class), mock(EnrollmentRepository.class))).build();
+    }
+
+    @Test
+    void servesAStrongContentHashETag() throws Exception {
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ifRangeHonoursOnlyAStrongMatch() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-4").header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/10"))
+                .andExpect(content().string("234"));
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-4").header(HttpHeaders.IF_RANGE, "W/" + etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-4").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void filesStoredWithoutAHashHaveNoETag() throws Exception {
+        Path legacy = storage.resolve("thumbnails/c1/legacy.txt");
+        Files.writeString(legacy, "old");
+
+        mockMvc.perform(get("/api/media/thumbnails/c1/legacy.txt"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void hashSidecarsAreNotServed() throws Exception {
+        mockMvc.perform(get("/api/media/thumbnails/c1/.a.txt.sha256"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void courseMediaNeedsAnAuthenticatedMember() throws Exception {
+        mockMvc.perform(get("/api/media/courses/c1/media/v.mp4"))
+                .andExpect(status().isNotFound());
+    }
+}
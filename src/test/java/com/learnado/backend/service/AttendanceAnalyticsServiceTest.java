@@ -0,0 +1,134 @@
+package com.learnado.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.learnado.backend.model.AttendanceBucket;
+import com.learnado.backend.model.AttendancePresence;
+import com.learnado.backend.repository.AttendanceBucketRepository;
+import com.learnado.backend.repository.AttendancePresenceRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AttendanceAnalyticsServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bucketBulk;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bucketBulk = mock(BulkOperations.class);
+        when(bucketBulk.insert(anyList())).thenReturn(bucketBulk);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(AttendanceBucket.class))).thenReturn(bucketBulk);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(AttendancePresence.class)))
+                .thenReturn(mock(BulkOperations.class));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AttendanceAnalyticsService service(int maxPendingBuckets) {
+        LiveLectureRegistry registry = mock(LiveLectureRegistry.class);
+        when(registry.isLive(any())).thenReturn(true);
+        return new AttendanceAnalyticsService(mongoTemplate, mock(AttendanceBucketRepository.class),
+                mock(AttendancePresenceRepository.class), mock(AttendanceBuffer.class), registry,
+                meterRegistry, 60, 1000, maxPendingBuckets);
+    }
+
+    // Each lecture's room is retired on the next sample, leaving one partial bucket per lecture
+    private void visit(AttendanceAnalyticsService service, String... lectureIds) {
+        for (String lectureId : lectureIds) {
+            service.onJoin(lectureId, "student@example.com");
+            service.onLeave(lectureId, "student@example.com");
+        }
+        service.sample();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AttendanceBucket> inserted(int calls) {
+        ArgumentCaptor<List<AttendanceBucket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bucketBulk, times(calls)).insert(captor.capture());
+        return captor.getValue();
+    }
+
+    private static BulkOperationException bulkFailure(int... codes) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) {
+            errors.add(new BulkWriteError(codes[i], "failed", new BsonDocument(), i));
+        }
+        return new BulkOperationException("bulk failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), errors, null, new ServerAddress(), Set.of()));
+    }
+
+    @Test
+    void bucketsCarryTheirIdIntoTheInsert() {
+        AttendanceAnalyticsService service = service(100);
+        visit(service, "l1", "l2");
+
+        service.flush();
+
+        assertThat(inserted(1)).hasSize(2).allSatisfy(bucket -> assertThat(bucket.getId()).isNotNull());
+    }
+
+    @Test
+    void aRetryResendsTheSameIdsAndDuplicatesAreNotRetried() {
+        AttendanceAnalyticsService service = service(100);
+        visit(service, "l1", "l2");
+        when(bucketBulk.execute()).thenThrow(bulkFailure(11000, 6)).thenReturn(null);
+
+        service.flush();
+        List<AttendanceBucket> first = List.copyOf(inserted(1));
+        service.flush();
+
+        // The bucket that hit a duplicate key is already stored; only the other one is sent again
+        assertThat(inserted(2)).containsExactly(first.get(1));
+        assertThat(inserted(2).get(0).getId()).isEqualTo(first.get(1).getId());
+    }
+
+    @Test
+    void aFailedFlushKeepsTheBucketsForTheNextOne() {
+        AttendanceAnalyticsService service = service(100);
+        visit(service, "l1");
+        when(bucketBulk.execute()).thenThrow(new DataAccessResourceFailureException("down")).thenReturn(null);
+
+        service.flush();
+        String id = inserted(1).get(0).getId();
+        service.flush();
+
+        assertThat(inserted(2)).singleElement().satisfies(bucket -> assertThat(bucket.getId()).isEqualTo(id));
+    }
+
+    @Test
+    void bucketsPastTheCapAreDroppedAndCounted() {
+        AttendanceAnalyticsService service = service(2);
+        visit(service, "l1", "l2", "l3");
+
+        service.flush();
+
+        assertThat(inserted(1)).hasSize(2);
+        assertThat(meterRegistry.counter("attendance.buckets.dropped").count()).isEqualTo(1);
+    }
+}
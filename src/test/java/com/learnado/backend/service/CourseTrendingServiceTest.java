@@ -0,0 +1,76 @@
+package com.learnado.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.learnado.backend.model.CourseTrendViewers;
+import com.learnado.backend.model.CourseTrendWindow;
+import com.learnado.backend.repository.CourseRepository;
+
+class CourseTrendingServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private CourseTrendingService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        service = new CourseTrendingService(mongoTemplate, mock(CourseRepository.class),
+                true, 60, 24, 10, 11, 4, 256, 10);
+    }
+
+    @Test
+    void shutdownBeforeTheLoadSavesNothingAndDoesNotRetryTheLoad() {
+        service.recordView("c1", "Course", "v1");
+
+        service.persistOnShutdown();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void nothingIsSavedWhileTheStoredWindowsCannotBeLoaded() {
+        when(mongoTemplate.find(any(Query.class), eq(CourseTrendWindow.class)))
+                .thenThrow(new DataAccessResourceFailureException("Mongo down"));
+        service.recordView("c1", "Course", "v1");
+
+        service.persist();
+
+        verify(mongoTemplate, never()).save(any(CourseTrendWindow.class));
+    }
+
+    @Test
+    void onceLoadedChangedWindowsAreSavedAndCountsKept() {
+        when(mongoTemplate.find(any(Query.class), eq(CourseTrendWindow.class))).thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(CourseTrendViewers.class))).thenReturn(List.of());
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(CourseTrendViewers.class))).thenReturn(bulk);
+        service.recordView("c1", "Course", "v1");
+        service.recordView("c1", "Course", "v2");
+
+        service.loadOnStartup();
+        service.persistOnShutdown();
+
+        verify(mongoTemplate).save(any(CourseTrendWindow.class));
+        verify(bulk).execute();
+        assertThat(service.getTrending(5, 1)).singleElement().satisfies(row -> {
+            assertThat(row.getViews()).isEqualTo(2);
+            assertThat(row.getUniqueViewers()).isEqualTo(2);
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package com.learnado.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnado.backend.event.LectureChangedEvent;
+import com.learnado.backend.event.LectureReminderEvent;
+import com.learnado.backend.event.LectureStartDueEvent;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.websocket.SignalingHandler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The wheel ticks once a second, so timers here are set a second or two out and the
+ * assertions wait for them.
+ */
+class LectureLifecycleSchedulerTest {
+
+    private MongoTemplate mongoTemplate;
+    private SignalingHandler signalingHandler;
+    private ApplicationEventPublisher eventPublisher;
+    private LectureLifecycleScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(LiveLecture.class))).thenReturn(List.of());
+        signalingHandler = mock(SignalingHandler.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private void start(boolean autoStart) {
+        scheduler = new LectureLifecycleScheduler(mongoTemplate, signalingHandler, eventPublisher,
+                new SimpleMeterRegistry(), true, 120, 15, 0, autoStart);
+        scheduler.refresh();
+    }
+
+    private static LiveLecture scheduledIn(long millis) {
+        LiveLecture lecture = new LiveLecture();
+        lecture.setId("l1");
+        lecture.setStatus(LectureStatus.SCHEDULED);
+        lecture.setScheduledAt(LocalDateTime.now().plusNanos(millis * 1_000_000));
+        lecture.setDurationMinutes(60);
+        return lecture;
+    }
+
+    private static Document criteria(ArgumentCaptor<Query> query) {
+        return query.getValue().getQueryObject();
+    }
+
+    @Test
+    void theReminderIsClaimedOnceThroughAConditionalUpdate() {
+        LiveLecture lecture = scheduledIn(60_000);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(LiveLecture.class)))
+                .thenReturn(lecture);
+        start(false);
+
+        scheduler.onLectureChanged(LectureChangedEvent.created(lecture));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, timeout(3_000)).findAndModify(query.capture(), any(Update.class),
+                any(FindAndModifyOptions.class), eq(LiveLecture.class));
+        assertThat(criteria(query))
+                .containsEntry("status", LectureStatus.SCHEDULED)
+                .containsEntry("reminderSentAt", null);
+        verify(eventPublisher, timeout(1_000)).publishEvent(any(LectureReminderEvent.class));
+    }
+
+    @Test
+    void aReminderClaimedElsewhereIsNotSentAgain() {
+        start(false);
+
+        scheduler.onLectureChanged(LectureChangedEvent.created(scheduledIn(60_000)));
+
+        verify(mongoTemplate, timeout(3_000)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(LiveLecture.class));
+        verify(eventPublisher, after(500).never()).publishEvent(any(LectureReminderEvent.class));
+    }
+
+    @Test
+    void withoutAutoStartTheStartIsOnlyAnnounced() {
+        LiveLecture lecture = scheduledIn(1_500);
+        lecture.setReminderSentAt(LocalDateTime.now());
+        start(false);
+
+        scheduler.onLectureChanged(LectureChangedEvent.created(lecture));
+
+        verify(eventPublisher, timeout(4_000)).publishEvent(any(LectureStartDueEvent.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(LiveLecture.class));
+    }
+
+    @Test
+    void autoStartMovesOnlyAScheduledLectureToLive() {
+        LiveLecture lecture = scheduledIn(1_500);
+        lecture.setReminderSentAt(LocalDateTime.now());
+        LiveLecture started = scheduledIn(1_500);
+        started.setStatus(LectureStatus.LIVE);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(LiveLecture.class)))
+                .thenReturn(started);
+        start(true);
+
+        scheduler.onLectureChanged(LectureChangedEvent.created(lecture));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(4_000)).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(LiveLecture.class));
+        assertThat(criteria(query)).containsEntry("status", LectureStatus.SCHEDULED);
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", LectureStatus.LIVE);
+        ArgumentCaptor<LectureChangedEvent> event = ArgumentCaptor.forClass(LectureChangedEvent.class);
+        verify(eventPublisher, timeout(1_000)).publishEvent(event.capture());
+        assertThat(event.getValue().previousStatus()).isEqualTo(LectureStatus.SCHEDULED);
+    }
+
+    @Test
+    void aRescheduledLectureLosesItsOldTimers() {
+        LiveLecture lecture = scheduledIn(1_500);
+        lecture.setReminderSentAt(LocalDateTime.now());
+        start(false);
+
+        scheduler.onLectureChanged(LectureChangedEvent.created(lecture));
+        LiveLecture moved = scheduledIn(60 * 60_000);
+        moved.setReminderSentAt(lecture.getReminderSentAt());
+        scheduler.onLectureChanged(LectureChangedEvent.updated(moved, LectureStatus.SCHEDULED));
+
+        verify(eventPublisher, after(3_000).never()).publishEvent(any(LectureStartDueEvent.class));
+    }
+
+    @Test
+    void anOverrunningLectureIsKeptLiveWhileTheInstructorIsThere() {
+        LiveLecture lecture = scheduledIn(0);
+        lecture.setStatus(LectureStatus.LIVE);
+        lecture.setStartedAt(LocalDateTime.now().minusHours(2));
+        when(signalingHandler.isInstructorPresent("l1")).thenReturn(true);
+        start(false);
+
+        scheduler.onLectureChanged(LectureChangedEvent.updated(lecture, LectureStatus.SCHEDULED));
+
+        verify(signalingHandler, timeout(5_000).atLeast(2)).isInstructorPresent("l1");
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(LiveLecture.class));
+    }
+
+    @Test
+    void anOverrunningLectureWithoutItsInstructorIsEnded() {
+        LiveLecture lecture = scheduledIn(0);
+        lecture.setStatus(LectureStatus.LIVE);
+        lecture.setStartedAt(LocalDateTime.now().minusHours(2));
+        LiveLecture ended = scheduledIn(0);
+        ended.setStatus(LectureStatus.COMPLETED);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(LiveLecture.class)))
+                .thenReturn(ended);
+        start(false);
+
+        scheduler.onLectureChanged(LectureChangedEvent.updated(lecture, LectureStatus.SCHEDULED));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(3_000)).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(LiveLecture.class));
+        assertThat(criteria(query)).containsEntry("status", LectureStatus.LIVE);
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", LectureStatus.COMPLETED);
+        verify(eventPublisher, timeout(1_000)).publishEvent(any(LectureChangedEvent.class));
+    }
+}
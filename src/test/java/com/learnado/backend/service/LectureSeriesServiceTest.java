@@ -0,0 +1,225 @@
+package com.learnado.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.learnado.backend.dto.LectureSeriesRequest;
+import com.learnado.backend.dto.LectureSeriesResult;
+import com.learnado.backend.dto.LiveLectureSummary;
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.LectureStatus;
+import com.learnado.backend.model.LiveLecture;
+import com.learnado.backend.repository.BatchRepository;
+
+class LectureSeriesServiceTest {
+
+    private static final String INSTRUCTOR = "teacher@example.com";
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    // A Monday far enough ahead that no occurrence is in the past
+    private final LocalDate monday = LocalDate.now().plusWeeks(2).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+    private MongoTemplate mongoTemplate;
+    private LectureSeriesService service;
+    private final List<LiveLecture> existing = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        BatchRepository batchRepository = mock(BatchRepository.class);
+        when(batchRepository.findById("b1")).thenReturn(Optional.of(
+                Batch.builder().id("b1").courseId("c1").instructorEmail(INSTRUCTOR).build()));
+        when(mongoTemplate.find(any(Query.class), eq(LiveLecture.class))).thenReturn(existing);
+        service = new LectureSeriesService(mongoTemplate, batchRepository, mock(ApplicationEventPublisher.class), 50);
+    }
+
+    private LectureSeriesRequest request(LectureSeriesRequest.Frequency frequency) {
+        LectureSeriesRequest request = new LectureSeriesRequest();
+        request.setBatchId("b1");
+        request.setCourseId("c1");
+        request.setTitle("Algebra");
+        request.setDurationMinutes(60);
+        request.setFrequency(frequency);
+        request.setStartDate(monday);
+        request.setStartTime(TEN);
+        return request;
+    }
+
+    private static List<LocalDateTime> starts(LectureSeriesResult result) {
+        return result.getCreated().stream().map(LiveLectureSummary::getScheduledAt).toList();
+    }
+
+    private void existingLecture(String id, LocalDateTime start, int minutes) {
+        existing.add(LiveLecture.builder().id(id).title("Existing " + id).scheduledAt(start)
+                .durationMinutes(minutes).status(LectureStatus.SCHEDULED).build());
+    }
+
+    @Test
+    void dailyWithIntervalAndCount() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setInterval(2);
+        request.setCount(3);
+
+        LectureSeriesResult result = service.create(request, INSTRUCTOR);
+
+        assertThat(starts(result)).containsExactly(
+                monday.atTime(TEN), monday.plusDays(2).atTime(TEN), monday.plusDays(4).atTime(TEN));
+        assertThat(result.getSeriesId()).isNotNull();
+        assertThat(result.getCreated()).allMatch(lecture -> lecture.getId().equals(lecture.getRoomId()));
+    }
+
+    @Test
+    void countIncludesExceptedDates() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setCount(3);
+        request.setExceptions(List.of(monday.plusDays(1)));
+
+        assertThat(starts(service.create(request, INSTRUCTOR)))
+                .containsExactly(monday.atTime(TEN), monday.plusDays(2).atTime(TEN));
+    }
+
+    @Test
+    void untilIsInclusive() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setUntil(monday.plusDays(2));
+
+        assertThat(starts(service.create(request, INSTRUCTOR))).hasSize(3).last()
+                .isEqualTo(monday.plusDays(2).atTime(TEN));
+    }
+
+    @Test
+    void weeklyOnSeveralDaysSkipsDaysBeforeTheStart() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.WEEKLY);
+        request.setStartDate(monday.plusDays(2)); // Wednesday
+        request.setDaysOfWeek(Set.of(DayOfWeek.FRIDAY, DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        request.setUntil(monday.plusWeeks(1).plusDays(2));
+
+        assertThat(starts(service.create(request, INSTRUCTOR))).containsExactly(
+                monday.plusDays(2).atTime(TEN),
+                monday.plusDays(4).atTime(TEN),
+                monday.plusWeeks(1).atTime(TEN),
+                monday.plusWeeks(1).plusDays(2).atTime(TEN));
+    }
+
+    @Test
+    void weeklyEveryOtherWeekDefaultsToTheStartDay() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.WEEKLY);
+        request.setInterval(2);
+        request.setCount(3);
+
+        assertThat(starts(service.create(request, INSTRUCTOR))).containsExactly(
+                monday.atTime(TEN), monday.plusWeeks(2).atTime(TEN), monday.plusWeeks(4).atTime(TEN));
+    }
+
+    @Test
+    void rejectsSeriesOverTheOccurrenceCap() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setCount(51);
+
+        assertThatThrownBy(() -> service.create(request, INSTRUCTOR))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("at most 50");
+    }
+
+    @Test
+    void backToBackLecturesDoNotConflict() {
+        // Ends exactly when the first occurrence starts, and the next one starts when it ends
+        existingLecture("before", monday.atTime(9, 0), 60);
+        existingLecture("after", monday.plusDays(1).atTime(11, 0), 30);
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setCount(2);
+
+        LectureSeriesResult result = service.create(request, INSTRUCTOR);
+
+        assertThat(result.getConflicts()).isEmpty();
+        assertThat(result.getCreated()).hasSize(2);
+    }
+
+    @Test
+    void aMinuteOfOverlapIsAConflictAndFailsTheSeries() {
+        existingLecture("overlap", monday.plusDays(1).atTime(10, 59), 30);
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setCount(3);
+
+        LectureSeriesResult result = service.create(request, INSTRUCTOR);
+
+        assertThat(result.getSeriesId()).isNull();
+        assertThat(result.getCreated()).isEmpty();
+        assertThat(result.getConflicts()).singleElement().satisfies(conflict -> {
+            assertThat(conflict.getScheduledAt()).isEqualTo(monday.plusDays(1).atTime(TEN));
+            assertThat(conflict.getLectureId()).isEqualTo("overlap");
+        });
+        verify(mongoTemplate, never()).insertAll(any());
+    }
+
+    @Test
+    void skipPolicyCreatesTheRest() {
+        existingLecture("overlap", monday.plusDays(1).atTime(10, 30), 60);
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setCount(3);
+        request.setOnConflict(LectureSeriesRequest.ConflictPolicy.SKIP);
+
+        LectureSeriesResult result = service.create(request, INSTRUCTOR);
+
+        assertThat(starts(result)).containsExactly(monday.atTime(TEN), monday.plusDays(2).atTime(TEN));
+        assertThat(result.getConflicts()).hasSize(1);
+    }
+
+    @Test
+    void loadsADayBeforeTheSeriesToCatchLecturesRunningIntoIt() {
+        // Started the evening before and still running at 10:00
+        existingLecture("overnight", monday.minusDays(1).atTime(20, 0), 15 * 60);
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setCount(1);
+
+        LectureSeriesResult result = service.create(request, INSTRUCTOR);
+
+        assertThat(result.getConflicts()).singleElement()
+                .satisfies(conflict -> assertThat(conflict.getLectureId()).isEqualTo("overnight"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(LiveLecture.class));
+        Document scheduledAt = query.getValue().getQueryObject().get("scheduledAt", Document.class);
+        assertThat(scheduledAt.get("$gte")).isEqualTo(monday.minusDays(1).atTime(TEN));
+    }
+
+    @Test
+    void occurrencesLongerThanTheStepConflictWithEachOther() {
+        LectureSeriesRequest request = request(LectureSeriesRequest.Frequency.DAILY);
+        request.setDurationMinutes(25 * 60);
+        request.setCount(3);
+        request.setOnConflict(LectureSeriesRequest.ConflictPolicy.SKIP);
+
+        LectureSeriesResult result = service.create(request, INSTRUCTOR);
+
+        // The second overlaps the first; the third only overlaps the skipped second
+        assertThat(starts(result)).containsExactly(monday.atTime(TEN), monday.plusDays(2).atTime(TEN));
+        assertThat(result.getConflicts()).singleElement().satisfies(conflict -> {
+            assertThat(conflict.getLectureId()).isNull();
+            assertThat(conflict.getLectureScheduledAt()).isEqualTo(monday.atTime(TEN));
+        });
+    }
+}
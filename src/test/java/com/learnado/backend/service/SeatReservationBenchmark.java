@@ -0,0 +1,136 @@
+package com.learnado.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.repository.EnrollmentRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * 10k students racing for 500 seats in one batch, once through the old check-then-save
+ * enrollment and once through SeatReservationService, printing enrollments/sec and how many
+ * seats each sold. Needs a real MongoDB (the database is dropped), so it only runs with
+ * {@code mvn test -Dtest=SeatReservationBenchmark -Dbenchmark.mongo.uri=mongodb://localhost:27017/learnado-bench}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+class SeatReservationBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int SEATS = 500;
+    private static final int THREADS = 200;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static EnrollmentRepository enrollmentRepository;
+
+    private interface Enroll {
+        void enroll(String batchId, String email);
+    }
+
+    private record Result(int attempts, int enrolled, double seconds, long stored, Integer counter) {
+        double perSecond() {
+            return attempts / seconds;
+        }
+    }
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri"));
+        mongoTemplate = new MongoTemplate(client, "learnado-bench");
+        enrollmentRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(EnrollmentRepository.class);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @Test
+    void enrollmentsPerSecondUnderContention() throws Exception {
+        // What EnrollmentController did before: no seat check, no unique index
+        Result legacy = run(false, (batchId, email) -> {
+            if (enrollmentRepository.existsByStudentEmailAndBatchId(email, batchId)) {
+                throw new RuntimeException("You are already in this batch!");
+            }
+            enrollmentRepository.save(Enrollment.builder()
+                    .studentEmail(email).batchId(batchId).enrolledAt(LocalDateTime.now()).status("PAID").build());
+        });
+        SeatReservationService service = new SeatReservationService(mongoTemplate, enrollmentRepository, event -> { });
+        Result atomic = run(true, service::enroll);
+
+        System.out.printf("%-16s %12s %10s %8s %8s%n", "", "attempts/s", "enrolled", "stored", "counter");
+        System.out.printf("%-16s %12.0f %10d %8d %8s%n", "check-then-save", legacy.perSecond(), legacy.enrolled(), legacy.stored(), "-");
+        System.out.printf("%-16s %12.0f %10d %8d %8d%n", "seat counter", atomic.perSecond(), atomic.enrolled(), atomic.stored(), atomic.counter());
+
+        assertEquals(SEATS, atomic.enrolled());
+        assertEquals(SEATS, atomic.stored());
+        assertEquals(SEATS, atomic.counter());
+    }
+
+    private Result run(boolean uniqueIndex, Enroll enroll) throws InterruptedException {
+        mongoTemplate.dropCollection(Enrollment.class);
+        mongoTemplate.dropCollection(Batch.class);
+        if (uniqueIndex) {
+            mongoTemplate.indexOps(Enrollment.class).createIndex(new CompoundIndexDefinition(
+                    new Document("studentEmail", 1).append("batchId", 1)).unique());
+        }
+        Batch batch = mongoTemplate.insert(Batch.builder()
+                .batchName("Launch Batch")
+                .maxStudents(SEATS)
+                .enrolledCount(0)
+                .build());
+
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger enrolled = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < STUDENTS; i++) {
+            // Every 10th student double-clicks "Enroll"
+            int clicks = i % 10 == 0 ? 2 : 1;
+            String email = "student" + i + "@bench.test";
+            for (int c = 0; c < clicks; c++) {
+                pool.execute(() -> {
+                    try {
+                        go.await();
+                        attempts.incrementAndGet();
+                        enroll.enroll(batch.getId(), email);
+                        enrolled.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        // Full, or already enrolled
+                    }
+                });
+            }
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long stored = mongoTemplate.count(Query.query(Criteria.where("batchId").is(batch.getId())), Enrollment.class);
+        Integer counter = mongoTemplate.findById(batch.getId(), Batch.class).getEnrolledCount();
+        return new Result(attempts.get(), enrolled.get(), seconds, stored, counter);
+    }
+}
@@ -0,0 +1,113 @@
+package com.learnado.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnado.backend.model.Batch;
+import com.learnado.backend.model.Enrollment;
+import com.learnado.backend.repository.EnrollmentRepository;
+
+class SeatReservationServiceTest {
+
+    private static final String STUDENT = "student@example.com";
+
+    private MongoTemplate mongoTemplate;
+    private EnrollmentRepository enrollmentRepository;
+    private SeatReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        enrollmentRepository = mock(EnrollmentRepository.class);
+        when(mongoTemplate.insert(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new SeatReservationService(mongoTemplate, enrollmentRepository, mock(ApplicationEventPublisher.class));
+    }
+
+    private static boolean asksForMissingCounter(Query query) {
+        return query.getQueryObject().containsKey("enrolledCount");
+    }
+
+    private void claimReturns(Batch first, Batch second) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Batch.class)))
+                .thenReturn(first, second);
+    }
+
+    @Test
+    void claimsASeatOnlyWhereTheCounterExistsAndHasRoom() {
+        claimReturns(Batch.builder().id("b1").enrolledCount(1).maxStudents(2).build(), null);
+
+        Enrollment enrollment = service.enroll("b1", STUDENT);
+
+        assertThat(enrollment.getBatchId()).isEqualTo("b1");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Batch.class));
+        Document batch = (Document) query.getValue().getQueryObject().getList("$and", Object.class).get(0);
+        assertThat(batch).containsEntry("enrolledCount", new Document("$exists", true));
+    }
+
+    @Test
+    void aBatchWithoutACounterIsCountedFromItsEnrollmentsBeforeASeatIsClaimed() {
+        claimReturns(null, Batch.builder().id("b1").enrolledCount(4).maxStudents(5).build());
+        when(mongoTemplate.exists(argThat(SeatReservationServiceTest::asksForMissingCounter), eq(Batch.class))).thenReturn(true);
+        when(mongoTemplate.count(any(Query.class), eq(Enrollment.class))).thenReturn(3L);
+
+        service.enroll("b1", STUDENT);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(argThat(SeatReservationServiceTest::asksForMissingCounter), update.capture(), eq(Batch.class));
+        assertThat(update.getValue().getUpdateObject().toJson()).contains("\"enrolledCount\": 3");
+    }
+
+    @Test
+    void aFullBatchIsNotRecounted() {
+        claimReturns(null, null);
+        when(mongoTemplate.exists(argThat(query -> !asksForMissingCounter(query)), eq(Batch.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> service.enroll("b1", STUDENT)).hasMessage("This batch is full!");
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Enrollment.class));
+    }
+
+    @Test
+    void aMissingBatchIsReported() {
+        claimReturns(null, null);
+
+        assertThatThrownBy(() -> service.enroll("b1", STUDENT)).hasMessage("Batch not found");
+    }
+
+    @Test
+    void aStudentAlreadyInTheBatchNeverClaimsASeat() {
+        when(enrollmentRepository.existsByStudentEmailAndBatchId(STUDENT, "b1")).thenReturn(true);
+
+        assertThatThrownBy(() -> service.enroll("b1", STUDENT)).hasMessage("You are already in this batch!");
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Batch.class));
+    }
+
+    @Test
+    void aConcurrentDoubleEnrollmentHandsTheSeatBack() {
+        claimReturns(Batch.builder().id("b1").enrolledCount(1).maxStudents(2).build(), null);
+        when(mongoTemplate.insert(any(Enrollment.class))).thenThrow(new DuplicateKeyException("dup"));
+
+        assertThatThrownBy(() -> service.enroll("b1", STUDENT)).hasMessage("You are already in this batch!");
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Batch.class));
+        assertThat(update.getValue().getUpdateObject().toJson()).contains("\"enrolledCount\": -1");
+    }
+}
@@ -0,0 +1,115 @@
+package com.learnado.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.learnado.backend.model.UploadSession;
+import com.learnado.backend.model.UploadStatus;
+import com.learnado.backend.repository.CourseRepository;
+import com.learnado.backend.repository.UploadSessionRepository;
+import com.learnado.backend.service.storage.StorageService;
+
+class UploadSessionServiceTest {
+
+    private static final String OWNER = "teacher@example.com";
+
+    @TempDir
+    Path spoolDir;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private UploadSessionService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        UploadSessionRepository repository = mock(UploadSessionRepository.class);
+        when(repository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(sessions.get(invocation.getArgument(0, String.class))));
+        when(repository.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        service = new UploadSessionService(repository, mock(CourseRepository.class), mock(StorageService.class),
+                spoolDir.toString(), 1024, 1024, 24);
+
+        sessions.put("u1", UploadSession.builder()
+                .id("u1").ownerEmail(OWNER).courseId("c1").fileName("lecture.mp4")
+                .totalBytes(8L).receivedBytes(0L).status(UploadStatus.IN_PROGRESS)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        Files.createFile(spoolDir.resolve("u1.part"));
+    }
+
+    @Test
+    void aRetriedChunkWaitsForTheOneStillReadingAndIsThenRejected() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // A slow client: the body stalls after the lock is taken
+        InputStream slow = new FilterInputStream(new ByteArrayInputStream("abcd".getBytes())) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.read(b, off, len);
+            }
+        };
+
+        CompletableFuture<UploadSession> first = CompletableFuture.supplyAsync(() -> append(0, slow));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<UploadSession> retry = CompletableFuture.supplyAsync(
+                () -> append(0, new ByteArrayInputStream("abcd".getBytes())));
+        Thread.sleep(100);
+        assertThat(retry).isNotDone();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getReceivedBytes()).isEqualTo(4);
+        assertThatThrownBy(() -> retry.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("does not match expected offset 4");
+        assertThat(Files.readString(spoolDir.resolve("u1.part"))).isEqualTo("abcd");
+    }
+
+    @Test
+    void chunksAppendInOffsetOrder() throws Exception {
+        service.appendChunk("u1", 0, new ByteArrayInputStream("abcd".getBytes()), OWNER);
+        UploadSession session = service.appendChunk("u1", 4, new ByteArrayInputStream("efgh".getBytes()), OWNER);
+
+        assertThat(session.getReceivedBytes()).isEqualTo(8);
+        assertThat(Files.readString(spoolDir.resolve("u1.part"))).isEqualTo("abcdefgh");
+    }
+
+    private UploadSession append(long offset, InputStream body) {
+        try {
+            return service.appendChunk("u1", offset, body, OWNER);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.learnado.backend.service.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopeningFindsTheEndAndTheLastTimestamp() throws Exception {
+        JournalSegment segment = JournalSegment.open(dir, 0, 1024);
+        segment.append(100, "{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        int second = segment.append(200, "{\"b\":2}".getBytes(StandardCharsets.UTF_8));
+        segment.append(300, "{\"c\":3}".getBytes(StandardCharsets.UTF_8));
+        int end = segment.position();
+        segment.close();
+
+        JournalSegment reopened = JournalSegment.open(dir, 0, 1024);
+        try {
+            assertThat(reopened.position()).isEqualTo(end);
+            assertThat(reopened.lastTimestamp(0)).isEqualTo(300);
+            assertThat(reopened.lastTimestamp(second)).isEqualTo(300);
+            assertThat(reopened.lastTimestamp(end)).isEqualTo(-1);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void aRecordThatDoesNotFitIsRefused() throws Exception {
+        JournalSegment segment = JournalSegment.open(dir, 0, 64);
+        try {
+            assertThat(segment.fits(64 - JournalSegment.HEADER_BYTES)).isTrue();
+            segment.append(1, new byte[40]);
+            assertThat(segment.fits(40)).isFalse();
+        } finally {
+            segment.close();
+        }
+    }
+}
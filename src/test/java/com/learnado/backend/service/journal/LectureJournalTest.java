@@ -0,0 +1,147 @@
+package com.learnado.backend.service.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.learnado.backend.repository.LiveLectureRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LectureJournalTest {
+
+    private static final String LECTURE = "l1";
+
+    @TempDir
+    Path root;
+
+    private LiveLectureRepository liveLectureRepository;
+    private LectureJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        liveLectureRepository = mock(LiveLectureRepository.class);
+        when(liveLectureRepository.existsById(anyString())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    // Small segments and a dense index, so a few hundred events roll over and get indexed
+    private LectureJournal start() throws IOException {
+        return new LectureJournal(new SimpleMeterRegistry(), liveLectureRepository, root.toString(),
+                true, 10_000, 512, 128, true, 5, 90, Long.MAX_VALUE);
+    }
+
+    private List<String> replay(long from, long to) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        journal.replay(LECTURE, from, to, out);
+        String text = out.toString(StandardCharsets.UTF_8);
+        return text.isEmpty() ? List.of() : List.of(text.split("\n"));
+    }
+
+    private List<String> awaitEvents(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<String> lines = replay(0, Long.MAX_VALUE);
+        while (lines.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            lines = replay(0, Long.MAX_VALUE);
+        }
+        return lines;
+    }
+
+    private static long timestampOf(String line) {
+        return Long.parseLong(line.substring("{\"ts\":".length(), line.indexOf(',')));
+    }
+
+    @Test
+    void everyQueuedEventIsWrittenInOrderAcrossSegments() throws Exception {
+        journal = start();
+        for (int i = 0; i < 300; i++) {
+            journal.record(LECTURE, "{\"n\":" + i + "}");
+        }
+        // Shutdown lets the writer drain the queue before it stops
+        journal.shutdown();
+
+        List<String> lines = replay(0, Long.MAX_VALUE);
+        assertThat(lines).hasSize(300);
+        for (int i = 0; i < 300; i++) {
+            assertThat(lines.get(i)).endsWith(",\"event\":{\"n\":" + i + "}}");
+        }
+        try (Stream<Path> files = Files.list(root.resolve(LECTURE))) {
+            assertThat(files.filter(path -> path.toString().endsWith(".seg")).count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void replayReturnsOnlyTheRequestedTimeRange() throws Exception {
+        journal = start();
+        for (int i = 0; i < 100; i++) {
+            journal.record(LECTURE, "{\"before\":" + i + "}");
+        }
+        assertThat(awaitEvents(100)).hasSize(100);
+        Thread.sleep(5);
+        long from = System.currentTimeMillis();
+        Thread.sleep(5);
+        for (int i = 0; i < 100; i++) {
+            journal.record(LECTURE, "{\"after\":" + i + "}");
+        }
+        List<String> all = awaitEvents(200);
+        assertThat(all).hasSize(200);
+
+        List<String> later = replay(from, Long.MAX_VALUE);
+        assertThat(later).hasSize(100).allMatch(line -> line.contains("\"after\""));
+        assertThat(later.get(0)).contains("{\"after\":0}");
+        assertThat(replay(0, from)).hasSize(100).allMatch(line -> line.contains("\"before\""));
+    }
+
+    @Test
+    void timestampsStayInOrderWhenAJournalIsReopened() throws Exception {
+        // A previous run wrote with a clock that was ahead of ours
+        long ahead = System.currentTimeMillis() + 3_600_000;
+        Path dir = Files.createDirectories(root.resolve(LECTURE));
+        JournalSegment segment = JournalSegment.open(dir, 0, 512);
+        segment.append(ahead, "{\"old\":1}".getBytes(StandardCharsets.UTF_8));
+        segment.close();
+
+        journal = start();
+        journal.record(LECTURE, "{\"new\":1}");
+
+        List<String> lines = awaitEvents(2);
+        assertThat(lines).hasSize(2);
+        assertThat(timestampOf(lines.get(1))).isGreaterThanOrEqualTo(ahead);
+    }
+
+    @Test
+    void eventsForLecturesMongoDoesNotKnowAreNotJournaled() throws Exception {
+        when(liveLectureRepository.existsById("ghost")).thenReturn(false);
+        journal = start();
+
+        journal.record("ghost", "{}");
+        journal.record("../escape", "{}");
+        journal.shutdown();
+
+        assertThat(journal.exists("ghost")).isFalse();
+        try (Stream<Path> children = Files.list(root)) {
+            assertThat(children).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.learnado.backend.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.learnado.backend.model.EmailStatus;
+import com.learnado.backend.model.OutboundEmail;
+import com.learnado.backend.repository.OutboundEmailRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmailDispatcherTest {
+
+    private MongoTemplate mongoTemplate;
+    private MailBatchSender sender;
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        sender = mock(MailBatchSender.class);
+        when(sender.isAvailable()).thenReturn(true);
+        // example.com may send 2 at once; refills are too slow to matter within a test
+        dispatcher = new EmailDispatcher(mongoTemplate, sender, mock(OutboundEmailRepository.class),
+                new SimpleMeterRegistry(), 100, 3, 30, 3600, 10, 0.001, "example.com:2");
+    }
+
+    private static OutboundEmail email(String id, Integer attempts) {
+        return OutboundEmail.builder().id(id).domain("example.com").status(EmailStatus.SENDING).attempts(attempts).build();
+    }
+
+    // The pick returns the candidates, the read-back after the claim returns what we won
+    private void due(List<OutboundEmail> candidates, List<OutboundEmail> won) {
+        when(mongoTemplate.find(any(Query.class), eq(OutboundEmail.class))).thenReturn(candidates, won);
+    }
+
+    private void sendResults(String... errors) {
+        doAnswer(invocation -> {
+            List<OutboundEmail> emails = invocation.getArgument(0);
+            BiConsumer<OutboundEmail, String> onResult = invocation.getArgument(1);
+            for (int i = 0; i < emails.size(); i++) {
+                onResult.accept(emails.get(i), errors.length > i ? errors[i] : null);
+            }
+            return null;
+        }).when(sender).send(anyList(), any());
+    }
+
+    private List<Query> claims() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateMulti(query.capture(), update.capture(), eq(OutboundEmail.class));
+        // The first updateMulti of each run releases stale claims
+        return query.getAllValues().stream()
+                .filter(q -> q.getQueryObject().containsKey("id"))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> claimedIds(Query claim) {
+        return claim.getQueryObject().get("id", Document.class).get("$in", Collection.class);
+    }
+
+    @Test
+    void nothingHappensWhileSmtpIsUnavailable() {
+        when(sender.isAvailable()).thenReturn(false);
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void onlyWhatTheDomainLimitAllowsIsClaimedAndOnlyIfStillPending() {
+        due(List.of(email("a", null), email("b", null), email("c", null)), List.of(email("a", null), email("b", null)));
+        sendResults();
+
+        dispatcher.dispatch();
+
+        Query claim = claims().get(0);
+        assertThat(claimedIds(claim)).containsExactly("a", "b");
+        assertThat(claim.getQueryObject()).containsEntry("status", EmailStatus.PENDING);
+    }
+
+    @Test
+    void tokensForEmailsClaimedElsewhereAreRefunded() {
+        // Two granted, but another instance won "b": one token comes back for the next run
+        due(List.of(email("a", null), email("b", null)), List.of(email("a", null)));
+        sendResults();
+        dispatcher.dispatch();
+
+        due(List.of(email("c", null), email("d", null)), List.of(email("c", null)));
+        dispatcher.dispatch();
+
+        List<Query> claims = claims();
+        assertThat(claims).hasSize(2);
+        assertThat(claimedIds(claims.get(1))).containsExactly("c");
+    }
+
+    @Test
+    void aSentEmailIsMarkedSentUnderItsClaim() {
+        due(List.of(email("a", null)), List.of(email("a", null)));
+        sendResults();
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(OutboundEmail.class));
+        assertThat(query.getValue().getQueryObject()).containsKey("claimedBy");
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", EmailStatus.SENT);
+    }
+
+    @Test
+    void aFailedEmailIsRetriedWithJitteredExponentialBackoff() {
+        due(List.of(email("a", 1)), List.of(email("a", 1)));
+        sendResults("421 try later");
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(OutboundEmail.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsEntry("status", EmailStatus.PENDING).containsEntry("attempts", 2)
+                .containsEntry("lastError", "421 try later");
+        // Second attempt: 30s * 2 = 60s, +-20%
+        Duration wait = Duration.between(before, (LocalDateTime) set.get("nextAttemptAt"));
+        assertThat(wait.getSeconds()).isBetween(47L, 73L);
+    }
+
+    @Test
+    void theLastAllowedAttemptFailsTheEmailForGood() {
+        due(List.of(email("a", 2)), List.of(email("a", 2)));
+        sendResults("550 no such user");
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), update.capture(), eq(OutboundEmail.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", EmailStatus.FAILED)
+                .containsEntry("attempts", 3);
+    }
+}
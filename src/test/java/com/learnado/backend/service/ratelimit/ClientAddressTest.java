@@ -0,0 +1,24 @@
+package com.learnado.backend.service.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ClientAddressTest {
+
+    @Test
+    void ipv4IsKeptAsIs() {
+        assertThat(ClientAddress.normalize("203.0.113.7")).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void ipv6IsCutToItsSlash64() {
+        assertThat(ClientAddress.normalize("2001:db8:0:1:aaaa:bbbb:cccc:dddd")).isEqualTo("2001:db8:0:1::/64");
+        assertThat(ClientAddress.normalize("2001:db8:0:1::42")).isEqualTo("2001:db8:0:1::/64");
+    }
+
+    @Test
+    void ipv4MappedAddressesAreKeyedAsIpv4() {
+        assertThat(ClientAddress.normalize("::ffff:203.0.113.7")).isEqualTo("203.0.113.7");
+    }
+}
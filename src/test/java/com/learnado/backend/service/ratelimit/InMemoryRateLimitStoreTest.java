@@ -0,0 +1,57 @@
+package com.learnado.backend.service.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryRateLimitStoreTest {
+
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(new SimpleMeterRegistry());
+
+    @Test
+    void allowsABurstOfCapacityThenDenies() {
+        RateLimitPolicy policy = new RateLimitPolicy("test", 3, Duration.ofHours(1));
+
+        assertThat(store.tryConsume("a", policy)).isTrue();
+        assertThat(store.tryConsume("a", policy)).isTrue();
+        assertThat(store.tryConsume("a", policy)).isTrue();
+        assertThat(store.tryConsume("a", policy)).isFalse();
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        RateLimitPolicy policy = new RateLimitPolicy("test", 1, Duration.ofHours(1));
+
+        assertThat(store.tryConsume("a", policy)).isTrue();
+        assertThat(store.tryConsume("b", policy)).isTrue();
+        assertThat(store.tryConsume("a", policy)).isFalse();
+    }
+
+    @Test
+    void aTokenComesBackAfterTheRefillTime() throws InterruptedException {
+        RateLimitPolicy policy = new RateLimitPolicy("test", 1, Duration.ofMillis(20));
+        store.tryConsume("a", policy);
+        assertThat(store.tryConsume("a", policy)).isFalse();
+
+        Thread.sleep(40);
+
+        assertThat(store.tryConsume("a", policy)).isTrue();
+    }
+
+    @Test
+    void theSweepDropsOnlyBucketsThatAreFullAgain() throws InterruptedException {
+        store.tryConsume("quick", new RateLimitPolicy("quick", 1, Duration.ofMillis(10)));
+        store.tryConsume("slow", new RateLimitPolicy("slow", 1, Duration.ofHours(1)));
+        assertThat(store.size()).isEqualTo(2);
+
+        Thread.sleep(30);
+        store.evictIdle();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.tryConsume("slow", new RateLimitPolicy("slow", 1, Duration.ofHours(1)))).isFalse();
+    }
+}
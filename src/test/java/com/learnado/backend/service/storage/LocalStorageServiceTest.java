@@ -0,0 +1,93 @@
+package com.learnado.backend.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalStorageServiceTest {
+
+    @TempDir
+    Path root;
+
+    private LocalStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new LocalStorageService(root.toString(), "/api/media/");
+    }
+
+    private StoredFile store(String key, String content) throws Exception {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return storage.store(key, new ByteArrayInputStream(bytes), bytes.length, "text/plain");
+    }
+
+    @Test
+    void storesTheFileWithTheSha256OfItsContent() throws Exception {
+        StoredFile stored = store("courses/c1/notes.txt", "hello media");
+
+        assertThat(stored.getUrl()).isEqualTo("/api/media/courses/c1/notes.txt");
+        assertThat(stored.getSize()).isEqualTo(11);
+        Path file = storage.resolve("courses/c1/notes.txt");
+        assertThat(Files.readString(file)).isEqualTo("hello media");
+        String expected = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest("hello media".getBytes(StandardCharsets.UTF_8)));
+        assertThat(storage.contentHash(file)).isEqualTo(expected);
+        // Only the file and its hidden hash; no temporary parts left behind
+        try (var files = Files.list(file.getParent())) {
+            assertThat(files.map(p -> p.getFileName().toString()))
+                    .containsExactlyInAnyOrder("notes.txt", ".notes.txt.sha256");
+        }
+    }
+
+    @Test
+    void replacingAFileReplacesItsHash() throws Exception {
+        store("thumbnails/c1/a.png", "one");
+        Path file = storage.resolve("thumbnails/c1/a.png");
+        String first = storage.contentHash(file);
+
+        store("thumbnails/c1/a.png", "two");
+
+        assertThat(storage.contentHash(file)).isNotEqualTo(first).hasSize(64);
+    }
+
+    @Test
+    void deleteRemovesTheHashToo() throws Exception {
+        store("thumbnails/c1/a.png", "one");
+        Path file = storage.resolve("thumbnails/c1/a.png");
+
+        storage.delete("thumbnails/c1/a.png");
+
+        assertThat(file).doesNotExist();
+        assertThat(storage.contentHash(file)).isNull();
+        try (var files = Files.list(file.getParent())) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void filesWithoutAHashHaveNone() throws Exception {
+        Path file = storage.resolve("thumbnails/old.png");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "legacy");
+
+        assertThat(storage.contentHash(file)).isNull();
+    }
+
+    @Test
+    void hiddenKeysAndKeysOutsideTheRoot() {
+        assertThat(LocalStorageService.isHidden("thumbnails/c1/.a.png.sha256")).isTrue();
+        assertThat(LocalStorageService.isHidden(".upload-1.part")).isTrue();
+        assertThat(LocalStorageService.isHidden("thumbnails/c1/a.png")).isFalse();
+        assertThatThrownBy(() -> storage.resolve("../outside.txt")).isInstanceOf(RuntimeException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        int depth = 4;
+        int width = 2048;
+        CountMinSketch sketch = new CountMinSketch(depth, width);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Skewed: a few hot courses and a long tail
+            String key = "course-" + (int) (Math.pow(random.nextDouble(), 3) * 20_000);
+            sketch.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        long bound = (long) Math.ceil(Math.E / width * sketch.total());
+        long overBound = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        // The bound holds with probability 1 - e^-depth per key
+        assertThat((double) overBound / exact.size()).isLessThanOrEqualTo(Math.exp(-depth));
+        assertThat(sketch.total()).isEqualTo(200_000);
+    }
+
+    @Test
+    void addReturnsTheNewEstimate() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        assertThat(sketch.add("a", 3)).isEqualTo(3);
+        assertThat(sketch.add("a", 2)).isEqualTo(5);
+        assertThat(sketch.estimate("a")).isEqualTo(5);
+    }
+
+    @Test
+    void mergeSumsAndSurvivesSerialization() {
+        CountMinSketch first = new CountMinSketch(4, 256);
+        CountMinSketch second = new CountMinSketch(4, 256);
+        first.add("a", 5);
+        second.add("a", 7);
+        second.add("b", 1);
+
+        first.merge(CountMinSketch.fromBytes(second.toBytes()));
+
+        assertThat(first.estimate("a")).isGreaterThanOrEqualTo(12);
+        assertThat(first.estimate("b")).isGreaterThanOrEqualTo(1);
+        assertThat(first.total()).isEqualTo(13);
+        assertThat(CountMinSketch.fromBytes(first.toBytes()).estimate("a")).isEqualTo(first.estimate("a"));
+    }
+
+    @Test
+    void mergeRejectsOtherDimensions() {
+        assertThatThrownBy(() -> new CountMinSketch(4, 256).merge(new CountMinSketch(4, 128)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GradientLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Zero-length windows of one sample, so every release may move the limit
+    private static GradientLimit limit(int initial, int min, int max) {
+        return new GradientLimit(initial, min, max, 1.5, 0, 1);
+    }
+
+    // Fills the limit, then releases every permit with the given latency
+    private static void saturate(GradientLimit limit, long rttNanos) {
+        int held = 0;
+        while (limit.tryAcquire(1.0)) {
+            held++;
+        }
+        for (int i = 0; i < held; i++) {
+            limit.release(rttNanos);
+        }
+    }
+
+    @Test
+    void growsWhileLatencyHoldsAndShrinksWhenItRises() {
+        GradientLimit limit = limit(20, 5, 200);
+        for (int i = 0; i < 20; i++) {
+            saturate(limit, FAST);
+        }
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        // Requests start queueing: ten times slower than the baseline
+        saturate(limit, SLOW);
+        int shrunk = limit.getLimit();
+        assertThat(shrunk).isLessThan(grown).isGreaterThanOrEqualTo(5);
+
+        // Once the slower latency is the new normal, the baseline follows and the limit grows again
+        for (int i = 0; i < 50; i++) {
+            saturate(limit, SLOW);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(shrunk);
+    }
+
+    @Test
+    void staysWithinMinAndMax() {
+        GradientLimit limit = limit(20, 10, 30);
+        for (int i = 0; i < 100; i++) {
+            saturate(limit, FAST);
+        }
+        assertThat(limit.getLimit()).isEqualTo(30);
+
+        // Latency keeps getting worse faster than the baseline can follow
+        long rtt = FAST;
+        for (int i = 0; i < 8; i++) {
+            rtt *= 10;
+            saturate(limit, rtt);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void aMostlyIdleServerDoesNotMoveTheLimit() {
+        GradientLimit limit = limit(20, 5, 200);
+        for (int i = 0; i < 100; i++) {
+            assertThat(limit.tryAcquire(1.0)).isTrue();
+            limit.release(i < 50 ? FAST : SLOW);
+        }
+        assertThat(limit.getLimit()).isEqualTo(20);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void eachShareIsRefusedAtItsPartOfTheLimit() {
+        GradientLimit limit = limit(10, 1, 10);
+        int low = 0;
+        while (limit.tryAcquire(0.6)) {
+            low++;
+        }
+        assertThat(low).isEqualTo(6);
+
+        // Higher priorities still get in above the low share
+        assertThat(limit.tryAcquire(0.85)).isTrue();
+        assertThat(limit.tryAcquire(0.85)).isTrue();
+        assertThat(limit.tryAcquire(0.85)).isFalse();
+        assertThat(limit.tryAcquire(1.0)).isTrue();
+        assertThat(limit.tryAcquire(1.0)).isTrue();
+        assertThat(limit.tryAcquire(1.0)).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(10);
+
+        limit.release(FAST);
+        assertThat(limit.tryAcquire(0.6)).isFalse();
+        assertThat(limit.tryAcquire(1.0)).isTrue();
+    }
+
+    @Test
+    void aTinyShareStillGetsOnePermit() {
+        GradientLimit limit = limit(10, 1, 10);
+        assertThat(limit.tryAcquire(0.01)).isTrue();
+        assertThat(limit.tryAcquire(0.01)).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> limit(10, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> limit(10, 20, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
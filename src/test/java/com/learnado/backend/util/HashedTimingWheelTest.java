@@ -0,0 +1,115 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+    // 8 slots of 10ms: one turn of the wheel is 80ms
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 10, 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void firesNoEarlierThanTheDeadline() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        long deadline = System.currentTimeMillis() + 50;
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> {
+            firedAt[0] = System.currentTimeMillis();
+            fired.countDown();
+        }, deadline);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt[0]).isGreaterThanOrEqualTo(deadline);
+        assertThat(timeout.isFired()).isTrue();
+        assertThat(wheel.pendingCount()).isZero();
+    }
+
+    @Test
+    void firesWithinOneTickOfTheDeadline() throws InterruptedException {
+        HashedTimingWheel coarse = new HashedTimingWheel("coarse-wheel", 100, 8, Runnable::run);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            long[] firedAt = new long[1];
+            long deadline = System.currentTimeMillis() + 250;
+
+            coarse.schedule(() -> {
+                firedAt[0] = System.currentTimeMillis();
+                fired.countDown();
+            }, deadline);
+
+            assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+            // One tick, plus some slack for a busy machine
+            assertThat(firedAt[0] - deadline).isBetween(0L, 100L + 40L);
+        } finally {
+            coarse.stop();
+        }
+    }
+
+    @Test
+    void deadlinesSeveralTurnsAwayWaitOutTheirRounds() throws InterruptedException {
+        Map<Long, Long> firedAt = new ConcurrentHashMap<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        long now = System.currentTimeMillis();
+        for (long delay : new long[] {30, 110, 270}) {
+            long deadline = now + delay;
+            wheel.schedule(() -> {
+                firedAt.put(deadline, System.currentTimeMillis());
+                fired.countDown();
+            }, deadline);
+        }
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        firedAt.forEach((deadline, at) -> assertThat(at).isGreaterThanOrEqualTo(deadline));
+    }
+
+    @Test
+    void aDeadlineInThePastFiresOnTheNextTick() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.schedule(fired::countDown, System.currentTimeMillis() - 60_000);
+
+        assertThat(fired.await(500, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFireAndAreUnlinked() throws InterruptedException {
+        CountDownLatch cancelledRan = new CountDownLatch(1);
+        CountDownLatch kept = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + 40;
+
+        HashedTimingWheel.Timeout cancelled = wheel.schedule(cancelledRan::countDown, deadline);
+        wheel.schedule(kept::countDown, deadline);
+        cancelled.cancel();
+
+        assertThat(kept.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelledRan.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(cancelled.isFired()).isFalse();
+        assertThat(wheel.pendingCount()).isZero();
+    }
+
+    @Test
+    void manyTimeoutsInOneSlotAllFire() throws InterruptedException {
+        int count = 10_000;
+        CountDownLatch fired = new CountDownLatch(count);
+        long deadline = System.currentTimeMillis() + 20;
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(fired::countDown, deadline + (i % 3) * 80);
+        }
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(wheel.pendingCount()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    // Standard error is 1.04 / sqrt(2^precision), about 2.3% at precision 11
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(1 << 11);
+
+    @Test
+    void largeCardinalitiesStayWithinThreeStandardErrors() {
+        for (int distinct : new int[] {10_000, 100_000, 1_000_000}) {
+            HyperLogLog hll = new HyperLogLog(11);
+            for (int i = 0; i < distinct; i++) {
+                hll.offer("viewer-" + i);
+            }
+            double error = Math.abs(hll.cardinality() - distinct) / (double) distinct;
+            assertThat(error).as("relative error for %d", distinct).isLessThan(3 * STANDARD_ERROR);
+        }
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog hll = new HyperLogLog(11);
+        assertThat(hll.cardinality()).isZero();
+        for (int i = 0; i < 100; i++) {
+            hll.offer("viewer-" + i);
+        }
+        assertThat(hll.cardinality()).isBetween(97L, 103L);
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog hll = new HyperLogLog(11);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 20; i++) {
+                hll.offer("viewer-" + i);
+            }
+        }
+        assertThat(hll.cardinality()).isEqualTo(20);
+    }
+
+    @Test
+    void mergeCountsTheUnion() {
+        HyperLogLog first = new HyperLogLog(11);
+        HyperLogLog second = new HyperLogLog(11);
+        for (int i = 0; i < 30_000; i++) {
+            first.offer("viewer-" + i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            second.offer("viewer-" + i);
+        }
+
+        first.merge(HyperLogLog.fromBytes(second.toBytes()));
+
+        assertThat(Math.abs(first.cardinality() - 50_000) / 50_000.0).isLessThan(3 * STANDARD_ERROR);
+    }
+
+    @Test
+    void rejectsMismatchedPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(11).merge(new HyperLogLog(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[1000]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
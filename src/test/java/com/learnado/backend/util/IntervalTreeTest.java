@@ -0,0 +1,68 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntervalTreeTest {
+
+    private static IntervalTree<String> tree(long[]... ranges) {
+        List<IntervalTree.Interval<String>> intervals = new ArrayList<>();
+        for (long[] range : ranges) {
+            intervals.add(new IntervalTree.Interval<>(range[0], range[1], range[0] + "-" + range[1]));
+        }
+        return new IntervalTree<>(intervals);
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        IntervalTree<String> tree = tree(new long[] {10, 20});
+
+        assertThat(tree.overlapping(0, 10)).isEmpty();   // Ends where the interval starts
+        assertThat(tree.overlapping(20, 30)).isEmpty();  // Starts where the interval ends
+        assertThat(tree.overlapping(9, 11)).containsExactly("10-20");
+        assertThat(tree.overlapping(19, 21)).containsExactly("10-20");
+        assertThat(tree.overlapping(12, 15)).containsExactly("10-20"); // Inside
+        assertThat(tree.overlapping(0, 30)).containsExactly("10-20");  // Covering
+    }
+
+    @Test
+    void findsEveryOverlapInStartOrder() {
+        IntervalTree<String> tree = tree(new long[] {50, 60}, new long[] {0, 100}, new long[] {10, 20}, new long[] {55, 56});
+
+        assertThat(tree.overlapping(55, 57)).containsExactly("0-100", "50-60", "55-56");
+        assertThat(tree.overlapping(20, 50)).containsExactly("0-100");
+    }
+
+    @Test
+    void emptyTreeFindsNothing() {
+        assertThat(new IntervalTree<String>(List.of()).overlapping(0, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(3);
+        List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10_000);
+            intervals.add(new IntervalTree.Interval<>(start, start + 1 + random.nextInt(300), i));
+        }
+        IntervalTree<Integer> tree = new IntervalTree<>(intervals);
+
+        for (int query = 0; query < 1_000; query++) {
+            long start = random.nextInt(10_500);
+            long end = start + 1 + random.nextInt(200);
+            List<Integer> expected = new ArrayList<>();
+            for (IntervalTree.Interval<Integer> interval : intervals) {
+                if (interval.start() < end && interval.end() > start) {
+                    expected.add(interval.value());
+                }
+            }
+            assertThat(tree.overlapping(start, end)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
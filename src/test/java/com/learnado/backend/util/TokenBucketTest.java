@@ -0,0 +1,50 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    // Refills one token every ~17 minutes, so nothing comes back during a test
+    private static final double SLOW = 0.001;
+
+    @Test
+    void startsFullAndGrantsNoMoreThanItHolds() {
+        TokenBucket bucket = new TokenBucket(3, SLOW);
+
+        assertThat(bucket.tryAcquire(2)).isEqualTo(2);
+        assertThat(bucket.tryAcquire(5)).isEqualTo(1);
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refundsAreCappedAtCapacity() {
+        TokenBucket bucket = new TokenBucket(3, SLOW);
+        bucket.tryAcquire(1);
+
+        bucket.refund(5);
+
+        assertThat(bucket.tryAcquire(10)).isEqualTo(3);
+    }
+
+    @Test
+    void anEmptyBucketReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 10);
+        assertThat(bucket.millisUntilAvailable()).isZero();
+
+        bucket.tryAcquire();
+
+        assertThat(bucket.millisUntilAvailable()).isBetween(1L, 100L);
+    }
+
+    @Test
+    void tokensComeBackOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1000);
+        bucket.tryAcquire();
+
+        Thread.sleep(20);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+    }
+}
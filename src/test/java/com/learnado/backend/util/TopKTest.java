@@ -0,0 +1,55 @@
+package com.learnado.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+    @Test
+    void keepsTheHighestScoresInOrder() {
+        TopK top = new TopK(3);
+        top.offer("a", 5);
+        top.offer("b", 1);
+        top.offer("c", 3);
+        top.offer("d", 4);
+
+        assertThat(top.keys()).containsExactly("a", "d", "c");
+    }
+
+    @Test
+    void aScoreAtTheMinimumDoesNotGetIn() {
+        TopK top = new TopK(2);
+        top.offer("a", 5);
+        top.offer("b", 3);
+        top.offer("c", 3);
+
+        assertThat(top.keys()).containsExactly("a", "b");
+    }
+
+    @Test
+    void updatedScoresMoveTheKey() {
+        TopK top = new TopK(2);
+        top.offer("a", 5);
+        top.offer("b", 3);
+        top.offer("b", 8);
+
+        assertThat(top.keys()).containsExactly("b", "a");
+    }
+
+    @Test
+    void findsTheHeavyHittersFedBySketchEstimates() {
+        // The way CourseTrendingService uses it: each view offers the course's new estimate
+        CountMinSketch sketch = new CountMinSketch(4, 2048);
+        TopK top = new TopK(10);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            String key = random.nextInt(4) == 0 ? "hot-" + random.nextInt(10) : "tail-" + random.nextInt(50_000);
+            top.offer(key, sketch.add(key, 1));
+        }
+
+        assertThat(top.keys()).hasSize(10).allMatch(key -> key.startsWith("hot-"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.learnado.backend.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+class SessionSenderTest {
+
+    private static WebSocketSession openSession(List<String> sent) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(0, TextMessage.class).getPayload());
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    @Test
+    void framesAreSentInOrderOnAnInlineExecutor() throws Exception {
+        List<String> sent = new ArrayList<>();
+        SessionSender sender = new SessionSender(openSession(sent), Runnable::run, 10);
+
+        for (int i = 0; i < 5; i++) {
+            sender.send(new TextMessage("m" + i));
+        }
+
+        assertThat(sent).containsExactly("m0", "m1", "m2", "m3", "m4");
+    }
+
+    @Test
+    void aClientThatFallsBehindTheQueueLimitIsClosed() throws Exception {
+        List<String> sent = new ArrayList<>();
+        WebSocketSession session = openSession(sent);
+        // Nothing drains until we say so, as with a client that stopped reading
+        Queue<Runnable> drains = new ArrayDeque<>();
+        SessionSender sender = new SessionSender(session, drains::add, 3);
+
+        for (int i = 0; i < 3; i++) {
+            sender.send(new TextMessage("m" + i));
+        }
+        verify(session, never()).close(any(CloseStatus.class));
+        sender.send(new TextMessage("m3"));
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+
+        // The frames queued before the close are dropped, not written to the closed session
+        drains.forEach(Runnable::run);
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void concurrentSendersNeverWriteTheSessionTwiceAtOnce() throws Exception {
+        int producers = 8;
+        int perProducer = 500;
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger writing = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            if (writing.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            sent.add(invocation.getArgument(0, TextMessage.class).getPayload());
+            writing.decrementAndGet();
+            return null;
+        }).when(session).sendMessage(any());
+
+        ExecutorService drainPool = Executors.newCachedThreadPool();
+        ExecutorService producerPool = Executors.newFixedThreadPool(producers);
+        SessionSender sender = new SessionSender(session, drainPool, producers * perProducer);
+        CountDownLatch go = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            producerPool.execute(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    sender.send(new TextMessage(producer + ":" + i));
+                }
+            });
+        }
+        go.countDown();
+        producerPool.shutdown();
+        assertThat(producerPool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (sent.size() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        drainPool.shutdown();
+
+        assertThat(overlaps).hasValue(0);
+        assertThat(sent).hasSize(producers * perProducer);
+        // Each producer's frames arrive in the order it sent them
+        int[] next = new int[producers];
+        synchronized (sent) {
+            for (String frame : sent) {
+                String[] parts = frame.split(":");
+                int producer = Integer.parseInt(parts[0]);
+                assertThat(Integer.parseInt(parts[1])).isEqualTo(next[producer]++);
+            }
+        }
+    }
+}
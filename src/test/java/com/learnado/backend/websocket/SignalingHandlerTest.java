@@ -0,0 +1,125 @@
+package com.learnado.backend.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.learnado.backend.service.AttendanceAnalyticsService;
+import com.learnado.backend.service.ChatHistoryService;
+import com.learnado.backend.service.journal.LectureJournal;
+import com.learnado.backend.service.ratelimit.RateLimiter;
+
+class SignalingHandlerTest {
+
+    private static final String LECTURE = "l1";
+
+    private BulkOperations bulk;
+    private RoomStateStore roomStateStore;
+    private SignalingHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulk);
+        roomStateStore = new RoomStateStore(mongoTemplate);
+
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryAcquire(anyString(), anyString())).thenReturn(true);
+        handler = new SignalingHandler(mock(AttendanceAnalyticsService.class), roomStateStore,
+                mock(LectureJournal.class), mock(ChatHistoryService.class), rateLimiter, mock(SessionSenders.class));
+    }
+
+    private WebSocketSession join(String id, String email, String role) throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(LectureHandshakeInterceptor.LECTURE_ID, LECTURE);
+        attributes.put(LectureHandshakeInterceptor.EMAIL, email);
+        attributes.put(LectureHandshakeInterceptor.NAME, email);
+        attributes.put(LectureHandshakeInterceptor.ROLE, role);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"join\"}"));
+        return session;
+    }
+
+    @Test
+    void theInstructorLeavingLastDropsTheRoomAfterTheFinalFlush() throws Exception {
+        WebSocketSession student = join("s1", "student@example.com", "STUDENT");
+        WebSocketSession instructor = join("s2", "teacher@example.com", "INSTRUCTOR");
+        handler.handleTextMessage(instructor, new TextMessage("{\"type\":\"screen-share-start\"}"));
+        roomStateStore.flush();
+
+        handler.afterConnectionClosed(student, CloseStatus.NORMAL);
+        handler.afterConnectionClosed(instructor, CloseStatus.NORMAL);
+        assertThat(roomStateStore.get(LECTURE).closed()).isTrue();
+        roomStateStore.flush();
+
+        assertThat(roomStateStore.get(LECTURE)).isNull();
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), update.capture());
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("instructorPresent", false)
+                .containsEntry("isScreenSharing", false);
+    }
+
+    @Test
+    void aRoomWithSomeoneLeftIsKept() throws Exception {
+        join("s1", "student@example.com", "STUDENT");
+        WebSocketSession instructor = join("s2", "teacher@example.com", "INSTRUCTOR");
+
+        handler.afterConnectionClosed(instructor, CloseStatus.NORMAL);
+        roomStateStore.flush();
+
+        RoomStateStore.RoomState.Snapshot state = roomStateStore.get(LECTURE);
+        assertThat(state).isNotNull();
+        assertThat(state.instructorPresent()).isFalse();
+        assertThat(state.closed()).isFalse();
+        assertThat(handler.getParticipantCount(LECTURE)).isEqualTo(1);
+    }
+
+    @Test
+    void anInstructorRejoiningReopensAReleasedRoom() throws Exception {
+        WebSocketSession instructor = join("s1", "teacher@example.com", "INSTRUCTOR");
+        handler.afterConnectionClosed(instructor, CloseStatus.NORMAL);
+        join("s2", "teacher@example.com", "INSTRUCTOR");
+        roomStateStore.flush();
+
+        RoomStateStore.RoomState.Snapshot state = roomStateStore.get(LECTURE);
+        assertThat(state).isNotNull();
+        assertThat(state.instructorPresent()).isTrue();
+        assertThat(state.closed()).isFalse();
+    }
+
+    @Test
+    void closedRoomsStayInMemoryUntilTheirStateIsWritten() throws Exception {
+        when(bulk.execute()).thenThrow(new IllegalStateException("Mongo down"));
+        WebSocketSession instructor = join("s1", "teacher@example.com", "INSTRUCTOR");
+        handler.afterConnectionClosed(instructor, CloseStatus.NORMAL);
+
+        roomStateStore.flush();
+
+        assertThat(roomStateStore.get(LECTURE).closed()).isTrue();
+        verify(bulk).updateOne(any(Query.class), any(Update.class));
+    }
+}